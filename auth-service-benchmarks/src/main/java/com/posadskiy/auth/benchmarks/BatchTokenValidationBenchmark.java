@@ -0,0 +1,86 @@
+package com.posadskiy.auth.benchmarks;
+
+import com.posadskiy.auth.core.jwk.AccessTokenVerifier;
+import com.posadskiy.auth.core.jwk.InMemorySigningKeyStore;
+import com.posadskiy.auth.core.jwk.SigningKeyRing;
+import com.posadskiy.auth.core.property.BatchTokenValidationConfigurationProperties;
+import com.posadskiy.auth.core.property.JwtSigningConfigurationProperties;
+import com.posadskiy.auth.core.service.BatchTokenValidationService;
+import com.posadskiy.auth.core.service.BatchTokenValidationService.Result;
+import com.posadskiy.auth.core.service.JwtTokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to validate one batch of distinct access tokens: {@code batch} spreads the signature checks
+ * over the validator pool, {@code sequential} checks them one after another on the calling thread,
+ * as the same number of single requests would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchTokenValidationBenchmark {
+
+    @Param({"ES256", "EdDSA"})
+    public String algorithm;
+
+    @Param({"16", "256"})
+    public int batchSize;
+
+    private BatchTokenValidationService batchTokenValidationService;
+    private AccessTokenVerifier accessTokenVerifier;
+    private List<String> tokens;
+
+    @Setup
+    public void setUp() {
+        JwtSigningConfigurationProperties signing = new JwtSigningConfigurationProperties();
+        signing.setAlgorithm(algorithm);
+        signing.setKeyEncryptionSecret(Fixtures.SECRET);
+        SigningKeyRing signingKeyRing = new SigningKeyRing(new InMemorySigningKeyStore(), signing);
+        JwtTokenService jwtTokenService = new JwtTokenService(Duration.ofMinutes(5), signingKeyRing);
+        accessTokenVerifier = new AccessTokenVerifier(signingKeyRing);
+        batchTokenValidationService = new BatchTokenValidationService(
+                accessTokenVerifier, new BatchTokenValidationConfigurationProperties(), new SimpleMeterRegistry());
+
+        Instant now = Instant.now();
+        tokens = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            tokens.add(jwtTokenService
+                    .generateForClient("client-" + i, "users:read", now, now.plus(Duration.ofHours(1)))
+                    .accessToken());
+        }
+    }
+
+    @Benchmark
+    public List<Result> batch() {
+        return batchTokenValidationService.validate(tokens);
+    }
+
+    @Benchmark
+    public int sequential() {
+        Instant now = Instant.now();
+        int valid = 0;
+        for (String token : tokens) {
+            valid += accessTokenVerifier.verify(token, now).valid() ? 1 : 0;
+        }
+        return valid;
+    }
+}
@@ -0,0 +1,53 @@
+package com.posadskiy.auth.benchmarks;
+
+import com.posadskiy.auth.core.property.OAuthProviderConfigurationProperties;
+import com.posadskiy.auth.core.property.SocialOAuthConfigurationProperties;
+import com.posadskiy.auth.core.storage.db.entity.ExternalIdentityEntity;
+import com.posadskiy.auth.core.storage.db.entity.UserEntity;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+final class Fixtures {
+
+    static final String SECRET = "benchmark-secret-key-with-at-least-256-bits";
+
+    private Fixtures() {}
+
+    static UserEntity user() {
+        UserEntity user = new UserEntity();
+        user.setId(42L);
+        user.setUsername("jane.doe");
+        user.setEmail("jane.doe@example.com");
+        user.setEmailVerified(Boolean.TRUE);
+        user.setPictureUrl("https://lh3.googleusercontent.com/a/ACg8ocJ1benchmark=s96-c");
+        user.setLastLoginAt(LocalDateTime.now());
+        user.setVersion(3L);
+        return user;
+    }
+
+    static ExternalIdentityEntity identity() {
+        ExternalIdentityEntity identity = new ExternalIdentityEntity();
+        identity.setId(7L);
+        identity.setUserId(42L);
+        identity.setProvider("google");
+        identity.setProviderUserId("109876543210987654321");
+        return identity;
+    }
+
+    static SocialOAuthConfigurationProperties socialOAuth() {
+        SocialOAuthConfigurationProperties properties = new SocialOAuthConfigurationProperties();
+        properties.setStateTtl(Duration.ofMinutes(10));
+        properties.setEncryptionSecret(SECRET);
+        return properties;
+    }
+
+    static OAuthProviderConfigurationProperties google() {
+        OAuthProviderConfigurationProperties google = new OAuthProviderConfigurationProperties("google");
+        google.setClientId("1234567890-benchmark.apps.googleusercontent.com");
+        google.setAuthorizationUri("https://accounts.google.com/o/oauth2/v2/auth");
+        google.setRedirectUri("http://localhost:8100/oauth2/callback/google");
+        google.setScopes(List.of("openid", "email", "profile"));
+        return google;
+    }
+}
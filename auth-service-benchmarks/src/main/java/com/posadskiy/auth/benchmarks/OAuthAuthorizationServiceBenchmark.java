@@ -0,0 +1,48 @@
+package com.posadskiy.auth.benchmarks;
+
+import com.posadskiy.auth.core.oauth.OAuthProviderRegistry;
+import com.posadskiy.auth.core.oauth.OAuthStateStore;
+import com.posadskiy.auth.core.service.OAuthAuthorizationService;
+import com.posadskiy.auth.core.service.OAuthAuthorizationService.AuthorizationRequest;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building the provider redirect: PKCE verifier and challenge, nonce, state and the authorization
+ * URI. The state is consumed again so the store does not grow across iterations.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OAuthAuthorizationServiceBenchmark {
+
+    private OAuthStateStore stateStore;
+    private OAuthAuthorizationService authorizationService;
+
+    @Setup
+    public void setUp() {
+        stateStore = new OAuthStateStore(Fixtures.socialOAuth());
+        authorizationService =
+                new OAuthAuthorizationService(new OAuthProviderRegistry(List.of(Fixtures.google())), stateStore);
+    }
+
+    @Benchmark
+    public AuthorizationRequest authorize() {
+        AuthorizationRequest request = authorizationService.authorize("google", "");
+        stateStore.consume(request.state());
+        return request;
+    }
+}
@@ -0,0 +1,46 @@
+package com.posadskiy.auth.benchmarks;
+
+import com.posadskiy.auth.core.oauth.OAuthState;
+import com.posadskiy.auth.core.oauth.OAuthStateStore;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A login round trip against one shared store: every thread creates a state and consumes it again,
+ * as the authorize redirect and the callback do. Pairing the two keeps the store from growing
+ * across iterations. Run with {@code -t 1} for the uncontended baseline.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class OAuthStateStoreBenchmark {
+
+    private OAuthStateStore stateStore;
+
+    @Setup
+    public void setUp() {
+        stateStore = new OAuthStateStore(Fixtures.socialOAuth());
+    }
+
+    @Benchmark
+    public Optional<OAuthState> createAndConsume() {
+        OAuthState state =
+                stateStore.create("google", "http://localhost:8100/oauth2/callback/google", "code-verifier", "nonce");
+        return stateStore.consume(state.value());
+    }
+}
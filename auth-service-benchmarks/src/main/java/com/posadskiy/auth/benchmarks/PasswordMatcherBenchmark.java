@@ -0,0 +1,46 @@
+package com.posadskiy.auth.benchmarks;
+
+import com.posadskiy.auth.core.utils.PasswordMatcher;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * bcrypt verification cost per work factor. The stored hash carries its own cost, so
+ * {@link PasswordMatcher#match} is measured against hashes encoded at each cost.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordMatcherBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"8", "10", "12"})
+    private int cost;
+
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() {
+        encodedPassword = new BCryptPasswordEncoder(cost).encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean match() {
+        return PasswordMatcher.match(PASSWORD, encodedPassword);
+    }
+}
@@ -0,0 +1,82 @@
+package com.posadskiy.auth.benchmarks;
+
+import com.posadskiy.auth.core.EnvelopeRefreshTokenGenerator;
+import com.posadskiy.auth.core.property.RefreshTokenExpiryConfigurationProperties;
+import com.posadskiy.auth.core.property.RefreshTokenWriteConfigurationProperties;
+import com.posadskiy.auth.core.service.RefreshTokenIssuer;
+import com.posadskiy.auth.core.service.RefreshTokenWriter;
+import com.posadskiy.auth.core.storage.db.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.security.token.jwt.generator.RefreshTokenConfigurationProperties;
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Refresh token value generation and entity assembly, and the in-process check that turns away a
+ * forged token. The repository hands the entity straight back, so the database insert is not part
+ * of the measurement.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RefreshTokenIssuerBenchmark {
+
+    private RefreshTokenIssuer refreshTokenIssuer;
+    private EnvelopeRefreshTokenGenerator refreshTokenGenerator;
+    private String validToken;
+    private String forgedToken;
+
+    @Setup
+    public void setUp() {
+        RefreshTokenConfigurationProperties refreshTokenConfiguration = new RefreshTokenConfigurationProperties();
+        refreshTokenConfiguration.setSecret("benchmark-secret-benchmark-secret-benchmark");
+        refreshTokenGenerator = new EnvelopeRefreshTokenGenerator(
+                refreshTokenConfiguration, new RefreshTokenExpiryConfigurationProperties());
+        RefreshTokenRepository repository = (RefreshTokenRepository) Proxy.newProxyInstance(
+                RefreshTokenRepository.class.getClassLoader(),
+                new Class<?>[] {RefreshTokenRepository.class},
+                (proxy, method, args) -> args != null && args.length == 1 ? args[0] : null);
+        RefreshTokenWriteConfigurationProperties writeConfiguration = new RefreshTokenWriteConfigurationProperties();
+        writeConfiguration.setBatchEnabled(false);
+        refreshTokenIssuer = new RefreshTokenIssuer(
+                new RefreshTokenWriter(
+                        repository,
+                        null,
+                        writeConfiguration,
+                        new RefreshTokenExpiryConfigurationProperties(),
+                        new SimpleMeterRegistry()),
+                refreshTokenGenerator);
+        validToken = refreshTokenIssuer.issue(42L, "google", 7L);
+        char last = validToken.charAt(validToken.length() - 1);
+        forgedToken = validToken.substring(0, validToken.length() - 1) + (last == 'A' ? 'B' : 'A');
+    }
+
+    @Benchmark
+    public String issue() {
+        return refreshTokenIssuer.issue(42L, "google", 7L);
+    }
+
+    @Benchmark
+    public Optional<String> validate() {
+        return refreshTokenGenerator.validate(validToken);
+    }
+
+    @Benchmark
+    public Optional<String> rejectForged() {
+        return refreshTokenGenerator.validate(forgedToken);
+    }
+}
@@ -0,0 +1,174 @@
+package com.posadskiy.auth.benchmarks;
+
+import com.posadskiy.auth.core.EnvelopeRefreshTokenGenerator;
+import com.posadskiy.auth.core.SocialAuthConstants;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.token.event.RefreshTokenGeneratedEvent;
+import io.micronaut.security.token.refresh.RefreshTokenPersistence;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Refresh grants against the JDBC and the R2DBC token store, subscribed on a few single-threaded
+ * loops the way Netty subscribes a request. Every thread keeps one session and presents the
+ * successor it got back each time, so each operation is a real rotation. Sample time gives the p99;
+ * the share of each iteration the loops spent busy is printed after it.
+ *
+ * <p>Needs a PostgreSQL database the service has migrated, with a user row for {@code userId}:
+ *
+ * <pre>
+ * java -jar auth-service-benchmarks/target/benchmarks.jar RefreshTokenStore \
+ *     -p jdbcUrl=jdbc:postgresql://localhost:5432/auth_db -p r2dbcUrl=r2dbc:postgresql://localhost:5432/auth_db
+ * </pre>
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class RefreshTokenStoreBenchmark {
+
+    @Param({"jdbc", "r2dbc"})
+    private String store;
+
+    @Param("2")
+    private int eventLoops;
+
+    @Param("jdbc:postgresql://localhost:5432/auth_db")
+    private String jdbcUrl;
+
+    @Param("r2dbc:postgresql://localhost:5432/auth_db")
+    private String r2dbcUrl;
+
+    @Param("auth_user")
+    private String username;
+
+    @Param("auth_password")
+    private String password;
+
+    @Param("1")
+    private long userId;
+
+    private ApplicationContext applicationContext;
+    private RefreshTokenPersistence refreshTokenPersistence;
+    private EnvelopeRefreshTokenGenerator refreshTokenGenerator;
+    private BusyTimeExecutor eventLoopExecutor;
+    private Scheduler eventLoop;
+    private long iterationStartNanos;
+
+    @Setup
+    public void setUp() {
+        applicationContext = ApplicationContext.run(Map.ofEntries(
+                Map.entry("datasources.default.url", jdbcUrl),
+                Map.entry("datasources.default.username", username),
+                Map.entry("datasources.default.password", password),
+                Map.entry("datasources.default.dialect", "POSTGRES"),
+                Map.entry("flyway.datasources.default.enabled", false),
+                Map.entry("micronaut.security.token.jwt.generator.refresh-token.secret", Fixtures.SECRET),
+                Map.entry("auth.refresh-token.store", store),
+                Map.entry("auth.refresh-token.retention-enabled", false),
+                // one session per benchmark thread, none evicted by the others
+                Map.entry("auth.refresh-token.max-sessions", 1_000),
+                Map.entry("auth.refresh-token.r2dbc.url", r2dbcUrl),
+                Map.entry("auth.refresh-token.r2dbc.username", username),
+                Map.entry("auth.refresh-token.r2dbc.password", password)));
+        refreshTokenPersistence = applicationContext.getBean(RefreshTokenPersistence.class);
+        refreshTokenGenerator = applicationContext.getBean(EnvelopeRefreshTokenGenerator.class);
+        eventLoopExecutor = new BusyTimeExecutor(eventLoops);
+        eventLoop = Schedulers.fromExecutorService(eventLoopExecutor, "event-loop");
+    }
+
+    @TearDown
+    public void tearDown() {
+        eventLoop.dispose();
+        applicationContext.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        eventLoopExecutor.busyNanos.reset();
+        iterationStartNanos = System.nanoTime();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportUtilization() {
+        double available = (double) (System.nanoTime() - iterationStartNanos) * eventLoops;
+        System.out.printf(
+                "%nevent loop utilization (%s): %.1f%%%n",
+                store, 100 * eventLoopExecutor.busyNanos.sum() / available);
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        private String refreshToken;
+
+        @Setup
+        public void login(RefreshTokenStoreBenchmark benchmark) {
+            String key = benchmark.refreshTokenGenerator.createKey(benchmark.userId);
+            benchmark.refreshTokenPersistence.persistToken(new RefreshTokenGeneratedEvent(
+                    Authentication.build(String.valueOf(benchmark.userId)), key));
+            refreshToken = benchmark.refreshTokenGenerator.sign(key);
+        }
+    }
+
+    @Benchmark
+    public Authentication refresh(Session session) {
+        Authentication authentication = Mono.from(refreshTokenPersistence.getAuthentication(session.refreshToken))
+                .subscribeOn(eventLoop)
+                .block();
+        session.refreshToken =
+                (String) authentication.getAttributes().get(SocialAuthConstants.ATTR_ROTATED_REFRESH_TOKEN);
+        return authentication;
+    }
+
+    /** Single-queue stand-in for an event loop group that adds up how long its threads ran tasks. */
+    private static final class BusyTimeExecutor extends ThreadPoolExecutor {
+
+        private final LongAdder busyNanos = new LongAdder();
+        private final ThreadLocal<Long> taskStart = new ThreadLocal<>();
+
+        BusyTimeExecutor(int threads) {
+            super(
+                    threads,
+                    threads,
+                    0,
+                    TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(),
+                    Thread.ofPlatform().name("event-loop-", 1).daemon(true).factory());
+        }
+
+        @Override
+        protected void beforeExecute(Thread thread, Runnable task) {
+            taskStart.set(System.nanoTime());
+        }
+
+        @Override
+        protected void afterExecute(Runnable task, Throwable error) {
+            busyNanos.add(System.nanoTime() - taskStart.get());
+        }
+    }
+}
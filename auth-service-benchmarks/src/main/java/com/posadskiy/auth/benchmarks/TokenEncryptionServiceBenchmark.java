@@ -0,0 +1,45 @@
+package com.posadskiy.auth.benchmarks;
+
+import com.posadskiy.auth.core.service.TokenEncryptionService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * AES-GCM encryption of provider tokens, at the sizes of a typical opaque access token and of a
+ * provider-issued JWT.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenEncryptionServiceBenchmark {
+
+    @Param({"64", "1024"})
+    private int tokenLength;
+
+    private TokenEncryptionService tokenEncryptionService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenEncryptionService = new TokenEncryptionService(Fixtures.socialOAuth());
+        token = "t".repeat(tokenLength);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return tokenEncryptionService.encrypt(token);
+    }
+}
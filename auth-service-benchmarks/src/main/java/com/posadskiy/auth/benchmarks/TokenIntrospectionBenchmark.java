@@ -0,0 +1,104 @@
+package com.posadskiy.auth.benchmarks;
+
+import com.posadskiy.auth.core.EnvelopeRefreshTokenGenerator;
+import com.posadskiy.auth.core.cache.RefreshTokenCache;
+import com.posadskiy.auth.core.jwk.AccessTokenVerifier;
+import com.posadskiy.auth.core.jwk.AccessTokenVerifier.Verification;
+import com.posadskiy.auth.core.jwk.InMemorySigningKeyStore;
+import com.posadskiy.auth.core.jwk.SigningKeyRing;
+import com.posadskiy.auth.core.property.JwtSigningConfigurationProperties;
+import com.posadskiy.auth.core.property.RefreshTokenCacheConfigurationProperties;
+import com.posadskiy.auth.core.property.RefreshTokenExpiryConfigurationProperties;
+import com.posadskiy.auth.core.property.TokenIntrospectionCacheConfigurationProperties;
+import com.posadskiy.auth.core.service.JwtTokenService;
+import com.posadskiy.auth.core.service.TokenIntrospectionService;
+import com.posadskiy.auth.core.service.TokenIntrospectionService.Introspection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.security.token.jwt.generator.RefreshTokenConfigurationProperties;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Access token introspection on one thread: {@code hot} answers a working set of distinct tokens
+ * from the verified-token cache, {@code verify} is what every miss costs. The throughput of
+ * {@code hot} is the per-core budget of {@code /oauth2/introspect} without HTTP.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenIntrospectionBenchmark {
+
+    @Param({"ES256", "EdDSA"})
+    public String algorithm;
+
+    @Param({"1024"})
+    public int workingSet;
+
+    private TokenIntrospectionService tokenIntrospectionService;
+    private AccessTokenVerifier accessTokenVerifier;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtSigningConfigurationProperties signing = new JwtSigningConfigurationProperties();
+        signing.setAlgorithm(algorithm);
+        signing.setKeyEncryptionSecret(Fixtures.SECRET);
+        SigningKeyRing signingKeyRing = new SigningKeyRing(new InMemorySigningKeyStore(), signing);
+        JwtTokenService jwtTokenService = new JwtTokenService(Duration.ofMinutes(5), signingKeyRing);
+        RefreshTokenConfigurationProperties refreshTokenConfiguration = new RefreshTokenConfigurationProperties();
+        refreshTokenConfiguration.setSecret(Fixtures.SECRET);
+
+        accessTokenVerifier = new AccessTokenVerifier(signingKeyRing);
+        // only access tokens are introspected here, so refresh tokens have no repository behind them
+        tokenIntrospectionService = new TokenIntrospectionService(
+                accessTokenVerifier,
+                new EnvelopeRefreshTokenGenerator(
+                        refreshTokenConfiguration, new RefreshTokenExpiryConfigurationProperties()),
+                new RefreshTokenCache(new RefreshTokenCacheConfigurationProperties(), meterRegistry),
+                null,
+                new TokenIntrospectionCacheConfigurationProperties(),
+                meterRegistry);
+
+        Instant now = Instant.now();
+        tokens = new String[workingSet];
+        for (int i = 0; i < workingSet; i++) {
+            tokens[i] = jwtTokenService
+                    .generateForClient("client-" + i, "users:read", now, now.plus(Duration.ofHours(1)))
+                    .accessToken();
+            tokenIntrospectionService.introspect(tokens[i]);
+        }
+    }
+
+    @Benchmark
+    public Introspection hot() {
+        return tokenIntrospectionService.introspect(nextToken());
+    }
+
+    @Benchmark
+    public Verification verify() {
+        return accessTokenVerifier.verify(nextToken(), Instant.now());
+    }
+
+    private String nextToken() {
+        String token = tokens[next];
+        next = next + 1 == tokens.length ? 0 : next + 1;
+        return token;
+    }
+}
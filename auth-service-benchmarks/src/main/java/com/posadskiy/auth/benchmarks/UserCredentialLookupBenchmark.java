@@ -0,0 +1,143 @@
+package com.posadskiy.auth.benchmarks;
+
+import com.posadskiy.auth.core.storage.db.UsersRepository;
+import com.posadskiy.auth.core.storage.db.entity.UserEntity;
+import com.posadskiy.auth.core.storage.db.projection.UserCredentialProjection;
+import io.micronaut.context.ApplicationContext;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * What the password login reads per attempt: the whole {@link UserEntity} against the
+ * {@link UserCredentialProjection}, through the real repository on an in-memory H2 database in
+ * PostgreSQL mode. Compare {@code gc.alloc.rate.norm} for the bytes each lookup allocates.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserCredentialLookupBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:benchmarks;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE";
+    private static final String CREATE_USERS =
+            """
+            CREATE TABLE users
+            (
+                id               BIGSERIAL PRIMARY KEY,
+                username         VARCHAR(255) NOT NULL UNIQUE,
+                email            VARCHAR(255) NOT NULL UNIQUE,
+                email_normalized VARCHAR(255) GENERATED ALWAYS AS (LOWER(TRIM(email))),
+                password_hash    TEXT,
+                email_verified   BOOLEAN DEFAULT FALSE,
+                picture_url      TEXT,
+                last_login_at    TIMESTAMP WITH TIME ZONE,
+                version          BIGINT DEFAULT 0 NOT NULL,
+                created_at       TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+                updated_at       TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+                active           BOOLEAN NOT NULL DEFAULT TRUE,
+                deactivated_at   TIMESTAMP WITH TIME ZONE
+            )
+            """;
+    private static final String INSERT_USER = "INSERT INTO users (username, email, password_hash, email_verified, "
+            + "picture_url, last_login_at) VALUES (?, ?, ?, TRUE, ?, CURRENT_TIMESTAMP)";
+    private static final String PASSWORD_HASH = "$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy";
+
+    @Param({"10000"})
+    private int users;
+
+    private ApplicationContext context;
+    private UsersRepository usersRepository;
+    private String[] emails;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = ApplicationContext.run(Map.of(
+                "datasources.default.url",
+                URL,
+                "datasources.default.username",
+                "sa",
+                "datasources.default.password",
+                "",
+                "datasources.default.driver-class-name",
+                "org.h2.Driver",
+                "flyway.datasources.default.enabled",
+                false,
+                "micronaut.metrics.enabled",
+                false,
+                "auth.identity-filter.enabled",
+                false,
+                "auth.refresh-token.retention-enabled",
+                false,
+                "auth.password.hashing.calibration-enabled",
+                false));
+        usersRepository = context.getBean(UsersRepository.class);
+        try {
+            seed();
+        } catch (Exception e) {
+            context.close();
+            throw e;
+        }
+    }
+
+    private void seed() throws SQLException {
+        emails = new String[users];
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_USERS);
+                statement.execute("CREATE UNIQUE INDEX users_email_normalized_key ON users (email_normalized)");
+            }
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_USER)) {
+                for (int i = 0; i < users; i++) {
+                    emails[i] = "user" + i + "@example.com";
+                    insert.setString(1, "user" + i);
+                    insert.setString(2, emails[i]);
+                    insert.setString(3, PASSWORD_HASH);
+                    insert.setString(4, "https://lh3.googleusercontent.com/a/ACg8ocJ1user" + i + "=s96-c");
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<UserEntity> fullEntity() {
+        return usersRepository.findByEmail(nextEmail());
+    }
+
+    @Benchmark
+    public Optional<UserCredentialProjection> credentialProjection() {
+        return usersRepository.findCredentialsByEmail(nextEmail());
+    }
+
+    private String nextEmail() {
+        next = next + 1 == emails.length ? 0 : next + 1;
+        return emails[next];
+    }
+}
@@ -0,0 +1,208 @@
+package com.posadskiy.auth.benchmarks;
+
+import com.posadskiy.auth.core.storage.db.UsersRepository;
+import io.micronaut.context.ApplicationContext;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.net.SocketFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bytes the password login's user lookup brings back over the wire from PostgreSQL: the whole
+ * {@code UserEntity} ({@code findByEmail}, what the login read before) against the credential
+ * projection ({@code findCredentialsByEmail}). The driver's sockets count what they receive, and the
+ * bytes per lookup are printed after each iteration.
+ *
+ * <p>Needs a PostgreSQL database the service has migrated; the users it looks up are added before
+ * and removed after the run:
+ *
+ * <pre>
+ * java -jar auth-service-benchmarks/target/benchmarks.jar UserCredentialTransfer \
+ *     -p jdbcUrl=jdbc:postgresql://localhost:5432/auth_db
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserCredentialTransferBenchmark {
+
+    private static final String EMAIL_PREFIX = "transfer-benchmark-";
+    private static final String INSERT_USER = "INSERT INTO users (username, email, password_hash, email_verified, "
+            + "picture_url, last_login_at) VALUES (?, ?, ?, TRUE, ?, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING";
+    private static final String PASSWORD_HASH = "$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy";
+
+    @Param({"entity", "projection"})
+    private String lookup;
+
+    @Param("jdbc:postgresql://localhost:5432/auth_db")
+    private String jdbcUrl;
+
+    @Param("auth_user")
+    private String username;
+
+    @Param("auth_password")
+    private String password;
+
+    @Param("1000")
+    private int users;
+
+    private ApplicationContext applicationContext;
+    private UsersRepository usersRepository;
+    private String[] emails;
+    private int next;
+    private final LongAdder lookups = new LongAdder();
+
+    @Setup
+    public void setUp() throws SQLException {
+        seed();
+        String separator = jdbcUrl.contains("?") ? "&" : "?";
+        applicationContext = ApplicationContext.run(Map.ofEntries(
+                Map.entry("datasources.default.url",
+                        jdbcUrl + separator + "socketFactory=" + CountingSocketFactory.class.getName()),
+                Map.entry("datasources.default.username", username),
+                Map.entry("datasources.default.password", password),
+                Map.entry("datasources.default.dialect", "POSTGRES"),
+                Map.entry("flyway.datasources.default.enabled", false),
+                Map.entry("micronaut.metrics.enabled", false),
+                Map.entry("auth.identity-filter.enabled", false),
+                Map.entry("auth.refresh-token.retention-enabled", false),
+                Map.entry("auth.password.hashing.calibration-enabled", false)));
+        usersRepository = applicationContext.getBean(UsersRepository.class);
+    }
+
+    private void seed() throws SQLException {
+        emails = new String[users];
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password);
+                PreparedStatement insert = connection.prepareStatement(INSERT_USER)) {
+            for (int i = 0; i < users; i++) {
+                emails[i] = EMAIL_PREFIX + i + "@example.com";
+                insert.setString(1, EMAIL_PREFIX + i);
+                insert.setString(2, emails[i]);
+                insert.setString(3, PASSWORD_HASH);
+                insert.setString(4, "https://lh3.googleusercontent.com/a/ACg8ocJ1user" + i + "=s96-c");
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        applicationContext.close();
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password);
+                Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM users WHERE username LIKE '" + EMAIL_PREFIX + "%'");
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        CountingSocketFactory.RECEIVED.reset();
+        lookups.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportBytesReceived() {
+        System.out.printf(
+                "%nbytes received per lookup (%s): %.1f%n",
+                lookup, (double) CountingSocketFactory.RECEIVED.sum() / Math.max(1, lookups.sum()));
+    }
+
+    @Benchmark
+    public Object lookup() {
+        String email = nextEmail();
+        lookups.increment();
+        return "entity".equals(lookup)
+                ? usersRepository.findByEmail(email)
+                : usersRepository.findCredentialsByEmail(email);
+    }
+
+    private String nextEmail() {
+        next = next + 1 == emails.length ? 0 : next + 1;
+        return emails[next];
+    }
+
+    /** Handed to the PostgreSQL driver by class name; adds up what its sockets read. */
+    public static class CountingSocketFactory extends SocketFactory {
+
+        static final LongAdder RECEIVED = new LongAdder();
+
+        @Override
+        public Socket createSocket() {
+            return new CountingSocket();
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class CountingSocket extends Socket {
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        CountingSocketFactory.RECEIVED.increment();
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int read = super.read(buffer, offset, length);
+                    if (read > 0) {
+                        CountingSocketFactory.RECEIVED.add(read);
+                    }
+                    return read;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.posadskiy.auth.core;
+
+import com.posadskiy.auth.core.exception.ServiceOverloadedException;
+import com.posadskiy.auth.core.identity.KnownIdentityFilter;
+import com.posadskiy.auth.core.ratelimit.LoginRateLimiter;
+import com.posadskiy.auth.core.service.PasswordHashingService;
+import com.posadskiy.auth.core.service.PasswordVerificationService;
+import com.posadskiy.auth.core.storage.db.UsersRepository;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.security.authentication.AuthenticationFailureReason;
+import io.micronaut.security.authentication.AuthenticationRequest;
+import io.micronaut.security.authentication.AuthenticationResponse;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Password login shared by the provider modes selected with {@code auth.login.provider-mode}. The
+ * work is blocking (JDBC and hashing); subclasses decide which threads it runs on.
+ */
+abstract class AbstractAuthenticationProviderUserPassword {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AbstractAuthenticationProviderUserPassword.class);
+
+    @Inject
+    private UsersRepository usersRepository;
+
+    @Inject
+    private PasswordVerificationService passwordVerificationService;
+
+    @Inject
+    private PasswordHashingService passwordHashingService;
+
+    @Inject
+    private KnownIdentityFilter knownIdentityFilter;
+
+    @Inject
+    private LoginRateLimiter loginRateLimiter;
+
+    protected AuthenticationResponse authenticatePassword(
+            @Nullable HttpRequest<?> httpRequest,
+            @NonNull AuthenticationRequest<String, String> authenticationRequest) {
+        var retryAfter = loginRateLimiter.tryAcquire(httpRequest, authenticationRequest.getIdentity());
+        if (!retryAfter.isZero()) {
+            return AuthenticationThrottled.rateLimited(retryAfter);
+        }
+        boolean knownToFilter = knownIdentityFilter.mightContain(authenticationRequest.getIdentity());
+        if (!knownToFilter && !knownIdentityFilter.tryMissLookup()) {
+            return AuthenticationResponse.failure(AuthenticationFailureReason.USER_NOT_FOUND);
+        }
+        if (passwordVerificationService.isSaturated()) {
+            return AuthenticationThrottled.overloaded(passwordVerificationService.getRetryAfter());
+        }
+        var foundUser = usersRepository.findCredentialsByEmail(authenticationRequest.getIdentity());
+        if (foundUser.isEmpty()) {
+            if (knownToFilter) {
+                knownIdentityFilter.recordFalsePositive();
+            }
+            return AuthenticationResponse.failure(AuthenticationFailureReason.USER_NOT_FOUND);
+        }
+        var user = foundUser.get();
+        knownIdentityFilter.confirm(authenticationRequest.getIdentity());
+
+        var password = authenticationRequest.getSecret();
+
+        boolean validated;
+        try {
+            validated = passwordVerificationService.verify(password, user.passwordHash());
+        } catch (ServiceOverloadedException e) {
+            return AuthenticationThrottled.overloaded(e.getRetryAfter());
+        }
+
+        if (!validated) {
+            return AuthenticationResponse.failure(AuthenticationFailureReason.CREDENTIALS_DO_NOT_MATCH);
+        }
+
+        if (passwordHashingService.needsRehash(user.passwordHash())) {
+            passwordVerificationService.submit(() -> upgradePasswordHash(user.id(), user.passwordHash(), password));
+        }
+
+        return AuthenticationResponse.success(String.valueOf(user.id()));
+    }
+
+    private void upgradePasswordHash(Long userId, String currentPasswordHash, String password) {
+        try {
+            usersRepository.updatePasswordHash(userId, currentPasswordHash, passwordHashingService.encode(password));
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to upgrade password hash for user {}", userId, e);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.posadskiy.auth.core;
+
+import static io.micronaut.security.errors.IssuingAnAccessTokenErrorCode.INVALID_GRANT;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.posadskiy.auth.core.EnvelopeRefreshTokenGenerator.Envelope;
+import com.posadskiy.auth.core.cache.RefreshTokenCache;
+import com.posadskiy.auth.core.property.RefreshTokenExpiryConfigurationProperties;
+import com.posadskiy.auth.core.service.RefreshTokenWriter;
+import com.posadskiy.auth.core.storage.db.entity.RefreshTokenEntity;
+import com.posadskiy.auth.core.storage.db.projection.RefreshTokenRotation;
+import com.posadskiy.auth.core.utils.TokenDigest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.errors.OauthErrorResponseException;
+import io.micronaut.security.token.event.RefreshTokenGeneratedEvent;
+import io.micronaut.security.token.refresh.RefreshTokenPersistence;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+/**
+ * Refresh token persistence shared by the stores selected with {@code auth.refresh-token.store}. New
+ * tokens go through the {@link RefreshTokenWriter} batches; subclasses decide how a presented token
+ * is rotated, and on which threads.
+ */
+abstract class AbstractRefreshTokenPersistence implements RefreshTokenPersistence {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AbstractRefreshTokenPersistence.class);
+
+    private final EnvelopeRefreshTokenGenerator refreshTokenGenerator;
+    private final RefreshTokenWriter refreshTokenWriter;
+    private final RefreshTokenCache refreshTokenCache;
+    private final Cache<ByteBuffer, CompletableFuture<Authentication>> recentRedemptions;
+    private final Counter coalescedCounter;
+
+    protected AbstractRefreshTokenPersistence(
+            @Nullable EnvelopeRefreshTokenGenerator refreshTokenGenerator,
+            RefreshTokenWriter refreshTokenWriter,
+            RefreshTokenCache refreshTokenCache,
+            RefreshTokenExpiryConfigurationProperties expiryConfiguration,
+            MeterRegistry meterRegistry) {
+        this.refreshTokenGenerator = refreshTokenGenerator;
+        this.refreshTokenWriter = refreshTokenWriter;
+        this.refreshTokenCache = refreshTokenCache;
+        Duration idempotencyWindow = expiryConfiguration.getIdempotencyWindow();
+        this.recentRedemptions = idempotencyWindow.isPositive()
+                ? Caffeine.newBuilder()
+                        .expireAfterWrite(idempotencyWindow)
+                        .maximumSize(10_000)
+                        .build()
+                : null;
+        this.coalescedCounter = Counter.builder("auth.refresh.token.coalesced")
+                .description("Refresh grants answered with a concurrent redemption of the same token")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void persistToken(RefreshTokenGeneratedEvent event) {
+        if (event != null
+                && event.getRefreshToken() != null
+                && event.getAuthentication() != null
+                && event.getAuthentication().getName() != null) {
+            Long userId = parseUserId(event.getAuthentication().getName());
+            if (userId == null) {
+                LOG.warn("Refresh token not persisted, authentication name is not a user id");
+                return;
+            }
+            RefreshTokenEntity entity = new RefreshTokenEntity();
+            entity.setUserId(userId);
+            entity.setTokenDigest(TokenDigest.sha256(event.getRefreshToken()));
+            entity.setRevoked(Boolean.FALSE);
+            Map<String, Object> attributes = event.getAuthentication().getAttributes();
+            if (attributes != null) {
+                Object provider = attributes.get(SocialAuthConstants.ATTR_PROVIDER);
+                if (provider instanceof String providerValue) {
+                    entity.setProvider(providerValue);
+                }
+                Object identityId = attributes.get(SocialAuthConstants.ATTR_EXTERNAL_IDENTITY_ID);
+                if (identityId instanceof Number number) {
+                    entity.setExternalIdentityId(number.longValue());
+                } else if (identityId instanceof String identityIdString) {
+                    try {
+                        entity.setExternalIdentityId(Long.parseLong(identityIdString));
+                    } catch (NumberFormatException ignored) {
+                        // skip invalid id
+                    }
+                }
+            }
+            refreshTokenWriter.write(entity);
+        }
+    }
+
+    /**
+     * Redeems a refresh token by rotating it: the presented token is spent and the authentication
+     * carries its signed successor under {@link SocialAuthConstants#ATTR_ROTATED_REFRESH_TOKEN} for
+     * {@link RotatingAccessRefreshTokenGenerator} to hand out. Presenting a spent token again revokes
+     * the whole family. Tokens past their idle timeout or their session's absolute lifetime are
+     * refused before the database is asked, and so are all tokens of a family the
+     * {@link RefreshTokenCache} knows to be revoked. The rotation also returns the user's profile, so
+     * the authentication carries the same claims as the session's first access token.
+     *
+     * <p>Clients that refresh from several requests at once present the same token in parallel.
+     * Within the idempotency window those redemptions share the first one's result, instead of each
+     * going to the database and all but one tripping reuse detection.
+     */
+    @Override
+    public Publisher<Authentication> getAuthentication(String refreshToken) {
+        return Mono.defer(() -> {
+            Optional<Envelope> envelope =
+                    refreshTokenGenerator == null ? Optional.empty() : refreshTokenGenerator.open(refreshToken);
+            if (envelope.isEmpty()) {
+                return Mono.error(new OauthErrorResponseException(INVALID_GRANT, "refresh token not found", null));
+            }
+            if (envelope.get().isExpired(Instant.now())) {
+                return Mono.error(new OauthErrorResponseException(INVALID_GRANT, "refresh token expired", null));
+            }
+            if (refreshTokenCache.isRevoked(envelope.get().userId(), envelope.get().authenticatedAt())) {
+                return Mono.error(new OauthErrorResponseException(INVALID_GRANT, "refresh token revoked", null));
+            }
+            byte[] digest = TokenDigest.sha256(refreshToken);
+            if (recentRedemptions == null) {
+                return redeem(digest, envelope.get());
+            }
+            CompletableFuture<Authentication> redemption = new CompletableFuture<>();
+            CompletableFuture<Authentication> inFlight =
+                    recentRedemptions.asMap().putIfAbsent(ByteBuffer.wrap(digest), redemption);
+            if (inFlight != null) {
+                coalescedCounter.increment();
+                return Mono.fromFuture(inFlight, true);
+            }
+            // Runs to the end even if this subscriber goes away, since others may be waiting on it.
+            redeem(digest, envelope.get()).subscribe(redemption::complete, error -> {
+                // nothing was rotated, so a retry may go to the database again
+                recentRedemptions.asMap().remove(ByteBuffer.wrap(digest), redemption);
+                redemption.completeExceptionally(error);
+            });
+            return Mono.fromFuture(redemption, true);
+        });
+    }
+
+    /**
+     * Spends the presented token and registers its successor, or revokes the family when it was spent
+     * already. Empty when the digest is unknown.
+     */
+    protected abstract Mono<RefreshTokenRotation> rotate(
+            byte[] presentedDigest, Instant presentedIssuedAt, byte[] successorDigest);
+
+    private Mono<Authentication> redeem(byte[] digest, Envelope envelope) {
+        String successorKey = refreshTokenGenerator.createSuccessorKey(envelope);
+        return rotate(digest, envelope.issuedAt(), TokenDigest.sha256(successorKey))
+                .switchIfEmpty(Mono.error(
+                        () -> new OauthErrorResponseException(INVALID_GRANT, "refresh token not found", null)))
+                .handle((rotation, sink) -> {
+                    if (!rotation.rotated()) {
+                        refreshTokenCache.familyRevoked(envelope.userId(), envelope.authenticatedAt());
+                        LOG.warn("Refresh token reused for user {}, revoked its token family", rotation.userId());
+                        sink.error(new OauthErrorResponseException(INVALID_GRANT, "refresh token revoked", null));
+                        return;
+                    }
+                    Map<String, Object> attributes = claims(rotation);
+                    attributes.put(
+                            SocialAuthConstants.ATTR_ROTATED_REFRESH_TOKEN, refreshTokenGenerator.sign(successorKey));
+                    sink.next(Authentication.build(String.valueOf(rotation.userId()), attributes));
+                });
+    }
+
+    /**
+     * The claims {@code JwtTokenService} signs into the first access token of a social login, so a
+     * refreshed token looks the same. Password logins carry none, and get none here either.
+     */
+    private static Map<String, Object> claims(RefreshTokenRotation rotation) {
+        Map<String, Object> claims = new HashMap<>();
+        if (rotation.providerUserId() == null) {
+            return claims;
+        }
+        putIfPresent(claims, "email", rotation.email());
+        putIfPresent(claims, SocialAuthConstants.CLAIM_EMAIL_VERIFIED, rotation.emailVerified());
+        putIfPresent(claims, SocialAuthConstants.CLAIM_PICTURE, rotation.pictureUrl());
+        putIfPresent(claims, SocialAuthConstants.ATTR_PROVIDER, rotation.provider());
+        putIfPresent(claims, SocialAuthConstants.ATTR_EXTERNAL_SUBJECT, rotation.providerUserId());
+        return claims;
+    }
+
+    private static void putIfPresent(Map<String, Object> claims, String name, Object value) {
+        if (value != null) {
+            claims.put(name, value);
+        }
+    }
+
+    private static Long parseUserId(String name) {
+        try {
+            return Long.valueOf(name);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.posadskiy.auth.core;
+
+import io.micronaut.http.HttpStatus;
+import io.micronaut.security.authentication.AuthenticationFailed;
+import java.time.Duration;
+
+/**
+ * Authentication failure that was decided before the credentials were checked, because the
+ * service refused to spend more work on the attempt. Login handlers map it to {@link #getStatus()}
+ * with a {@code Retry-After} header instead of a plain 401.
+ */
+public class AuthenticationThrottled extends AuthenticationFailed {
+
+    private final HttpStatus status;
+    private final Duration retryAfter;
+
+    public AuthenticationThrottled(HttpStatus status, Duration retryAfter, String message) {
+        super(message);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    public static AuthenticationThrottled overloaded(Duration retryAfter) {
+        return new AuthenticationThrottled(
+                HttpStatus.SERVICE_UNAVAILABLE, retryAfter, "Too many concurrent login attempts");
+    }
+
+    public static AuthenticationThrottled rateLimited(Duration retryAfter) {
+        return new AuthenticationThrottled(HttpStatus.TOO_MANY_REQUESTS, retryAfter, "Too many login attempts");
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public long getRetryAfterSeconds() {
+        long seconds = (retryAfter.toMillis() + 999) / 1000;
+        return Math.max(1, seconds);
+    }
+}
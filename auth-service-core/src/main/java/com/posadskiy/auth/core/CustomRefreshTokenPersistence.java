@@ -1,79 +1,40 @@
 package com.posadskiy.auth.core;
 
-import static io.micronaut.security.errors.IssuingAnAccessTokenErrorCode.INVALID_GRANT;
-
+import com.posadskiy.auth.core.cache.RefreshTokenCache;
+import com.posadskiy.auth.core.property.RefreshTokenExpiryConfigurationProperties;
+import com.posadskiy.auth.core.service.RefreshTokenWriter;
 import com.posadskiy.auth.core.storage.db.RefreshTokenRepository;
-import com.posadskiy.auth.core.storage.db.entity.RefreshTokenEntity;
-import io.micronaut.security.authentication.Authentication;
-import io.micronaut.security.errors.OauthErrorResponseException;
-import io.micronaut.security.token.event.RefreshTokenGeneratedEvent;
-import io.micronaut.security.token.refresh.RefreshTokenPersistence;
+import com.posadskiy.auth.core.storage.db.projection.RefreshTokenRotation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Nullable;
 import jakarta.inject.Singleton;
-import java.util.Map;
-import java.util.Optional;
-import org.reactivestreams.Publisher;
-import reactor.core.publisher.Flux;
-import reactor.core.publisher.FluxSink;
+import java.time.Instant;
+import reactor.core.publisher.Mono;
 
+/** Rotates refresh tokens through JDBC, blocking the subscribing thread for the round trip. */
 @Singleton
-public class CustomRefreshTokenPersistence implements RefreshTokenPersistence {
+@Requires(property = "auth.refresh-token.store", value = "jdbc", defaultValue = "jdbc")
+public class CustomRefreshTokenPersistence extends AbstractRefreshTokenPersistence {
 
     private final RefreshTokenRepository refreshTokenRepository;
 
-    public CustomRefreshTokenPersistence(RefreshTokenRepository refreshTokenRepository) {
+    public CustomRefreshTokenPersistence(
+            RefreshTokenRepository refreshTokenRepository,
+            @Nullable EnvelopeRefreshTokenGenerator refreshTokenGenerator,
+            RefreshTokenWriter refreshTokenWriter,
+            RefreshTokenCache refreshTokenCache,
+            RefreshTokenExpiryConfigurationProperties expiryConfiguration,
+            MeterRegistry meterRegistry) {
+        super(refreshTokenGenerator, refreshTokenWriter, refreshTokenCache, expiryConfiguration, meterRegistry);
         this.refreshTokenRepository = refreshTokenRepository;
     }
 
     @Override
-    public void persistToken(RefreshTokenGeneratedEvent event) {
-        if (event != null
-                && event.getRefreshToken() != null
-                && event.getAuthentication() != null
-                && event.getAuthentication().getName() != null) {
-            String payload = event.getRefreshToken();
-            RefreshTokenEntity entity = new RefreshTokenEntity();
-            entity.setUsername(event.getAuthentication().getName());
-            entity.setRefreshToken(payload);
-            entity.setRevoked(Boolean.FALSE);
-            Map<String, Object> attributes = event.getAuthentication().getAttributes();
-            if (attributes != null) {
-                Object provider = attributes.get(SocialAuthConstants.ATTR_PROVIDER);
-                if (provider instanceof String providerValue) {
-                    entity.setProvider(providerValue);
-                }
-                Object identityId = attributes.get(SocialAuthConstants.ATTR_EXTERNAL_IDENTITY_ID);
-                if (identityId instanceof Number number) {
-                    entity.setExternalIdentityId(number.longValue());
-                } else if (identityId instanceof String identityIdString) {
-                    try {
-                        entity.setExternalIdentityId(Long.parseLong(identityIdString));
-                    } catch (NumberFormatException ignored) {
-                        // skip invalid id
-                    }
-                }
-            }
-            refreshTokenRepository.save(entity);
-        }
-    }
-
-    @Override
-    public Publisher<Authentication> getAuthentication(String refreshToken) {
-        return Flux.create(
-                emitter -> {
-                    Optional<RefreshTokenEntity> tokenOpt = refreshTokenRepository.findByRefreshToken(refreshToken);
-                    if (tokenOpt.isPresent()) {
-                        RefreshTokenEntity token = tokenOpt.get();
-                        if (token.getRevoked()) {
-                            emitter.error(
-                                    new OauthErrorResponseException(INVALID_GRANT, "refresh token revoked", null));
-                        } else {
-                            emitter.next(Authentication.build(token.getUsername()));
-                            emitter.complete();
-                        }
-                    } else {
-                        emitter.error(new OauthErrorResponseException(INVALID_GRANT, "refresh token not found", null));
-                    }
-                },
-                FluxSink.OverflowStrategy.ERROR);
+    protected Mono<RefreshTokenRotation> rotate(
+            byte[] presentedDigest, Instant presentedIssuedAt, byte[] successorDigest) {
+        return Mono.fromCallable(() -> refreshTokenRepository
+                .rotate(presentedDigest, presentedIssuedAt, successorDigest)
+                .orElse(null));
     }
 }
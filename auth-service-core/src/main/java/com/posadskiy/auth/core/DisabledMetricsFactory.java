@@ -0,0 +1,21 @@
+package com.posadskiy.auth.core;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micronaut.context.annotation.Factory;
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Singleton;
+
+/**
+ * Micronaut only registers a {@link MeterRegistry} while metrics are enabled. Services that record
+ * their own meters get a no-op registry instead when {@code micronaut.metrics.enabled} is false.
+ */
+@Factory
+public class DisabledMetricsFactory {
+
+    @Singleton
+    @Requires(property = "micronaut.metrics.enabled", value = "false")
+    MeterRegistry disabledMeterRegistry() {
+        return new CompositeMeterRegistry();
+    }
+}
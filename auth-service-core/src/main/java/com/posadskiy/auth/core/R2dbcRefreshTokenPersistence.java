@@ -0,0 +1,41 @@
+package com.posadskiy.auth.core;
+
+import com.posadskiy.auth.core.cache.RefreshTokenCache;
+import com.posadskiy.auth.core.property.RefreshTokenExpiryConfigurationProperties;
+import com.posadskiy.auth.core.service.RefreshTokenWriter;
+import com.posadskiy.auth.core.storage.db.projection.RefreshTokenRotation;
+import com.posadskiy.auth.core.storage.r2dbc.RefreshTokenR2dbcRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Nullable;
+import jakarta.inject.Singleton;
+import java.time.Instant;
+import reactor.core.publisher.Mono;
+
+/**
+ * Rotates refresh tokens through R2DBC, so a refresh grant never blocks the thread that subscribes
+ * to it, usually a Netty event loop.
+ */
+@Singleton
+@Requires(property = "auth.refresh-token.store", value = "r2dbc")
+public class R2dbcRefreshTokenPersistence extends AbstractRefreshTokenPersistence {
+
+    private final RefreshTokenR2dbcRepository refreshTokenRepository;
+
+    public R2dbcRefreshTokenPersistence(
+            RefreshTokenR2dbcRepository refreshTokenRepository,
+            @Nullable EnvelopeRefreshTokenGenerator refreshTokenGenerator,
+            RefreshTokenWriter refreshTokenWriter,
+            RefreshTokenCache refreshTokenCache,
+            RefreshTokenExpiryConfigurationProperties expiryConfiguration,
+            MeterRegistry meterRegistry) {
+        super(refreshTokenGenerator, refreshTokenWriter, refreshTokenCache, expiryConfiguration, meterRegistry);
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    @Override
+    protected Mono<RefreshTokenRotation> rotate(
+            byte[] presentedDigest, Instant presentedIssuedAt, byte[] successorDigest) {
+        return refreshTokenRepository.rotate(presentedDigest, presentedIssuedAt, successorDigest);
+    }
+}
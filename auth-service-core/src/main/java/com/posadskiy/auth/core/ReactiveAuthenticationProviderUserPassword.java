@@ -0,0 +1,41 @@
+package com.posadskiy.auth.core;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.security.authentication.AuthenticationRequest;
+import io.micronaut.security.authentication.AuthenticationResponse;
+import io.micronaut.security.authentication.provider.HttpRequestReactiveAuthenticationProvider;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import java.util.concurrent.ExecutorService;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs each login on its own virtual thread instead of the bounded blocking pool, so waiting on a
+ * pool connection or a verifier slot parks a cheap virtual thread rather than a platform one.
+ */
+@Singleton
+@Requires(property = "auth.login.provider-mode", value = "reactive")
+class ReactiveAuthenticationProviderUserPassword<B> extends AbstractAuthenticationProviderUserPassword
+        implements HttpRequestReactiveAuthenticationProvider<B> {
+
+    private final Scheduler scheduler;
+
+    ReactiveAuthenticationProviderUserPassword(@Named(TaskExecutors.VIRTUAL) ExecutorService executorService) {
+        this.scheduler = Schedulers.fromExecutorService(executorService);
+    }
+
+    @Override
+    public @NonNull Publisher<AuthenticationResponse> authenticate(
+            @Nullable HttpRequest<B> httpRequest,
+            @NonNull AuthenticationRequest<String, String> authenticationRequest) {
+        return Mono.fromCallable(() -> authenticatePassword(httpRequest, authenticationRequest))
+                .subscribeOn(scheduler);
+    }
+}
@@ -0,0 +1,85 @@
+package com.posadskiy.auth.core;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.posadskiy.auth.core.property.RefreshTokenExpiryConfigurationProperties;
+import io.micronaut.context.BeanContext;
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.ApplicationEventPublisher;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.token.claims.ClaimsGenerator;
+import io.micronaut.security.token.event.AccessTokenGeneratedEvent;
+import io.micronaut.security.token.event.RefreshTokenGeneratedEvent;
+import io.micronaut.security.token.generator.AccessTokenConfiguration;
+import io.micronaut.security.token.generator.DefaultAccessRefreshTokenGenerator;
+import io.micronaut.security.token.generator.RefreshTokenGenerator;
+import io.micronaut.security.token.generator.TokenGenerator;
+import io.micronaut.security.token.render.AccessRefreshToken;
+import io.micronaut.security.token.render.TokenRenderer;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Answers a refresh grant with the successor token {@link CustomRefreshTokenPersistence} rotated in,
+ * instead of echoing the spent one back. The successor travels as an authentication attribute and is
+ * removed before the access token is signed, so it never ends up in the claims.
+ *
+ * <p>Refreshes that {@link CustomRefreshTokenPersistence} coalesced carry the same successor, and
+ * within the idempotency window they are answered with the one access token signed for it.
+ */
+@Singleton
+@Replaces(DefaultAccessRefreshTokenGenerator.class)
+@Requires(beans = {AccessTokenConfiguration.class, TokenRenderer.class, TokenGenerator.class, ClaimsGenerator.class})
+public class RotatingAccessRefreshTokenGenerator extends DefaultAccessRefreshTokenGenerator {
+
+    private final Cache<String, Optional<AccessRefreshToken>> recentResponses;
+
+    public RotatingAccessRefreshTokenGenerator(
+            AccessTokenConfiguration accessTokenConfiguration,
+            TokenRenderer tokenRenderer,
+            TokenGenerator tokenGenerator,
+            BeanContext beanContext,
+            @Nullable RefreshTokenGenerator refreshTokenGenerator,
+            ClaimsGenerator claimsGenerator,
+            ApplicationEventPublisher<RefreshTokenGeneratedEvent> refreshTokenGeneratedEventPublisher,
+            ApplicationEventPublisher<AccessTokenGeneratedEvent> accessTokenGeneratedEventPublisher,
+            RefreshTokenExpiryConfigurationProperties expiryConfiguration) {
+        super(
+                accessTokenConfiguration,
+                tokenRenderer,
+                tokenGenerator,
+                beanContext,
+                refreshTokenGenerator,
+                claimsGenerator,
+                refreshTokenGeneratedEventPublisher,
+                accessTokenGeneratedEventPublisher);
+        Duration idempotencyWindow = expiryConfiguration.getIdempotencyWindow();
+        this.recentResponses = idempotencyWindow.isPositive()
+                ? Caffeine.newBuilder()
+                        .expireAfterWrite(idempotencyWindow)
+                        .maximumSize(10_000)
+                        .build()
+                : null;
+    }
+
+    @Override
+    public Optional<AccessRefreshToken> generate(String refreshToken, Authentication authentication) {
+        if (authentication.getAttributes().get(SocialAuthConstants.ATTR_ROTATED_REFRESH_TOKEN)
+                instanceof String successor) {
+            Map<String, Object> attributes = new HashMap<>(authentication.getAttributes());
+            attributes.remove(SocialAuthConstants.ATTR_ROTATED_REFRESH_TOKEN);
+            Authentication signed =
+                    Authentication.build(authentication.getName(), authentication.getRoles(), attributes);
+            if (recentResponses == null) {
+                return super.generate(successor, signed);
+            }
+            return recentResponses.get(successor, key -> super.generate(key, signed));
+        }
+        return super.generate(refreshToken, authentication);
+    }
+}
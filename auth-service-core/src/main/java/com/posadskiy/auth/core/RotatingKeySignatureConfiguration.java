@@ -0,0 +1,63 @@
+package com.posadskiy.auth.core;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.posadskiy.auth.core.jwk.SigningAlgorithm;
+import com.posadskiy.auth.core.jwk.SigningKey;
+import com.posadskiy.auth.core.jwk.SigningKeyRing;
+import io.micronaut.security.token.jwt.signature.SignatureGeneratorConfiguration;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+/**
+ * Signs the access tokens of {@code /login} with the {@link SigningKeyRing}'s active key, with its
+ * {@code kid} in the header, and verifies tokens signed by any key the ring still publishes. Takes the
+ * place of the shared-secret generator, so the same keys back both login paths and the JWKS.
+ */
+@Singleton
+@Named("generator")
+public class RotatingKeySignatureConfiguration implements SignatureGeneratorConfiguration {
+
+    private final SigningKeyRing signingKeyRing;
+
+    public RotatingKeySignatureConfiguration(SigningKeyRing signingKeyRing) {
+        this.signingKeyRing = signingKeyRing;
+    }
+
+    @Override
+    public SignedJWT sign(JWTClaimsSet claims) throws JOSEException {
+        SigningKey key = signingKeyRing.active();
+        SignedJWT jwt = new SignedJWT(
+                new JWSHeader.Builder(key.algorithm().jwsAlgorithm()).keyID(key.kid()).build(), claims);
+        jwt.sign(key.jwsSigner());
+        return jwt;
+    }
+
+    @Override
+    public String supportedAlgorithmsMessage() {
+        return "Only the ES256 and EdDSA algorithms are supported";
+    }
+
+    // either one, as keys published before a change of algorithm still verify
+    @Override
+    public boolean supports(JWSAlgorithm algorithm) {
+        for (SigningAlgorithm supported : SigningAlgorithm.values()) {
+            if (supported.jwsAlgorithm().equals(algorithm)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean verify(SignedJWT jwt) {
+        String kid = jwt.getHeader().getKeyID();
+        SigningKey key = kid == null ? null : signingKeyRing.find(kid);
+        return key != null
+                && key.algorithm().jwsAlgorithm().equals(jwt.getHeader().getAlgorithm())
+                && key.verify(jwt.getSigningInput(), jwt.getSignature().decode());
+    }
+}
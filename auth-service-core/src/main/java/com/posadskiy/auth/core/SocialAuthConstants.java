@@ -5,8 +5,11 @@ public final class SocialAuthConstants {
     public static final String ATTR_PROVIDER = "idp_provider";
     public static final String ATTR_EXTERNAL_SUBJECT = "external_subject";
     public static final String ATTR_EXTERNAL_IDENTITY_ID = "external_identity_id";
+    public static final String ATTR_ROTATED_REFRESH_TOKEN = "rotated_refresh_token";
     public static final String CLAIM_EMAIL_VERIFIED = "email_verified";
     public static final String CLAIM_PICTURE = "picture";
+    public static final String CLAIM_CLIENT_ID = "client_id";
+    public static final String CLAIM_SCOPE = "scope";
 
     private SocialAuthConstants() {
     }
@@ -0,0 +1,70 @@
+package com.posadskiy.auth.core.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.posadskiy.auth.core.property.RefreshTokenCacheConfigurationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Singleton;
+import java.time.Instant;
+
+/**
+ * Refresh token families this service revoked for reuse, so every token of such a family, the live
+ * successor included, is refused without a database round trip. Bounded by
+ * {@code auth.refresh-token.cache.maximum-size} and expired after {@code expire-after-write}.
+ *
+ * <p>A family is known from the token alone: every successor keeps the user and the session start
+ * of the envelope it was rotated from. Two sessions of one user begun within the same second share
+ * that key, so revoking one refuses the other from memory as well; it logs in again.
+ *
+ * <p>Live tokens are not cached. Redeeming one rotates it, which has to reach the database anyway,
+ * so a cached live entry would save no lookup and could only go stale.
+ *
+ * <p>{@code auth.refresh.token.cache.rejected} counts tokens refused from memory and
+ * {@code auth.refresh.token.cache.database.lookups} the ones that went on to the database.
+ */
+@Singleton
+public class RefreshTokenCache {
+
+    private final Cache<Family, Boolean> revokedFamilies;
+    private final Counter rejectedCounter;
+    private final Counter databaseLookupCounter;
+
+    public RefreshTokenCache(RefreshTokenCacheConfigurationProperties configuration, MeterRegistry meterRegistry) {
+        this.revokedFamilies = Caffeine.newBuilder()
+                .maximumSize(configuration.getMaximumSize())
+                .expireAfterWrite(configuration.getExpireAfterWrite())
+                .build();
+        this.rejectedCounter = Counter.builder("auth.refresh.token.cache.rejected")
+                .description("Refresh tokens of a revoked family refused without a database lookup")
+                .register(meterRegistry);
+        this.databaseLookupCounter = Counter.builder("auth.refresh.token.cache.database.lookups")
+                .description("Refresh tokens not known to be revoked, checked against the database")
+                .register(meterRegistry);
+        Gauge.builder("auth.refresh.token.cache.size", revokedFamilies, Cache::estimatedSize)
+                .description("Refresh token families remembered as revoked")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the token of this user and session start belongs to a family this service revoked,
+     * answered from memory only. When it does not, the caller goes to the database, which is what the
+     * lookup counter records.
+     */
+    public boolean isRevoked(long userId, Instant authenticatedAt) {
+        if (revokedFamilies.getIfPresent(new Family(userId, authenticatedAt.getEpochSecond())) != null) {
+            rejectedCounter.increment();
+            return true;
+        }
+        databaseLookupCounter.increment();
+        return false;
+    }
+
+    /** Records that reuse of a token of this user and session start revoked its family. */
+    public void familyRevoked(long userId, Instant authenticatedAt) {
+        revokedFamilies.put(new Family(userId, authenticatedAt.getEpochSecond()), Boolean.TRUE);
+    }
+
+    private record Family(long userId, long authenticatedAt) {}
+}
@@ -0,0 +1,147 @@
+package com.posadskiy.auth.core.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.posadskiy.auth.core.property.UserCacheConfigurationProperties;
+import com.posadskiy.auth.core.storage.db.UsersRepository;
+import com.posadskiy.auth.core.storage.db.entity.UserEntity;
+import com.posadskiy.auth.core.utils.EmailNormalizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micronaut.data.annotation.event.PostPersist;
+import io.micronaut.data.annotation.event.PostRemove;
+import io.micronaut.data.annotation.event.PostUpdate;
+import io.micronaut.data.exceptions.OptimisticLockException;
+import jakarta.inject.Singleton;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Read-through cache of {@link UserEntity} by id and by normalized email, refreshed by repository
+ * writes and expired after {@code auth.user-cache.expire-after-write} to bound staleness from
+ * writers in other services.
+ *
+ * <p>Entries are copies, so callers may mutate what they get back. An entry is only ever replaced
+ * by one with the same or a newer {@code version}, and an update of a stale copy is retried once
+ * against a fresh read.
+ */
+@Singleton
+public class UserCache {
+
+    private final UsersRepository usersRepository;
+    private final Cache<Long, UserEntity> byId;
+    private final Cache<String, Long> idByEmail;
+
+    public UserCache(
+            UsersRepository usersRepository,
+            UserCacheConfigurationProperties configuration,
+            MeterRegistry meterRegistry) {
+        this.usersRepository = usersRepository;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(configuration.getMaximumSize())
+                .expireAfterWrite(configuration.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        this.idByEmail = Caffeine.newBuilder()
+                .maximumSize(configuration.getMaximumSize())
+                .expireAfterWrite(configuration.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idByEmail, "users.by-email");
+    }
+
+    public Optional<UserEntity> findById(Long id) {
+        UserEntity cached = byId.get(id, key -> usersRepository
+                .findById(key)
+                .map(user -> {
+                    indexEmail(user);
+                    return copy(user);
+                })
+                .orElse(null));
+        return Optional.ofNullable(cached).map(UserCache::copy);
+    }
+
+    public Optional<UserEntity> findByEmail(String email) {
+        String key = EmailNormalizer.normalize(email);
+        if (key == null) {
+            return Optional.empty();
+        }
+        Long id = idByEmail.getIfPresent(key);
+        if (id != null) {
+            UserEntity cached = byId.getIfPresent(id);
+            if (cached != null && key.equals(EmailNormalizer.normalize(cached.getEmail()))) {
+                return Optional.of(copy(cached));
+            }
+        }
+        Optional<UserEntity> user = usersRepository.findByEmail(email);
+        user.ifPresent(this::put);
+        return user;
+    }
+
+    /**
+     * Applies {@code changes} and updates the user. If the copy was stale, the changes are applied
+     * once more to the current row.
+     */
+    public UserEntity update(UserEntity user, Consumer<UserEntity> changes) {
+        changes.accept(user);
+        try {
+            return usersRepository.update(user);
+        } catch (OptimisticLockException e) {
+            byId.invalidate(user.getId());
+            UserEntity current = usersRepository.findById(user.getId()).orElseThrow(() -> e);
+            changes.accept(current);
+            return usersRepository.update(current);
+        }
+    }
+
+    @PostPersist
+    void onUserPersisted(UserEntity user) {
+        put(user);
+    }
+
+    @PostUpdate
+    void onUserUpdated(UserEntity user) {
+        put(user);
+    }
+
+    @PostRemove
+    void onUserRemoved(UserEntity user) {
+        byId.invalidate(user.getId());
+    }
+
+    private void put(UserEntity user) {
+        if (user.getId() == null) {
+            return;
+        }
+        byId.asMap()
+                .merge(user.getId(), copy(user), (cached, fresh) -> version(fresh) >= version(cached) ? fresh : cached);
+        indexEmail(user);
+    }
+
+    private void indexEmail(UserEntity user) {
+        String email = EmailNormalizer.normalize(user.getEmail());
+        if (email != null) {
+            idByEmail.put(email, user.getId());
+        }
+    }
+
+    private static long version(UserEntity user) {
+        return user.getVersion() == null ? -1 : user.getVersion();
+    }
+
+    private static UserEntity copy(UserEntity user) {
+        UserEntity copy = new UserEntity();
+        copy.setId(user.getId());
+        copy.setUsername(user.getUsername());
+        copy.setEmail(user.getEmail());
+        copy.setPasswordHash(user.getPasswordHash());
+        copy.setEmailVerified(user.getEmailVerified());
+        copy.setPictureUrl(user.getPictureUrl());
+        copy.setLastLoginAt(user.getLastLoginAt());
+        copy.setUpdatedAt(user.getUpdatedAt());
+        copy.setCreatedAt(user.getCreatedAt());
+        copy.setVersion(user.getVersion());
+        return copy;
+    }
+}
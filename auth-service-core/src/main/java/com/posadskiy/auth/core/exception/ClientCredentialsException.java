@@ -0,0 +1,22 @@
+package com.posadskiy.auth.core.exception;
+
+/**
+ * A rejected client credentials grant. {@link #getError()} is the RFC 6749 error code.
+ */
+public class ClientCredentialsException extends RuntimeException {
+
+    public static final String INVALID_CLIENT = "invalid_client";
+    public static final String INVALID_SCOPE = "invalid_scope";
+    public static final String UNSUPPORTED_GRANT_TYPE = "unsupported_grant_type";
+
+    private final String error;
+
+    public ClientCredentialsException(String error, String message) {
+        super(message);
+        this.error = error;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
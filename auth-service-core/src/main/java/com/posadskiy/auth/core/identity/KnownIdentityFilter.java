@@ -0,0 +1,279 @@
+package com.posadskiy.auth.core.identity;
+
+import com.posadskiy.auth.core.property.KnownIdentityFilterConfigurationProperties;
+import com.posadskiy.auth.core.ratelimit.TokenBucketRateLimiter;
+import com.posadskiy.auth.core.storage.db.UsersRepository;
+import com.posadskiy.auth.core.storage.db.entity.UserEntity;
+import com.posadskiy.auth.core.storage.db.projection.UserEmailProjection;
+import com.posadskiy.auth.core.utils.EmailNormalizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.data.annotation.event.PostPersist;
+import io.micronaut.data.annotation.event.PostRemove;
+import io.micronaut.data.annotation.event.PostUpdate;
+import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bloom filter of the normalized email of every active user, used to reject logins for unknown
+ * identities without a database round trip.
+ *
+ * <p>Users are also created by other services, so the filter is caught up by id in the background,
+ * and once more (rate limited) when a lookup misses. An email changed in place, or an account
+ * reactivated, by another service keeps its id, so no catch-up sees it: a definite miss may still be
+ * sent to the database at up to {@code miss-lookups-per-second} (see {@link #tryMissLookup()}), and
+ * an identity the database confirms is added back. Bloom filters cannot forget, so deletes only
+ * count towards a periodic rebuild, and an account deactivated since the last rebuild stays in the
+ * filter until the next one. Until the first build finishes every lookup is a possible hit.
+ */
+@Singleton
+public class KnownIdentityFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KnownIdentityFilter.class);
+    private static final String MISS_LOOKUP_KEY = "miss";
+
+    private final UsersRepository usersRepository;
+    private final KnownIdentityFilterConfigurationProperties configuration;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final AtomicLong lastMissCatchUp;
+    private final AtomicLong staleEntries = new AtomicLong();
+    private final TokenBucketRateLimiter missLookups;
+    private final Counter negativeCounter;
+    private final Counter positiveCounter;
+    private final Counter fallbackCounter;
+    private final Counter falsePositiveCounter;
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+    private volatile long watermark;
+
+    public KnownIdentityFilter(
+            UsersRepository usersRepository,
+            KnownIdentityFilterConfigurationProperties configuration,
+            MeterRegistry meterRegistry) {
+        this.usersRepository = usersRepository;
+        this.configuration = configuration;
+        this.lastMissCatchUp = new AtomicLong(
+                System.nanoTime() - configuration.getMissCatchUpInterval().toNanos());
+        this.missLookups = configuration.getMissLookupsPerSecond() > 0
+                ? new TokenBucketRateLimiter(configuration.getMissLookupsPerSecond(), Duration.ofSeconds(1), 1, 1)
+                : null;
+
+        this.negativeCounter = Counter.builder("auth.identity.filter.lookups")
+                .description("Login identity lookups answered by the known identity filter")
+                .tag("result", "negative")
+                .register(meterRegistry);
+        this.positiveCounter = Counter.builder("auth.identity.filter.lookups")
+                .description("Login identity lookups answered by the known identity filter")
+                .tag("result", "positive")
+                .register(meterRegistry);
+        this.fallbackCounter = Counter.builder("auth.identity.filter.lookups")
+                .description("Login identity lookups answered by the known identity filter")
+                .tag("result", "fallback")
+                .register(meterRegistry);
+        this.falsePositiveCounter = Counter.builder("auth.identity.filter.false.positives")
+                .description("Identities let through by the filter that the database did not know")
+                .register(meterRegistry);
+        Gauge.builder(
+                        "auth.identity.filter.expected.fpp",
+                        this,
+                        f -> f.filter == null ? 1.0 : f.filter.expectedFalsePositiveProbability())
+                .description("False positive probability estimated from the filter fill ratio")
+                .register(meterRegistry);
+        Gauge.builder("auth.identity.filter.size", this, f -> f.filter == null ? 0 : f.filter.sizeInBytes())
+                .description("Memory used by the filter bit set")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("auth.identity.filter.entries", this, f -> f.filter == null ? 0 : f.filter.insertions())
+                .description("Identities added to the filter since the last rebuild")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the filter says the email may belong to an active user. False only if it certainly
+     * does not; before the first build, or with the filter disabled, every email may.
+     */
+    public boolean mightContain(String email) {
+        BloomFilter current = filter;
+        String normalized = EmailNormalizer.normalize(email);
+        if (!configuration.isEnabled() || current == null || normalized == null) {
+            return true;
+        }
+        if (current.mightContain(normalized) || (catchUpOnMiss() && filter.mightContain(normalized))) {
+            positiveCounter.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether an email {@link #mightContain} ruled out may still be looked up in the database, out
+     * of the {@code miss-lookups-per-second} budget. Every miss is counted either as a fallback or
+     * as a negative.
+     */
+    public boolean tryMissLookup() {
+        if (missLookups != null && missLookups.tryAcquire(MISS_LOOKUP_KEY, System.nanoTime()).isZero()) {
+            fallbackCounter.increment();
+            return true;
+        }
+        negativeCounter.increment();
+        return false;
+    }
+
+    /** Adds an identity the database just found, if the filter did not have it. */
+    public void confirm(String email) {
+        BloomFilter current = filter;
+        String normalized = EmailNormalizer.normalize(email);
+        if (current != null && normalized != null && !current.mightContain(normalized)) {
+            add(email);
+        }
+    }
+
+    /** Records that the database had no active user for an email {@link #mightContain} let through. */
+    public void recordFalsePositive() {
+        if (filter != null) {
+            falsePositiveCounter.increment();
+        }
+    }
+
+    public void add(String email) {
+        String normalized = EmailNormalizer.normalize(email);
+        if (normalized == null) {
+            return;
+        }
+        // Read the filter being built first: a rebuild publishes it before clearing it, so the
+        // element always ends up in the filter that survives the swap.
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(normalized);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(normalized);
+        }
+    }
+
+    @PostPersist
+    void onUserPersisted(UserEntity user) {
+        add(user.getEmail());
+    }
+
+    @PostUpdate
+    void onUserUpdated(UserEntity user) {
+        add(user.getEmail());
+    }
+
+    @PostRemove
+    void onUserRemoved(UserEntity user) {
+        BloomFilter current = filter;
+        long stale = staleEntries.incrementAndGet();
+        if (current != null
+                && !refreshLock.isLocked()
+                && stale > current.insertions() * configuration.getStaleRebuildRatio()) {
+            Thread.ofPlatform().name("identity-filter-rebuild").daemon(true).start(this::rebuild);
+        }
+    }
+
+    @EventListener
+    void onStartup(StartupEvent event) {
+        if (configuration.isEnabled()) {
+            Thread.ofPlatform().name("identity-filter-loader").daemon(true).start(this::rebuild);
+        }
+    }
+
+    @Scheduled(
+            fixedDelay = "${auth.identity-filter.catch-up-interval:10s}",
+            initialDelay = "${auth.identity-filter.catch-up-interval:10s}")
+    void scheduledCatchUp() {
+        if (configuration.isEnabled() && filter != null) {
+            catchUp();
+        }
+    }
+
+    @Scheduled(
+            fixedDelay = "${auth.identity-filter.rebuild-interval:6h}",
+            initialDelay = "${auth.identity-filter.rebuild-interval:6h}")
+    void scheduledRebuild() {
+        if (configuration.isEnabled() && filter != null) {
+            rebuild();
+        }
+    }
+
+    void rebuild() {
+        if (!refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            long expected = Math.max(configuration.getExpectedInsertions(), usersRepository.count() * 2);
+            BloomFilter next = new BloomFilter(expected, configuration.getFalsePositiveProbability());
+            building = next;
+            long lastId = load(next, 0);
+            filter = next;
+            watermark = lastId;
+            staleEntries.set(0);
+            LOG.info(
+                    "Loaded {} known identities into the login filter ({} bytes)",
+                    next.insertions(),
+                    next.sizeInBytes());
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to build the known identity filter", e);
+        } finally {
+            building = null;
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Loads users added since the last load. Ids are assigned before commit, so a few ids below the
+     * watermark are read again to pick up transactions that committed out of order.
+     */
+    void catchUp() {
+        if (!refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            BloomFilter current = filter;
+            if (current != null) {
+                long from = Math.max(0, watermark - configuration.getCatchUpOverlap());
+                watermark = Math.max(watermark, load(current, from));
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to catch up the known identity filter", e);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private boolean catchUpOnMiss() {
+        long now = System.nanoTime();
+        long last = lastMissCatchUp.get();
+        if (now - last < configuration.getMissCatchUpInterval().toNanos()
+                || !lastMissCatchUp.compareAndSet(last, now)) {
+            return false;
+        }
+        catchUp();
+        return true;
+    }
+
+    private long load(BloomFilter target, long afterId) {
+        int pageSize = Math.max(1, configuration.getPageSize());
+        long lastId = afterId;
+        List<UserEmailProjection> page;
+        do {
+            page = usersRepository.findEmailsAfter(lastId, pageSize);
+            for (UserEmailProjection user : page) {
+                target.put(EmailNormalizer.normalize(user.email()));
+                lastId = user.id();
+            }
+        } while (page.size() == pageSize);
+        return lastId;
+    }
+}
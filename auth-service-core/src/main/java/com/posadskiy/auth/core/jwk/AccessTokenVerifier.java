@@ -0,0 +1,76 @@
+package com.posadskiy.auth.core.jwk;
+
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import io.micronaut.core.annotation.Nullable;
+import jakarta.inject.Singleton;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Checks access tokens this service signed against the {@link SigningKeyRing}: compact JWS, a
+ * {@code kid} the ring still publishes, its algorithm, a valid signature and an {@code exp} ahead of
+ * now. The claims are only parsed once the signature holds.
+ */
+@Singleton
+public class AccessTokenVerifier {
+
+    public static final String MALFORMED = "malformed";
+    public static final String UNKNOWN_KEY = "unknown_key";
+    public static final String INVALID_SIGNATURE = "invalid_signature";
+    public static final String EXPIRED = "expired";
+
+    private final SigningKeyRing signingKeyRing;
+
+    public AccessTokenVerifier(SigningKeyRing signingKeyRing) {
+        this.signingKeyRing = signingKeyRing;
+    }
+
+    public Verification verify(@Nullable String token, Instant now) {
+        if (token == null) {
+            return Verification.rejected(MALFORMED);
+        }
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = token.indexOf('.', headerEnd + 1);
+        if (headerEnd <= 0 || payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            return Verification.rejected(MALFORMED);
+        }
+        try {
+            JWSHeader header = JWSHeader.parse(new Base64URL(token.substring(0, headerEnd)));
+            SigningKey key = header.getKeyID() == null ? null : signingKeyRing.find(header.getKeyID());
+            if (key == null) {
+                return Verification.rejected(UNKNOWN_KEY);
+            }
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(payloadEnd + 1));
+            if (!key.algorithm().jwsAlgorithm().equals(header.getAlgorithm())
+                    || !key.verify(token.substring(0, payloadEnd).getBytes(StandardCharsets.US_ASCII), signature)) {
+                return Verification.rejected(INVALID_SIGNATURE);
+            }
+            JWTClaimsSet claims = JWTClaimsSet.parse(
+                    new Base64URL(token.substring(headerEnd + 1, payloadEnd)).decodeToString());
+            Date expiresAt = claims.getExpirationTime();
+            if (expiresAt == null || !expiresAt.toInstant().isAfter(now)) {
+                return Verification.rejected(EXPIRED);
+            }
+            return new Verification(null, claims);
+        } catch (ParseException | IllegalArgumentException e) {
+            return Verification.rejected(MALFORMED);
+        }
+    }
+
+    /** The claims of a valid token, or why it is not valid. */
+    public record Verification(@Nullable String reason, @Nullable JWTClaimsSet claims) {
+
+        static Verification rejected(String reason) {
+            return new Verification(reason, null);
+        }
+
+        public boolean valid() {
+            return reason == null;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.posadskiy.auth.core.jwk;
+
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Singleton;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/** Keys that live as long as the process. Every instance signs with keys of its own. */
+@Singleton
+@Requires(property = "auth.jwt.signing.store", value = "memory")
+public class InMemorySigningKeyStore implements SigningKeyStore {
+
+    private final ConcurrentNavigableMap<Instant, StoredKey> keys = new ConcurrentSkipListMap<>();
+
+    @Override
+    public List<StoredKey> findActivatingSince(Instant since) {
+        return List.copyOf(keys.tailMap(since, true).values());
+    }
+
+    @Override
+    public void insertIfSlotFree(StoredKey key) {
+        keys.putIfAbsent(key.activatesAt(), key);
+    }
+
+    @Override
+    public void deleteActivatingBefore(Instant before) {
+        keys.headMap(before, false).clear();
+    }
+}
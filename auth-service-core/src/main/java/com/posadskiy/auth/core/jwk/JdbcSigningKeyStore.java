@@ -0,0 +1,46 @@
+package com.posadskiy.auth.core.jwk;
+
+import com.posadskiy.auth.core.storage.db.SigningKeyRepository;
+import com.posadskiy.auth.core.storage.db.entity.SigningKeyEntity;
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Singleton;
+import java.time.Instant;
+import java.util.List;
+
+@Singleton
+@Requires(property = "auth.jwt.signing.store", value = "jdbc", defaultValue = "jdbc")
+public class JdbcSigningKeyStore implements SigningKeyStore {
+
+    private final SigningKeyRepository signingKeyRepository;
+
+    public JdbcSigningKeyStore(SigningKeyRepository signingKeyRepository) {
+        this.signingKeyRepository = signingKeyRepository;
+    }
+
+    @Override
+    public List<StoredKey> findActivatingSince(Instant since) {
+        return signingKeyRepository.findByActivatesAtGreaterThanEqualsOrderByActivatesAt(since).stream()
+                .map(JdbcSigningKeyStore::toStoredKey)
+                .toList();
+    }
+
+    @Override
+    public void insertIfSlotFree(StoredKey key) {
+        signingKeyRepository.insertIfSlotFree(
+                key.kid(), key.algorithm(), key.activatesAt(), key.publicKey(), key.privateKey());
+    }
+
+    @Override
+    public void deleteActivatingBefore(Instant before) {
+        signingKeyRepository.deleteByActivatesAtLessThan(before);
+    }
+
+    private static StoredKey toStoredKey(SigningKeyEntity entity) {
+        return new StoredKey(
+                entity.getKid(),
+                entity.getAlgorithm(),
+                entity.getActivatesAt(),
+                entity.getPublicKey(),
+                entity.getPrivateKey());
+    }
+}
@@ -0,0 +1,267 @@
+package com.posadskiy.auth.core.jwk;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes compact JWS tokens without going through Nimbus. The claims JSON is written into a
+ * per-thread buffer, base64url-encoded in place after the key's pre-encoded header and signed with
+ * the key's per-thread {@code Signature}. The only allocation per token is the resulting string.
+ *
+ * <p>Header and payload are byte for byte what {@code SignedJWT} produces for the same claims,
+ * provided they are written in the order a {@link ClaimOrder} gives: nulls left out, dates as epoch
+ * seconds, strings escaped the way Nimbus's JSON writer does. The header is the key's pre-encoded
+ * {@code {"kid":..,"alg":..}}, what Nimbus writes for a {@code JWSHeader} with only those two
+ * parameters.
+ */
+public final class JwsMinter {
+
+    private static final byte[] BASE64URL =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final ThreadLocal<Writer> writer = ThreadLocal.withInitial(Writer::new);
+
+    /** The calling thread's writer, reset for a new token. Claims are added in order, then {@link Writer#sign}. */
+    public Writer begin() {
+        Writer current = writer.get();
+        current.reset();
+        return current;
+    }
+
+    /**
+     * The order Nimbus writes a set of claims in. {@code JWTClaimsSet} collects them into a
+     * {@link HashMap} that the payload copies into another one sized for their number, so the order
+     * follows hash buckets and changes with which claims are present. It is worked out once per
+     * combination of claims by doing the same copy, then looked up by a bit mask of the present ones.
+     */
+    public static final class ClaimOrder {
+
+        private final int[][] orders;
+
+        /** Claim names in the order they are added to {@code JWTClaimsSet.Builder}. */
+        public ClaimOrder(String... names) {
+            this.orders = new int[1 << names.length][];
+            for (int present = 0; present < orders.length; present++) {
+                Map<String, Integer> claims = new HashMap<>();
+                for (int i = 0; i < names.length; i++) {
+                    if ((present & 1 << i) != 0) {
+                        claims.put(names[i], i);
+                    }
+                }
+                Map<String, Integer> payload = new HashMap<>();
+                payload.putAll(claims);
+                orders[present] = payload.values().stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+
+        /** Indexes of the claims whose bit is set in {@code present}, in the order to write them. */
+        public int[] of(int present) {
+            return orders[present];
+        }
+    }
+
+    /** JSON claims of one token, then its compact serialization. Not thread-safe; use per token. */
+    public static final class Writer {
+
+        private final byte[] signature = new byte[SigningAlgorithm.SIGNATURE_LENGTH];
+        private byte[] json = new byte[512];
+        private byte[] token = new byte[1024];
+        private int length;
+
+        private Writer() {}
+
+        private void reset() {
+            length = 0;
+            put((byte) '{');
+        }
+
+        /** Appends bytes written ahead of time, e.g. a constant claim as {@code "iss":"auth-service"}. */
+        public Writer raw(byte[] preSerialized) {
+            ensure(preSerialized.length + 1);
+            separate();
+            System.arraycopy(preSerialized, 0, json, length, preSerialized.length);
+            length += preSerialized.length;
+            return this;
+        }
+
+        public Writer claim(String name, String value) {
+            if (value != null) {
+                name(name);
+                string(value);
+            }
+            return this;
+        }
+
+        public Writer claim(String name, Boolean value) {
+            if (value != null) {
+                name(name);
+                ascii(value ? "true" : "false");
+            }
+            return this;
+        }
+
+        public Writer claim(String name, long value) {
+            name(name);
+            number(value);
+            return this;
+        }
+
+        /** Closes the claims and returns {@code header.payload.signature}, signed with {@code key}. */
+        public String sign(SigningKey key) {
+            put((byte) '}');
+            int headerLength = key.encodedHeaderLength();
+            int payloadLength = (length + 2) / 3 * 4;
+            int signatureLength = (SigningAlgorithm.SIGNATURE_LENGTH * 4 + 2) / 3;
+            int size = headerLength + 1 + payloadLength + 1 + signatureLength;
+            if (token.length < size) {
+                token = new byte[Math.max(size, token.length * 2)];
+            }
+            key.copyEncodedHeader(token, 0);
+            token[headerLength] = '.';
+            int end = encode(json, 0, length, token, headerLength + 1);
+            key.sign(token, 0, end, signature, 0);
+            token[end++] = '.';
+            end = encode(signature, 0, SigningAlgorithm.SIGNATURE_LENGTH, token, end);
+            return new String(token, 0, end, StandardCharsets.US_ASCII);
+        }
+
+        private void name(String name) {
+            separate();
+            string(name);
+            put((byte) ':');
+        }
+
+        private void separate() {
+            if (length > 1) {
+                put((byte) ',');
+            }
+        }
+
+        private void ascii(String value) {
+            ensure(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                json[length++] = (byte) value.charAt(i);
+            }
+        }
+
+        private void number(long value) {
+            if (value < 0) {
+                // not a timestamp this service issues; not worth a fast path
+                ascii(Long.toString(value));
+                return;
+            }
+            int digits = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            ensure(digits);
+            for (int i = length + digits - 1; i >= length; i--) {
+                json[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length += digits;
+        }
+
+        // Same escapes as Gson with HTML escaping off: quote, backslash, control characters and the
+        // two line separators JavaScript treats as line ends. Everything else goes out as UTF-8.
+        private void string(String value) {
+            ensure(value.length() * 6 + 2);
+            json[length++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    json[length++] = '\\';
+                    json[length++] = (byte) c;
+                } else if (c < 0x20) {
+                    escapeControl(c);
+                } else if (c < 0x80) {
+                    json[length++] = (byte) c;
+                } else if (c == '\u2028' || c == '\u2029') {
+                    unicodeEscape(c);
+                } else if (c < 0x800) {
+                    json[length++] = (byte) (0xc0 | c >> 6);
+                    json[length++] = (byte) (0x80 | c & 0x3f);
+                } else if (Character.isHighSurrogate(c)
+                        && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    json[length++] = (byte) (0xf0 | codePoint >> 18);
+                    json[length++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+                    json[length++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+                    json[length++] = (byte) (0x80 | codePoint & 0x3f);
+                } else if (Character.isSurrogate(c)) {
+                    // unpaired, which String.getBytes(UTF_8) turns into '?'
+                    json[length++] = '?';
+                } else {
+                    json[length++] = (byte) (0xe0 | c >> 12);
+                    json[length++] = (byte) (0x80 | c >> 6 & 0x3f);
+                    json[length++] = (byte) (0x80 | c & 0x3f);
+                }
+            }
+            json[length++] = '"';
+        }
+
+        private void escapeControl(char c) {
+            char shortForm =
+                    switch (c) {
+                        case '\t' -> 't';
+                        case '\b' -> 'b';
+                        case '\n' -> 'n';
+                        case '\r' -> 'r';
+                        case '\f' -> 'f';
+                        default -> 0;
+                    };
+            if (shortForm == 0) {
+                unicodeEscape(c);
+            } else {
+                json[length++] = '\\';
+                json[length++] = (byte) shortForm;
+            }
+        }
+
+        private void unicodeEscape(char c) {
+            json[length++] = '\\';
+            json[length++] = 'u';
+            json[length++] = HEX[c >> 12 & 0xf];
+            json[length++] = HEX[c >> 8 & 0xf];
+            json[length++] = HEX[c >> 4 & 0xf];
+            json[length++] = HEX[c & 0xf];
+        }
+
+        private void put(byte b) {
+            ensure(1);
+            json[length++] = b;
+        }
+
+        private void ensure(int extra) {
+            if (json.length - length < extra) {
+                json = Arrays.copyOf(json, Math.max(json.length * 2, length + extra));
+            }
+        }
+    }
+
+    /** Unpadded base64url of {@code src[offset, offset + count)} into {@code dst} at {@code at}; returns the end. */
+    private static int encode(byte[] src, int offset, int count, byte[] dst, int at) {
+        int end = offset + count;
+        int i = offset;
+        for (; i + 2 < end; i += 3) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8 | src[i + 2] & 0xff;
+            dst[at++] = BASE64URL[bits >>> 18 & 0x3f];
+            dst[at++] = BASE64URL[bits >>> 12 & 0x3f];
+            dst[at++] = BASE64URL[bits >>> 6 & 0x3f];
+            dst[at++] = BASE64URL[bits & 0x3f];
+        }
+        if (i < end) {
+            int bits = (src[i] & 0xff) << 16 | (i + 1 < end ? (src[i + 1] & 0xff) << 8 : 0);
+            dst[at++] = BASE64URL[bits >>> 18 & 0x3f];
+            dst[at++] = BASE64URL[bits >>> 12 & 0x3f];
+            if (i + 1 < end) {
+                dst[at++] = BASE64URL[bits >>> 6 & 0x3f];
+            }
+        }
+        return at;
+    }
+}
@@ -0,0 +1,89 @@
+package com.posadskiy.auth.core.jwk;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.util.Base64URL;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+
+/**
+ * The asymmetric JWS algorithms access tokens can be signed with, on the JDK's own providers. Both
+ * produce a 64-byte signature: ES256 as the fixed-size {@code R || S} pair JWS requires rather than
+ * DER, EdDSA over Ed25519.
+ */
+public enum SigningAlgorithm {
+    ES256(JWSAlgorithm.ES256, "EC", "SHA256withECDSAinP1363Format") {
+        @Override
+        KeyPair generateKeyPair() throws GeneralSecurityException {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(keyAlgorithm);
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        }
+
+        @Override
+        JWK publicJwk(String kid, PublicKey publicKey) {
+            return new ECKey.Builder(Curve.P_256, (ECPublicKey) publicKey)
+                    .keyID(kid)
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(jwsAlgorithm)
+                    .build();
+        }
+    },
+    EdDSA(JWSAlgorithm.EdDSA, "Ed25519", "Ed25519") {
+        @Override
+        KeyPair generateKeyPair() throws GeneralSecurityException {
+            return KeyPairGenerator.getInstance(keyAlgorithm).generateKeyPair();
+        }
+
+        @Override
+        JWK publicJwk(String kid, PublicKey publicKey) {
+            // the raw key is what follows the fixed SubjectPublicKeyInfo prefix
+            byte[] encoded = publicKey.getEncoded();
+            byte[] raw = Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length);
+            return new OctetKeyPair.Builder(Curve.Ed25519, Base64URL.encode(raw))
+                    .keyID(kid)
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(jwsAlgorithm)
+                    .build();
+        }
+    };
+
+    static final int SIGNATURE_LENGTH = 64;
+
+    final JWSAlgorithm jwsAlgorithm;
+    final String keyAlgorithm;
+    final String signatureAlgorithm;
+
+    SigningAlgorithm(JWSAlgorithm jwsAlgorithm, String keyAlgorithm, String signatureAlgorithm) {
+        this.jwsAlgorithm = jwsAlgorithm;
+        this.keyAlgorithm = keyAlgorithm;
+        this.signatureAlgorithm = signatureAlgorithm;
+    }
+
+    abstract KeyPair generateKeyPair() throws GeneralSecurityException;
+
+    abstract JWK publicJwk(String kid, PublicKey publicKey);
+
+    public JWSAlgorithm jwsAlgorithm() {
+        return jwsAlgorithm;
+    }
+
+    /** The algorithm by its JWS name, e.g. {@code ES256}. */
+    public static SigningAlgorithm of(String name) {
+        for (SigningAlgorithm algorithm : values()) {
+            if (algorithm.jwsAlgorithm.getName().equals(name)) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported signing algorithm " + name + ", use ES256 or EdDSA");
+    }
+}
@@ -0,0 +1,146 @@
+package com.posadskiy.auth.core.jwk;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.util.Base64URL;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * One key pair of the {@link SigningKeyRing}, identified by its {@code kid}. Signs on per-thread
+ * {@link Signature} instances initialized once, and carries its JWS header pre-encoded.
+ */
+public final class SigningKey {
+
+    private final String kid;
+    private final SigningAlgorithm algorithm;
+    private final Instant activatesAt;
+    private final JWK publicJwk;
+    private final byte[] encodedHeader;
+    private final ThreadLocal<Signature> signer;
+    private final ThreadLocal<Signature> verifier;
+    private final JWSSigner jwsSigner = new KeyJwsSigner();
+
+    SigningKey(String kid, SigningAlgorithm algorithm, Instant activatesAt, PublicKey publicKey, PrivateKey privateKey) {
+        this.kid = kid;
+        this.algorithm = algorithm;
+        this.activatesAt = activatesAt;
+        this.publicJwk = algorithm.publicJwk(kid, publicKey);
+        this.encodedHeader = Base64.getUrlEncoder()
+                .withoutPadding()
+                .encode(("{\"kid\":\"" + kid + "\",\"alg\":\"" + algorithm.jwsAlgorithm.getName() + "\"}")
+                        .getBytes(StandardCharsets.UTF_8));
+        this.signer = ThreadLocal.withInitial(() -> {
+            try {
+                Signature signature = Signature.getInstance(algorithm.signatureAlgorithm);
+                signature.initSign(privateKey);
+                return signature;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(algorithm.signatureAlgorithm + " is not available", e);
+            }
+        });
+        this.verifier = ThreadLocal.withInitial(() -> {
+            try {
+                Signature signature = Signature.getInstance(algorithm.signatureAlgorithm);
+                signature.initVerify(publicKey);
+                return signature;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(algorithm.signatureAlgorithm + " is not available", e);
+            }
+        });
+    }
+
+    public String kid() {
+        return kid;
+    }
+
+    public SigningAlgorithm algorithm() {
+        return algorithm;
+    }
+
+    public Instant activatesAt() {
+        return activatesAt;
+    }
+
+    /** The public half as a JWK, with {@code kid}, {@code use} and {@code alg}. */
+    public JWK publicJwk() {
+        return publicJwk;
+    }
+
+    /** Length of base64url {@code {"kid":..,"alg":..}}, the first segment of every token this key signs. */
+    int encodedHeaderLength() {
+        return encodedHeader.length;
+    }
+
+    void copyEncodedHeader(byte[] destination, int offset) {
+        System.arraycopy(encodedHeader, 0, destination, offset, encodedHeader.length);
+    }
+
+    public int signatureLength() {
+        return SigningAlgorithm.SIGNATURE_LENGTH;
+    }
+
+    /** Signs {@code input[offset, offset + length)} into {@code out} at {@code outOffset}. */
+    public void sign(byte[] input, int offset, int length, byte[] out, int outOffset) {
+        Signature signature = signer.get();
+        try {
+            signature.update(input, offset, length);
+            signature.sign(out, outOffset, SigningAlgorithm.SIGNATURE_LENGTH);
+        } catch (SignatureException e) {
+            throw new IllegalStateException("Unable to sign with key " + kid, e);
+        }
+    }
+
+    /** Checks a signature on the calling thread's {@link Signature}, initialized for this key once. */
+    public boolean verify(byte[] signingInput, byte[] signatureBytes) {
+        if (signatureBytes.length != SigningAlgorithm.SIGNATURE_LENGTH) {
+            return false;
+        }
+        Signature signature = verifier.get();
+        try {
+            signature.update(signingInput);
+            return signature.verify(signatureBytes);
+        } catch (SignatureException e) {
+            // the instance may be left mid-operation; the next verify on this thread starts afresh
+            verifier.remove();
+            return false;
+        }
+    }
+
+    /** This key as a Nimbus signer, for tokens built as a {@code SignedJWT}. */
+    public JWSSigner jwsSigner() {
+        return jwsSigner;
+    }
+
+    private final class KeyJwsSigner implements JWSSigner {
+
+        private final JCAContext jcaContext = new JCAContext();
+
+        @Override
+        public Base64URL sign(JWSHeader header, byte[] signingInput) {
+            byte[] signature = new byte[SigningAlgorithm.SIGNATURE_LENGTH];
+            SigningKey.this.sign(signingInput, 0, signingInput.length, signature, 0);
+            return Base64URL.encode(signature);
+        }
+
+        @Override
+        public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+            return Set.of(algorithm.jwsAlgorithm);
+        }
+
+        @Override
+        public JCAContext getJCAContext() {
+            return jcaContext;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.posadskiy.auth.core.jwk;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.posadskiy.auth.core.property.JwtSigningConfigurationProperties;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The asymmetric keys access tokens are signed with, shared by every instance through the
+ * {@link SigningKeyStore}.
+ *
+ * <p>Time is cut into slots of {@code rotation-interval} since the epoch and each slot has one key,
+ * which signs from the start of its slot until the next one begins. The next slot's key is created
+ * {@code publish-ahead} of time so it is in the JWKS before the first token carries its {@code kid},
+ * and a retired key stays published for {@code overlap} so tokens it signed still verify. Instances
+ * racing to create a slot's key agree on whichever was stored first. Private keys are stored
+ * encrypted with AES-GCM under a key derived from {@code key-encryption-secret} with HKDF-SHA256 and
+ * a purpose label, so the key is bound to this use even if the secret is reused somewhere else.
+ */
+@Singleton
+public class SigningKeyRing {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SigningKeyRing.class);
+    private static final String AES_GCM_NO_PADDING = "AES/GCM/NoPadding";
+    private static final int GCM_TAG_LENGTH = 128;
+    private static final int IV_LENGTH = 12;
+    private static final int KID_LENGTH = 12;
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final byte[] KEY_ENCRYPTION_INFO =
+            "auth-service jwt signing key encryption v1".getBytes(StandardCharsets.US_ASCII);
+
+    private final SigningKeyStore signingKeyStore;
+    private final SigningAlgorithm algorithm;
+    private final Duration rotationInterval;
+    private final Duration publishAhead;
+    private final Duration overlap;
+    private final SecretKeySpec keyEncryptionKey;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    public SigningKeyRing(SigningKeyStore signingKeyStore, JwtSigningConfigurationProperties configuration) {
+        if (configuration.getKeyEncryptionSecret() == null || configuration.getKeyEncryptionSecret().isBlank()) {
+            throw new IllegalArgumentException("auth.jwt.signing.key-encryption-secret must be set");
+        }
+        this.signingKeyStore = signingKeyStore;
+        this.algorithm = SigningAlgorithm.of(configuration.getAlgorithm());
+        this.rotationInterval = configuration.getRotationInterval();
+        this.publishAhead = configuration.getPublishAhead();
+        this.overlap = configuration.getOverlap();
+        this.keyEncryptionKey = keyEncryptionKey(configuration.getKeyEncryptionSecret());
+    }
+
+    /** HKDF-SHA256 (RFC 5869) with an empty salt, expanded to one 32 byte block for AES-256. */
+    private static SecretKeySpec keyEncryptionKey(String secret) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(new SecretKeySpec(new byte[mac.getMacLength()], HMAC_SHA256));
+            byte[] pseudoRandomKey = mac.doFinal(secret.getBytes(StandardCharsets.UTF_8));
+            mac.init(new SecretKeySpec(pseudoRandomKey, HMAC_SHA256));
+            mac.update(KEY_ENCRYPTION_INFO);
+            mac.update((byte) 1);
+            return new SecretKeySpec(mac.doFinal(), "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    /** The key tokens are signed with now: the latest one whose slot has begun. */
+    public SigningKey active() {
+        return active(Instant.now());
+    }
+
+    SigningKey active(Instant now) {
+        List<SigningKey> keys = current(now).keys();
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            if (!keys.get(i).activatesAt().isAfter(now)) {
+                return keys.get(i);
+            }
+        }
+        throw new IllegalStateException("No signing key is active");
+    }
+
+    /** A published key by {@code kid}, or {@code null} once it is retired or if it never existed. */
+    public SigningKey find(String kid) {
+        return current(Instant.now()).byKid().get(kid);
+    }
+
+    /** Every published key as a serialized JWK set, with its strong ETag. */
+    public Jwks jwks() {
+        return current(Instant.now()).jwks();
+    }
+
+    @Scheduled(fixedDelay = "${auth.jwt.signing.refresh-interval:5m}")
+    void scheduledRefresh() {
+        try {
+            refresh(Instant.now());
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to refresh JWT signing keys, keeping the ones loaded", e);
+        }
+    }
+
+    private Snapshot current(Instant now) {
+        Snapshot loaded = snapshot;
+        return loaded != null ? loaded : refresh(now);
+    }
+
+    Snapshot refresh(Instant now) {
+        refreshLock.lock();
+        try {
+            Instant currentSlot = slotStart(now);
+            Instant upcomingSlot = slotStart(now.plus(publishAhead));
+            Snapshot previous = snapshot;
+            ensureKey(previous, currentSlot);
+            if (!upcomingSlot.equals(currentSlot)) {
+                ensureKey(previous, upcomingSlot);
+            }
+
+            Instant retiredBefore = now.minus(rotationInterval).minus(overlap);
+            signingKeyStore.deleteActivatingBefore(retiredBefore);
+            List<SigningKey> keys = signingKeyStore.findActivatingSince(retiredBefore).stream()
+                    .map(stored -> reuseOrLoad(previous, stored))
+                    .toList();
+
+            Snapshot next = previous != null && previous.keys().equals(keys) ? previous : snapshot(keys);
+            if (next != previous) {
+                LOG.info("Publishing JWT signing keys {}", keys.stream().map(SigningKey::kid).toList());
+            }
+            snapshot = next;
+            return next;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private Instant slotStart(Instant at) {
+        long interval = rotationInterval.toMillis();
+        return Instant.ofEpochMilli(Math.floorDiv(at.toEpochMilli(), interval) * interval);
+    }
+
+    private void ensureKey(Snapshot previous, Instant activatesAt) {
+        if (previous != null && previous.keys().stream().anyMatch(key -> key.activatesAt().equals(activatesAt))) {
+            return;
+        }
+        try {
+            KeyPair keyPair = algorithm.generateKeyPair();
+            String kid = newKid();
+            signingKeyStore.insertIfSlotFree(new SigningKeyStore.StoredKey(
+                    kid,
+                    algorithm.jwsAlgorithm.getName(),
+                    activatesAt,
+                    keyPair.getPublic().getEncoded(),
+                    encrypt(kid, keyPair.getPrivate().getEncoded())));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to generate a " + algorithm + " signing key", e);
+        }
+    }
+
+    private SigningKey reuseOrLoad(Snapshot previous, SigningKeyStore.StoredKey stored) {
+        SigningKey known = previous == null ? null : previous.byKid().get(stored.kid());
+        if (known != null) {
+            return known;
+        }
+        SigningAlgorithm keyAlgorithm = SigningAlgorithm.of(stored.algorithm());
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(keyAlgorithm.keyAlgorithm);
+            return new SigningKey(
+                    stored.kid(),
+                    keyAlgorithm,
+                    stored.activatesAt(),
+                    keyFactory.generatePublic(new X509EncodedKeySpec(stored.publicKey())),
+                    keyFactory.generatePrivate(
+                            new PKCS8EncodedKeySpec(decrypt(stored.kid(), stored.privateKey()))));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to load signing key " + stored.kid(), e);
+        }
+    }
+
+    private static Snapshot snapshot(List<SigningKey> keys) {
+        Map<String, SigningKey> byKid = new HashMap<>();
+        List<JWK> jwks = new ArrayList<>(keys.size());
+        for (SigningKey key : keys) {
+            byKid.put(key.kid(), key);
+            jwks.add(key.publicJwk());
+        }
+        byte[] body = new JWKSet(jwks).toString(true).getBytes(StandardCharsets.UTF_8);
+        String etag = '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(sha256(body)) + '"';
+        return new Snapshot(keys, Map.copyOf(byKid), new Jwks(body, etag));
+    }
+
+    private String newKid() {
+        byte[] kid = new byte[KID_LENGTH];
+        secureRandom.nextBytes(kid);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(kid);
+    }
+
+    // iv || ciphertext, with the kid as associated data so a key cannot be moved to another row
+    private byte[] encrypt(String kid, byte[] privateKey) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_LENGTH];
+        secureRandom.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance(AES_GCM_NO_PADDING);
+        cipher.init(Cipher.ENCRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        byte[] cipherText = cipher.doFinal(privateKey);
+        return ByteBuffer.allocate(iv.length + cipherText.length).put(iv).put(cipherText).array();
+    }
+
+    private byte[] decrypt(String kid, byte[] encrypted) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(AES_GCM_NO_PADDING);
+        cipher.init(
+                Cipher.DECRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(GCM_TAG_LENGTH, encrypted, 0, IV_LENGTH));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(Arrays.copyOfRange(encrypted, IV_LENGTH, encrypted.length));
+    }
+
+    private static byte[] sha256(byte[] value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    record Snapshot(List<SigningKey> keys, Map<String, SigningKey> byKid, Jwks jwks) {}
+
+    /** A JWK set serialized once per key change, served as is. */
+    public record Jwks(byte[] body, String etag) {}
+}
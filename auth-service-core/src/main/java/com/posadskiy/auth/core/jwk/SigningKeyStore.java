@@ -0,0 +1,22 @@
+package com.posadskiy.auth.core.jwk;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Where the {@link SigningKeyRing} keeps its keys, selected with {@code auth.jwt.signing.store}:
+ * {@code jdbc}, shared by every instance, or {@code memory} for a single instance and tests.
+ */
+public interface SigningKeyStore {
+
+    /** Keys activating at or after {@code since}, oldest first. */
+    List<StoredKey> findActivatingSince(Instant since);
+
+    /** Stores the key unless another one already owns its activation time. */
+    void insertIfSlotFree(StoredKey key);
+
+    void deleteActivatingBefore(Instant before);
+
+    /** A key as stored: X.509 public key, PKCS#8 private key encrypted by the ring. */
+    record StoredKey(String kid, String algorithm, Instant activatesAt, byte[] publicKey, byte[] privateKey) {}
+}
@@ -0,0 +1,65 @@
+package com.posadskiy.auth.core.password;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+
+/**
+ * Argon2id with a fixed memory size and parallelism; the iteration count is the calibrated cost.
+ */
+public class Argon2PasswordHashingEngine implements PasswordHashingEngine {
+
+    public static final String ID = "argon2";
+
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+
+    private final int memoryKib;
+    private final int parallelism;
+    private final int minimumCost;
+    private final int maximumCost;
+
+    public Argon2PasswordHashingEngine(int memoryKib, int parallelism, int minimumCost, int maximumCost) {
+        this.memoryKib = memoryKib;
+        this.parallelism = parallelism;
+        this.minimumCost = minimumCost;
+        this.maximumCost = Math.max(minimumCost, maximumCost);
+    }
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    @Override
+    public int minimumCost() {
+        return minimumCost;
+    }
+
+    @Override
+    public int maximumCost() {
+        return maximumCost;
+    }
+
+    @Override
+    public int nextCost(int cost) {
+        return cost + 1;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword, int cost) {
+        return encoder(cost).encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return encoder(minimumCost).matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean isWeakerThan(String encodedPassword, int cost) {
+        return encoder(cost).upgradeEncoding(encodedPassword);
+    }
+
+    private Argon2PasswordEncoder encoder(int iterations) {
+        return new Argon2PasswordEncoder(SALT_LENGTH, HASH_LENGTH, parallelism, memoryKib, iterations);
+    }
+}
@@ -0,0 +1,61 @@
+package com.posadskiy.auth.core.password;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * bcrypt keeps its historical unprefixed {@code $2a$NN$} format, so hashes written by older
+ * releases (and by other services sharing the users table) keep verifying unchanged.
+ */
+public class BcryptPasswordHashingEngine implements PasswordHashingEngine {
+
+    public static final String ID = "bcrypt";
+
+    private final BCryptPasswordEncoder verifier = new BCryptPasswordEncoder();
+    private final int minimumCost;
+    private final int maximumCost;
+
+    public BcryptPasswordHashingEngine(int minimumCost, int maximumCost) {
+        this.minimumCost = minimumCost;
+        this.maximumCost = Math.max(minimumCost, maximumCost);
+    }
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    @Override
+    public String prefix() {
+        return "";
+    }
+
+    @Override
+    public int minimumCost() {
+        return minimumCost;
+    }
+
+    @Override
+    public int maximumCost() {
+        return maximumCost;
+    }
+
+    @Override
+    public int nextCost(int cost) {
+        return cost + 1;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword, int cost) {
+        return new BCryptPasswordEncoder(cost).encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return verifier.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean isWeakerThan(String encodedPassword, int cost) {
+        return new BCryptPasswordEncoder(cost).upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,40 @@
+package com.posadskiy.auth.core.password;
+
+/**
+ * A password hashing algorithm with a single tunable work factor. Engines are stateless: the cost
+ * to hash with is chosen by the caller, while parameters needed for verification are read back from
+ * the encoded hash itself.
+ */
+public interface PasswordHashingEngine {
+
+    /**
+     * Identifier stored as the {@code {id}} prefix of encoded hashes.
+     */
+    String id();
+
+    /**
+     * Prefix written in front of hashes produced by this engine.
+     */
+    default String prefix() {
+        return "{" + id() + "}";
+    }
+
+    int minimumCost();
+
+    int maximumCost();
+
+    /**
+     * Next cost tried during calibration. Costs are logarithmic for some engines and linear for
+     * others, so each engine decides how big a step is.
+     */
+    int nextCost(int cost);
+
+    String encode(CharSequence rawPassword, int cost);
+
+    boolean matches(CharSequence rawPassword, String encodedPassword);
+
+    /**
+     * Whether the hash was produced with weaker parameters than {@code cost} and should be replaced.
+     */
+    boolean isWeakerThan(String encodedPassword, int cost);
+}
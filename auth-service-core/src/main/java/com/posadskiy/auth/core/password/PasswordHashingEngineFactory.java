@@ -0,0 +1,35 @@
+package com.posadskiy.auth.core.password;
+
+import com.posadskiy.auth.core.property.PasswordHashingConfigurationProperties;
+import io.micronaut.context.annotation.Factory;
+import jakarta.inject.Singleton;
+
+@Factory
+public class PasswordHashingEngineFactory {
+
+    @Singleton
+    PasswordHashingEngine bcryptPasswordHashingEngine(PasswordHashingConfigurationProperties configuration) {
+        var bcrypt = configuration.getBcrypt();
+        return new BcryptPasswordHashingEngine(bcrypt.getMinCost(), bcrypt.getMaxCost());
+    }
+
+    @Singleton
+    PasswordHashingEngine argon2PasswordHashingEngine(PasswordHashingConfigurationProperties configuration) {
+        var argon2 = configuration.getArgon2();
+        return new Argon2PasswordHashingEngine(
+                argon2.getMemoryKib(), argon2.getParallelism(), argon2.getMinIterations(), argon2.getMaxIterations());
+    }
+
+    @Singleton
+    PasswordHashingEngine scryptPasswordHashingEngine(PasswordHashingConfigurationProperties configuration) {
+        var scrypt = configuration.getScrypt();
+        return new ScryptPasswordHashingEngine(
+                scrypt.getBlockSize(), scrypt.getParallelism(), scrypt.getMinLogN(), scrypt.getMaxLogN());
+    }
+
+    @Singleton
+    PasswordHashingEngine pbkdf2PasswordHashingEngine(PasswordHashingConfigurationProperties configuration) {
+        var pbkdf2 = configuration.getPbkdf2();
+        return new Pbkdf2PasswordHashingEngine(pbkdf2.getMinIterations(), pbkdf2.getMaxIterations());
+    }
+}
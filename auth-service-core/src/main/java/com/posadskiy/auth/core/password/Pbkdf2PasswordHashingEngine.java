@@ -0,0 +1,116 @@
+package com.posadskiy.auth.core.password;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * PBKDF2-HMAC-SHA256 encoded as {@code iterations$salt$hash}. Spring's PBKDF2 encoder does not
+ * record the iteration count in the hash, which would make changing the cost impossible.
+ */
+public class Pbkdf2PasswordHashingEngine implements PasswordHashingEngine {
+
+    public static final String ID = "pbkdf2";
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH_BITS = 256;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final int minimumCost;
+    private final int maximumCost;
+
+    public Pbkdf2PasswordHashingEngine(int minimumCost, int maximumCost) {
+        this.minimumCost = minimumCost;
+        this.maximumCost = Math.max(minimumCost, maximumCost);
+    }
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    @Override
+    public int minimumCost() {
+        return minimumCost;
+    }
+
+    @Override
+    public int maximumCost() {
+        return maximumCost;
+    }
+
+    @Override
+    public int nextCost(int cost) {
+        return cost + Math.max(1, cost / 2);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword, int cost) {
+        byte[] salt = new byte[SALT_LENGTH];
+        secureRandom.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return cost + "$" + encoder.encodeToString(salt) + "$"
+                + encoder.encodeToString(derive(rawPassword, salt, cost));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null) {
+            throw new IllegalArgumentException("rawPassword cannot be null");
+        }
+        String[] parts = split(encodedPassword);
+        if (parts == null) {
+            return false;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] expected = decoder.decode(parts[2]);
+            byte[] actual = derive(rawPassword, decoder.decode(parts[1]), iterations(parts));
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException e) {
+            // Bad iteration count, invalid Base64 or an empty salt: not a hash we wrote
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isWeakerThan(String encodedPassword, int cost) {
+        String[] parts = split(encodedPassword);
+        try {
+            return parts != null && iterations(parts) < cost;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String[] split(String encodedPassword) {
+        if (encodedPassword == null) {
+            return null;
+        }
+        String[] parts = encodedPassword.split("\\$");
+        return parts.length == 3 ? parts : null;
+    }
+
+    private static int iterations(String[] parts) {
+        int iterations = Integer.parseInt(parts[0]);
+        if (iterations < 1) {
+            throw new IllegalArgumentException("PBKDF2 iteration count must be positive");
+        }
+        return iterations;
+    }
+
+    private static byte[] derive(CharSequence rawPassword, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(rawPassword.toString().toCharArray(), salt, iterations, HASH_LENGTH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.posadskiy.auth.core.password;
+
+import org.springframework.security.crypto.scrypt.SCryptPasswordEncoder;
+
+/**
+ * scrypt with a fixed block size and parallelism; the cost is log2 of the CPU/memory cost N.
+ */
+public class ScryptPasswordHashingEngine implements PasswordHashingEngine {
+
+    public static final String ID = "scrypt";
+
+    private static final int SALT_LENGTH = 16;
+    private static final int KEY_LENGTH = 32;
+
+    private final int blockSize;
+    private final int parallelism;
+    private final int minimumCost;
+    private final int maximumCost;
+
+    public ScryptPasswordHashingEngine(int blockSize, int parallelism, int minimumCost, int maximumCost) {
+        this.blockSize = blockSize;
+        this.parallelism = parallelism;
+        this.minimumCost = minimumCost;
+        this.maximumCost = Math.max(minimumCost, maximumCost);
+    }
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    @Override
+    public int minimumCost() {
+        return minimumCost;
+    }
+
+    @Override
+    public int maximumCost() {
+        return maximumCost;
+    }
+
+    @Override
+    public int nextCost(int cost) {
+        return cost + 1;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword, int cost) {
+        return encoder(cost).encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return encoder(minimumCost).matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean isWeakerThan(String encodedPassword, int cost) {
+        return encoder(cost).upgradeEncoding(encodedPassword);
+    }
+
+    private SCryptPasswordEncoder encoder(int logN) {
+        return new SCryptPasswordEncoder(1 << logN, blockSize, parallelism, KEY_LENGTH, SALT_LENGTH);
+    }
+}
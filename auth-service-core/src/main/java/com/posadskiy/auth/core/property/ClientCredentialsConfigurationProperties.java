@@ -0,0 +1,27 @@
+package com.posadskiy.auth.core.property;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+
+@ConfigurationProperties("auth.client-credentials")
+public class ClientCredentialsConfigurationProperties {
+
+    private Duration accessTokenTtl = Duration.ofMinutes(15);
+    private Duration refreshMargin = Duration.ofMinutes(1);
+
+    public Duration getAccessTokenTtl() {
+        return accessTokenTtl;
+    }
+
+    public void setAccessTokenTtl(Duration accessTokenTtl) {
+        this.accessTokenTtl = accessTokenTtl;
+    }
+
+    public Duration getRefreshMargin() {
+        return refreshMargin;
+    }
+
+    public void setRefreshMargin(Duration refreshMargin) {
+        this.refreshMargin = refreshMargin;
+    }
+}
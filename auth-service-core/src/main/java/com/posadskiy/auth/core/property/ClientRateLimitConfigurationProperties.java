@@ -0,0 +1,81 @@
+package com.posadskiy.auth.core.property;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+
+@ConfigurationProperties("auth.client-credentials.rate-limit")
+public class ClientRateLimitConfigurationProperties {
+
+    private boolean enabled = true;
+    private int addressCapacity = 600;
+    private Duration addressRefillPeriod = Duration.ofMinutes(1);
+    private int clientCapacity = 6000;
+    private Duration clientRefillPeriod = Duration.ofMinutes(1);
+    private int shards = 16;
+    private int maxKeys = 100_000;
+    private String clientAddressHeader;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getAddressCapacity() {
+        return addressCapacity;
+    }
+
+    public void setAddressCapacity(int addressCapacity) {
+        this.addressCapacity = addressCapacity;
+    }
+
+    public Duration getAddressRefillPeriod() {
+        return addressRefillPeriod;
+    }
+
+    public void setAddressRefillPeriod(Duration addressRefillPeriod) {
+        this.addressRefillPeriod = addressRefillPeriod;
+    }
+
+    public int getClientCapacity() {
+        return clientCapacity;
+    }
+
+    public void setClientCapacity(int clientCapacity) {
+        this.clientCapacity = clientCapacity;
+    }
+
+    public Duration getClientRefillPeriod() {
+        return clientRefillPeriod;
+    }
+
+    public void setClientRefillPeriod(Duration clientRefillPeriod) {
+        this.clientRefillPeriod = clientRefillPeriod;
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    public void setShards(int shards) {
+        this.shards = shards;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public String getClientAddressHeader() {
+        return clientAddressHeader;
+    }
+
+    public void setClientAddressHeader(String clientAddressHeader) {
+        this.clientAddressHeader = clientAddressHeader;
+    }
+}
@@ -0,0 +1,81 @@
+package com.posadskiy.auth.core.property;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+
+@ConfigurationProperties("auth.jwt.signing")
+public class JwtSigningConfigurationProperties {
+
+    private String algorithm = "ES256";
+    private String store = "jdbc";
+    private String keyEncryptionSecret;
+    private Duration rotationInterval = Duration.ofDays(30);
+    private Duration publishAhead = Duration.ofHours(2);
+    private Duration overlap = Duration.ofDays(5);
+    private Duration refreshInterval = Duration.ofMinutes(5);
+    private Duration jwksMaxAge = Duration.ofHours(1);
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public String getStore() {
+        return store;
+    }
+
+    public void setStore(String store) {
+        this.store = store;
+    }
+
+    public String getKeyEncryptionSecret() {
+        return keyEncryptionSecret;
+    }
+
+    public void setKeyEncryptionSecret(String keyEncryptionSecret) {
+        this.keyEncryptionSecret = keyEncryptionSecret;
+    }
+
+    public Duration getRotationInterval() {
+        return rotationInterval;
+    }
+
+    public void setRotationInterval(Duration rotationInterval) {
+        this.rotationInterval = rotationInterval;
+    }
+
+    public Duration getPublishAhead() {
+        return publishAhead;
+    }
+
+    public void setPublishAhead(Duration publishAhead) {
+        this.publishAhead = publishAhead;
+    }
+
+    public Duration getOverlap() {
+        return overlap;
+    }
+
+    public void setOverlap(Duration overlap) {
+        this.overlap = overlap;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public Duration getJwksMaxAge() {
+        return jwksMaxAge;
+    }
+
+    public void setJwksMaxAge(Duration jwksMaxAge) {
+        this.jwksMaxAge = jwksMaxAge;
+    }
+}
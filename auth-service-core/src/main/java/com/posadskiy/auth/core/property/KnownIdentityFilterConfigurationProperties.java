@@ -0,0 +1,81 @@
+package com.posadskiy.auth.core.property;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+
+@ConfigurationProperties("auth.identity-filter")
+public class KnownIdentityFilterConfigurationProperties {
+
+    private boolean enabled = true;
+    private long expectedInsertions = 100_000;
+    private double falsePositiveProbability = 0.01;
+    private int pageSize = 5_000;
+    private Duration missCatchUpInterval = Duration.ofSeconds(1);
+    private int missLookupsPerSecond = 20;
+    private int catchUpOverlap = 100;
+    private double staleRebuildRatio = 0.1;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public void setExpectedInsertions(long expectedInsertions) {
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public double getFalsePositiveProbability() {
+        return falsePositiveProbability;
+    }
+
+    public void setFalsePositiveProbability(double falsePositiveProbability) {
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public Duration getMissCatchUpInterval() {
+        return missCatchUpInterval;
+    }
+
+    public void setMissCatchUpInterval(Duration missCatchUpInterval) {
+        this.missCatchUpInterval = missCatchUpInterval;
+    }
+
+    public int getMissLookupsPerSecond() {
+        return missLookupsPerSecond;
+    }
+
+    public void setMissLookupsPerSecond(int missLookupsPerSecond) {
+        this.missLookupsPerSecond = missLookupsPerSecond;
+    }
+
+    public int getCatchUpOverlap() {
+        return catchUpOverlap;
+    }
+
+    public void setCatchUpOverlap(int catchUpOverlap) {
+        this.catchUpOverlap = catchUpOverlap;
+    }
+
+    public double getStaleRebuildRatio() {
+        return staleRebuildRatio;
+    }
+
+    public void setStaleRebuildRatio(double staleRebuildRatio) {
+        this.staleRebuildRatio = staleRebuildRatio;
+    }
+}
@@ -0,0 +1,81 @@
+package com.posadskiy.auth.core.property;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+
+@ConfigurationProperties("auth.login.rate-limit")
+public class LoginRateLimitConfigurationProperties {
+
+    private boolean enabled = true;
+    private int ipCapacity = 30;
+    private Duration ipRefillPeriod = Duration.ofMinutes(1);
+    private int identityCapacity = 10;
+    private Duration identityRefillPeriod = Duration.ofMinutes(1);
+    private int shards = 16;
+    private int maxKeys = 100_000;
+    private String clientAddressHeader;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getIpCapacity() {
+        return ipCapacity;
+    }
+
+    public void setIpCapacity(int ipCapacity) {
+        this.ipCapacity = ipCapacity;
+    }
+
+    public Duration getIpRefillPeriod() {
+        return ipRefillPeriod;
+    }
+
+    public void setIpRefillPeriod(Duration ipRefillPeriod) {
+        this.ipRefillPeriod = ipRefillPeriod;
+    }
+
+    public int getIdentityCapacity() {
+        return identityCapacity;
+    }
+
+    public void setIdentityCapacity(int identityCapacity) {
+        this.identityCapacity = identityCapacity;
+    }
+
+    public Duration getIdentityRefillPeriod() {
+        return identityRefillPeriod;
+    }
+
+    public void setIdentityRefillPeriod(Duration identityRefillPeriod) {
+        this.identityRefillPeriod = identityRefillPeriod;
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    public void setShards(int shards) {
+        this.shards = shards;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public String getClientAddressHeader() {
+        return clientAddressHeader;
+    }
+
+    public void setClientAddressHeader(String clientAddressHeader) {
+        this.clientAddressHeader = clientAddressHeader;
+    }
+}
@@ -0,0 +1,209 @@
+package com.posadskiy.auth.core.property;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+
+@ConfigurationProperties("auth.password.hashing")
+public class PasswordHashingConfigurationProperties {
+
+    private String algorithm = "bcrypt";
+    private Duration verifyLatencyBudget = Duration.ofMillis(100);
+    private boolean calibrationEnabled = true;
+    private int calibrationSamples = 3;
+    private Bcrypt bcrypt = new Bcrypt();
+    private Argon2 argon2 = new Argon2();
+    private Scrypt scrypt = new Scrypt();
+    private Pbkdf2 pbkdf2 = new Pbkdf2();
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public Duration getVerifyLatencyBudget() {
+        return verifyLatencyBudget;
+    }
+
+    public void setVerifyLatencyBudget(Duration verifyLatencyBudget) {
+        this.verifyLatencyBudget = verifyLatencyBudget;
+    }
+
+    public boolean isCalibrationEnabled() {
+        return calibrationEnabled;
+    }
+
+    public void setCalibrationEnabled(boolean calibrationEnabled) {
+        this.calibrationEnabled = calibrationEnabled;
+    }
+
+    public int getCalibrationSamples() {
+        return calibrationSamples;
+    }
+
+    public void setCalibrationSamples(int calibrationSamples) {
+        this.calibrationSamples = calibrationSamples;
+    }
+
+    public Bcrypt getBcrypt() {
+        return bcrypt;
+    }
+
+    public void setBcrypt(Bcrypt bcrypt) {
+        this.bcrypt = bcrypt;
+    }
+
+    public Argon2 getArgon2() {
+        return argon2;
+    }
+
+    public void setArgon2(Argon2 argon2) {
+        this.argon2 = argon2;
+    }
+
+    public Scrypt getScrypt() {
+        return scrypt;
+    }
+
+    public void setScrypt(Scrypt scrypt) {
+        this.scrypt = scrypt;
+    }
+
+    public Pbkdf2 getPbkdf2() {
+        return pbkdf2;
+    }
+
+    public void setPbkdf2(Pbkdf2 pbkdf2) {
+        this.pbkdf2 = pbkdf2;
+    }
+
+    @ConfigurationProperties("bcrypt")
+    public static class Bcrypt {
+
+        private int minCost = 8;
+        private int maxCost = 14;
+
+        public int getMinCost() {
+            return minCost;
+        }
+
+        public void setMinCost(int minCost) {
+            this.minCost = minCost;
+        }
+
+        public int getMaxCost() {
+            return maxCost;
+        }
+
+        public void setMaxCost(int maxCost) {
+            this.maxCost = maxCost;
+        }
+    }
+
+    @ConfigurationProperties("argon2")
+    public static class Argon2 {
+
+        private int memoryKib = 19456;
+        private int parallelism = 1;
+        private int minIterations = 2;
+        private int maxIterations = 10;
+
+        public int getMemoryKib() {
+            return memoryKib;
+        }
+
+        public void setMemoryKib(int memoryKib) {
+            this.memoryKib = memoryKib;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getMinIterations() {
+            return minIterations;
+        }
+
+        public void setMinIterations(int minIterations) {
+            this.minIterations = minIterations;
+        }
+
+        public int getMaxIterations() {
+            return maxIterations;
+        }
+
+        public void setMaxIterations(int maxIterations) {
+            this.maxIterations = maxIterations;
+        }
+    }
+
+    @ConfigurationProperties("scrypt")
+    public static class Scrypt {
+
+        private int blockSize = 8;
+        private int parallelism = 1;
+        private int minLogN = 16;
+        private int maxLogN = 18;
+
+        public int getBlockSize() {
+            return blockSize;
+        }
+
+        public void setBlockSize(int blockSize) {
+            this.blockSize = blockSize;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getMinLogN() {
+            return minLogN;
+        }
+
+        public void setMinLogN(int minLogN) {
+            this.minLogN = minLogN;
+        }
+
+        public int getMaxLogN() {
+            return maxLogN;
+        }
+
+        public void setMaxLogN(int maxLogN) {
+            this.maxLogN = maxLogN;
+        }
+    }
+
+    @ConfigurationProperties("pbkdf2")
+    public static class Pbkdf2 {
+
+        private int minIterations = 600_000;
+        private int maxIterations = 5_000_000;
+
+        public int getMinIterations() {
+            return minIterations;
+        }
+
+        public void setMinIterations(int minIterations) {
+            this.minIterations = minIterations;
+        }
+
+        public int getMaxIterations() {
+            return maxIterations;
+        }
+
+        public void setMaxIterations(int maxIterations) {
+            this.maxIterations = maxIterations;
+        }
+    }
+}
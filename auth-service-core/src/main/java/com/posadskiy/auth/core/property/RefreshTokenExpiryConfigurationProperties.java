@@ -0,0 +1,63 @@
+package com.posadskiy.auth.core.property;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+
+@ConfigurationProperties("auth.refresh-token")
+public class RefreshTokenExpiryConfigurationProperties {
+
+    private Duration idleTimeout = Duration.ofDays(7);
+    private Duration absoluteLifetime = Duration.ofDays(30);
+    private boolean retentionEnabled = true;
+    private int partitionsAhead = 7;
+    private int maxSessions = 10;
+    private Duration idempotencyWindow = Duration.ofSeconds(2);
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Duration getAbsoluteLifetime() {
+        return absoluteLifetime;
+    }
+
+    public void setAbsoluteLifetime(Duration absoluteLifetime) {
+        this.absoluteLifetime = absoluteLifetime;
+    }
+
+    public boolean isRetentionEnabled() {
+        return retentionEnabled;
+    }
+
+    public void setRetentionEnabled(boolean retentionEnabled) {
+        this.retentionEnabled = retentionEnabled;
+    }
+
+    public int getPartitionsAhead() {
+        return partitionsAhead;
+    }
+
+    public void setPartitionsAhead(int partitionsAhead) {
+        this.partitionsAhead = partitionsAhead;
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    public Duration getIdempotencyWindow() {
+        return idempotencyWindow;
+    }
+
+    public void setIdempotencyWindow(Duration idempotencyWindow) {
+        this.idempotencyWindow = idempotencyWindow;
+    }
+}
@@ -0,0 +1,45 @@
+package com.posadskiy.auth.core.property;
+
+import io.micronaut.context.annotation.EachProperty;
+import io.micronaut.context.annotation.Parameter;
+import io.micronaut.core.annotation.Introspected;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A service allowed to use the client credentials grant. The secret is only configured as a hash
+ * in any format {@link com.posadskiy.auth.core.service.PasswordHashingService} understands.
+ */
+@EachProperty(value = "auth.client-credentials.clients")
+@Introspected
+public class ServiceClientConfigurationProperties {
+
+    private final String name;
+
+    private String secretHash;
+    private List<String> scopes = new ArrayList<>();
+
+    public ServiceClientConfigurationProperties(@Parameter String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSecretHash() {
+        return secretHash;
+    }
+
+    public void setSecretHash(String secretHash) {
+        this.secretHash = secretHash;
+    }
+
+    public List<String> getScopes() {
+        return scopes;
+    }
+
+    public void setScopes(List<String> scopes) {
+        this.scopes = scopes;
+    }
+}
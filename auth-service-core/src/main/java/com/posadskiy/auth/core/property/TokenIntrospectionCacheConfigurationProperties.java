@@ -0,0 +1,17 @@
+package com.posadskiy.auth.core.property;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+@ConfigurationProperties("auth.introspection.cache")
+public class TokenIntrospectionCacheConfigurationProperties {
+
+    private long maximumSize = 100_000;
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+}
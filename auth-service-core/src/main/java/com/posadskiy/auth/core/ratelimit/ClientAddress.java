@@ -0,0 +1,35 @@
+package com.posadskiy.auth.core.ratelimit;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpRequest;
+import java.net.InetSocketAddress;
+
+/** The address a request came from, as the rate limiters key it. */
+final class ClientAddress {
+
+    private ClientAddress() {}
+
+    /**
+     * The first entry of {@code header} when it is configured and present, otherwise the remote
+     * address of the connection. {@code null} when neither is known.
+     */
+    static String of(@Nullable HttpRequest<?> request, @Nullable String header) {
+        if (request == null) {
+            return null;
+        }
+        if (header != null && !header.isBlank()) {
+            String forwarded = request.getHeaders().get(header);
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null) {
+            return null;
+        }
+        return remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : remoteAddress.getHostString();
+    }
+}
@@ -0,0 +1,91 @@
+package com.posadskiy.auth.core.ratelimit;
+
+import com.posadskiy.auth.core.exception.RateLimitedException;
+import com.posadskiy.auth.core.property.ClientRateLimitConfigurationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+
+/**
+ * Limits calls to the OAuth endpoints that authenticate service clients, per client address and per
+ * presented client id, before the secret is checked. A wrong secret for a registered client costs a
+ * full hash on the password verifier pool, so without a limit anyone could keep that pool busy.
+ */
+@Singleton
+public class ClientRateLimiter {
+
+    private final ClientRateLimitConfigurationProperties configuration;
+    private final TokenBucketRateLimiter addressLimiter;
+    private final TokenBucketRateLimiter clientLimiter;
+    private final Counter addressLimitedCounter;
+    private final Counter clientLimitedCounter;
+
+    public ClientRateLimiter(ClientRateLimitConfigurationProperties configuration, MeterRegistry meterRegistry) {
+        this.configuration = configuration;
+        this.addressLimiter = new TokenBucketRateLimiter(
+                configuration.getAddressCapacity(),
+                configuration.getAddressRefillPeriod(),
+                configuration.getShards(),
+                configuration.getMaxKeys());
+        this.clientLimiter = new TokenBucketRateLimiter(
+                configuration.getClientCapacity(),
+                configuration.getClientRefillPeriod(),
+                configuration.getShards(),
+                configuration.getMaxKeys());
+
+        this.addressLimitedCounter = Counter.builder("auth.client.rate.limited")
+                .description("Service client calls rejected by the rate limiter")
+                .tag("key", "address")
+                .register(meterRegistry);
+        this.clientLimitedCounter = Counter.builder("auth.client.rate.limited")
+                .description("Service client calls rejected by the rate limiter")
+                .tag("key", "client")
+                .register(meterRegistry);
+        Gauge.builder("auth.client.rate.limit.keys", addressLimiter, TokenBucketRateLimiter::size)
+                .description("Keys currently tracked by the service client rate limiter")
+                .tag("key", "address")
+                .register(meterRegistry);
+        Gauge.builder("auth.client.rate.limit.keys", clientLimiter, TokenBucketRateLimiter::size)
+                .description("Keys currently tracked by the service client rate limiter")
+                .tag("key", "client")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws RateLimitedException when the caller's address or the presented client id is out of
+     *     tokens, carrying how long to wait before retrying
+     */
+    public void acquire(@Nullable HttpRequest<?> request, @Nullable String clientId) {
+        if (!configuration.isEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        String clientAddress = ClientAddress.of(request, configuration.getClientAddressHeader());
+        if (clientAddress != null) {
+            Duration wait = addressLimiter.tryAcquire(clientAddress, now);
+            if (!wait.isZero()) {
+                addressLimitedCounter.increment();
+                throw new RateLimitedException("Too many requests", wait);
+            }
+        }
+        if (clientId != null) {
+            Duration wait = clientLimiter.tryAcquire(clientId, now);
+            if (!wait.isZero()) {
+                clientLimitedCounter.increment();
+                throw new RateLimitedException("Too many requests", wait);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = "${auth.client-credentials.rate-limit.sweep-interval:30s}")
+    void evictIdleKeys() {
+        long now = System.nanoTime();
+        addressLimiter.evictIdle(now);
+        clientLimiter.evictIdle(now);
+    }
+}
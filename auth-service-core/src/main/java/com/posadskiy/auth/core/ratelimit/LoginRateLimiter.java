@@ -0,0 +1,91 @@
+package com.posadskiy.auth.core.ratelimit;
+
+import com.posadskiy.auth.core.property.LoginRateLimitConfigurationProperties;
+import com.posadskiy.auth.core.utils.EmailNormalizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+
+/**
+ * Limits login attempts per client address and per submitted identity before any credential work
+ * is done. Both buckets must have a token for the attempt to go ahead.
+ */
+@Singleton
+public class LoginRateLimiter {
+
+    private final LoginRateLimitConfigurationProperties configuration;
+    private final TokenBucketRateLimiter ipLimiter;
+    private final TokenBucketRateLimiter identityLimiter;
+    private final Counter ipLimitedCounter;
+    private final Counter identityLimitedCounter;
+
+    public LoginRateLimiter(LoginRateLimitConfigurationProperties configuration, MeterRegistry meterRegistry) {
+        this.configuration = configuration;
+        this.ipLimiter = new TokenBucketRateLimiter(
+                configuration.getIpCapacity(),
+                configuration.getIpRefillPeriod(),
+                configuration.getShards(),
+                configuration.getMaxKeys());
+        this.identityLimiter = new TokenBucketRateLimiter(
+                configuration.getIdentityCapacity(),
+                configuration.getIdentityRefillPeriod(),
+                configuration.getShards(),
+                configuration.getMaxKeys());
+
+        this.ipLimitedCounter = Counter.builder("auth.login.rate.limited")
+                .description("Login attempts rejected by the rate limiter")
+                .tag("key", "ip")
+                .register(meterRegistry);
+        this.identityLimitedCounter = Counter.builder("auth.login.rate.limited")
+                .description("Login attempts rejected by the rate limiter")
+                .tag("key", "identity")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.rate.limit.keys", ipLimiter, TokenBucketRateLimiter::size)
+                .description("Keys currently tracked by the login rate limiter")
+                .tag("key", "ip")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.rate.limit.keys", identityLimiter, TokenBucketRateLimiter::size)
+                .description("Keys currently tracked by the login rate limiter")
+                .tag("key", "identity")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return {@link Duration#ZERO} if the attempt may proceed, otherwise how long the client should
+     *     wait before retrying
+     */
+    public Duration tryAcquire(HttpRequest<?> request, String identity) {
+        if (!configuration.isEnabled()) {
+            return Duration.ZERO;
+        }
+        long now = System.nanoTime();
+        String clientAddress = ClientAddress.of(request, configuration.getClientAddressHeader());
+        if (clientAddress != null) {
+            Duration wait = ipLimiter.tryAcquire(clientAddress, now);
+            if (!wait.isZero()) {
+                ipLimitedCounter.increment();
+                return wait;
+            }
+        }
+        String normalizedIdentity = EmailNormalizer.normalize(identity);
+        if (normalizedIdentity != null) {
+            Duration wait = identityLimiter.tryAcquire(normalizedIdentity, now);
+            if (!wait.isZero()) {
+                identityLimitedCounter.increment();
+                return wait;
+            }
+        }
+        return Duration.ZERO;
+    }
+
+    @Scheduled(fixedDelay = "${auth.login.rate-limit.sweep-interval:30s}")
+    void evictIdleKeys() {
+        long now = System.nanoTime();
+        ipLimiter.evictIdle(now);
+        identityLimiter.evictIdle(now);
+    }
+}
@@ -0,0 +1,108 @@
+package com.posadskiy.auth.core.ratelimit;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets kept as a single "theoretical arrival time" per key (GCRA), so acquiring a token is
+ * one CAS on an {@link AtomicLong} without locks. Keys live in a fixed number of shards, each capped
+ * at its share of {@code maxKeys}.
+ *
+ * <p>A bucket whose arrival time has passed is full again and carries no information, so such keys
+ * can be evicted at any time without changing the outcome of later requests.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final int EVICTION_PROBES = 8;
+
+    private final Map<String, AtomicLong>[] shards;
+    private final int maxKeysPerShard;
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+
+    @SuppressWarnings("unchecked")
+    public TokenBucketRateLimiter(int capacity, Duration refillPeriod, int shardCount, int maxKeys) {
+        int shardsPowerOfTwo = 1;
+        while (shardsPowerOfTwo < shardCount) {
+            shardsPowerOfTwo <<= 1;
+        }
+        this.shards = new Map[shardsPowerOfTwo];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+        this.maxKeysPerShard = Math.max(1, maxKeys / shards.length);
+        this.emissionIntervalNanos = Math.max(1, refillPeriod.toNanos() / Math.max(1, capacity));
+        this.burstNanos = emissionIntervalNanos * Math.max(1, capacity);
+    }
+
+    /**
+     * Takes one token for {@code key}.
+     *
+     * @return {@link Duration#ZERO} if a token was available, otherwise how long until one will be
+     */
+    public Duration tryAcquire(String key, long nowNanos) {
+        Map<String, AtomicLong> shard = shard(key);
+        AtomicLong arrival = shard.get(key);
+        if (arrival == null) {
+            if (shard.size() >= maxKeysPerShard && !evictOne(shard, nowNanos)) {
+                // Every tracked key is still limited; fail open rather than let one flood lock out others.
+                return Duration.ZERO;
+            }
+            arrival = shard.computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+        }
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long excess = next - nowNanos - burstNanos;
+            if (excess > 0) {
+                return Duration.ofNanos(excess);
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    /**
+     * Drops keys whose bucket has refilled completely.
+     */
+    public int evictIdle(long nowNanos) {
+        int evicted = 0;
+        for (Map<String, AtomicLong> shard : shards) {
+            for (Iterator<AtomicLong> it = shard.values().iterator(); it.hasNext(); ) {
+                if (it.next().get() <= nowNanos) {
+                    it.remove();
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, AtomicLong> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    private boolean evictOne(Map<String, AtomicLong> shard, long nowNanos) {
+        int probes = 0;
+        for (Iterator<AtomicLong> it = shard.values().iterator(); it.hasNext() && probes++ < EVICTION_PROBES; ) {
+            if (it.next().get() <= nowNanos) {
+                it.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<String, AtomicLong> shard(String key) {
+        int hash = key.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & (shards.length - 1)];
+    }
+}
@@ -0,0 +1,189 @@
+package com.posadskiy.auth.core.service;
+
+import com.posadskiy.auth.core.exception.ServiceOverloadedException;
+import com.posadskiy.auth.core.jwk.AccessTokenVerifier;
+import com.posadskiy.auth.core.jwk.AccessTokenVerifier.Verification;
+import com.posadskiy.auth.core.property.BatchTokenValidationConfigurationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.core.annotation.Nullable;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Validates many access tokens for one caller, such as an API gateway checking the requests it has
+ * queued. Tokens are verified by the {@link AccessTokenVerifier}, against the keys
+ * {@link JwtTokenService} signs with.
+ *
+ * <p>A batch is cut into chunks of at least {@code min-chunk-size} tokens that run on a fixed pool
+ * sized to the cores, the last chunk on the calling thread. Repeats of a token within a batch are
+ * verified once. Work that does not fit into the bounded queue is rejected with a
+ * {@link ServiceOverloadedException}, as is a batch not done within {@code timeout}.
+ */
+@Singleton
+public class BatchTokenValidationService {
+
+    private final AccessTokenVerifier accessTokenVerifier;
+    private final ThreadPoolExecutor executor;
+    private final int maxTokens;
+    private final int poolSize;
+    private final int minChunkSize;
+    private final Duration timeout;
+    private final Duration retryAfter;
+    private final DistributionSummary batchSize;
+    private final Counter validCounter;
+    private final Counter invalidCounter;
+    private final Counter rejectedCounter;
+
+    public BatchTokenValidationService(
+            AccessTokenVerifier accessTokenVerifier,
+            BatchTokenValidationConfigurationProperties configuration,
+            MeterRegistry meterRegistry) {
+        this.accessTokenVerifier = accessTokenVerifier;
+        this.poolSize = Math.max(1, configuration.getPoolSize());
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, configuration.getQueueCapacity())),
+                Thread.ofPlatform().name("token-validator-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxTokens = configuration.getMaxTokens();
+        this.minChunkSize = Math.max(1, configuration.getMinChunkSize());
+        this.timeout = configuration.getTimeout();
+        this.retryAfter = configuration.getRetryAfter();
+
+        this.batchSize = DistributionSummary.builder("auth.token.validation.batch.size")
+                .description("Tokens per batch validation request")
+                .register(meterRegistry);
+        this.validCounter = Counter.builder("auth.token.validation.batch.tokens")
+                .description("Tokens checked by batch validation")
+                .tag("result", "valid")
+                .register(meterRegistry);
+        this.invalidCounter = Counter.builder("auth.token.validation.batch.tokens")
+                .description("Tokens checked by batch validation")
+                .tag("result", "invalid")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.token.validation.batch.rejected")
+                .description("Batch validations rejected because the validator pool was busy")
+                .register(meterRegistry);
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    /** One result per token, in the order given. */
+    public List<Result> validate(List<String> tokens) {
+        if (tokens.size() > maxTokens) {
+            throw new IllegalArgumentException("At most " + maxTokens + " tokens can be validated at once");
+        }
+        Instant now = Instant.now();
+        int[] firstIndex = new int[tokens.size()];
+        List<String> distinct = distinct(tokens, firstIndex);
+        Result[] results = new Result[distinct.size()];
+
+        int chunks = Math.min(poolSize, Math.ceilDiv(distinct.size(), minChunkSize));
+        List<Future<?>> futures = new ArrayList<>(Math.max(0, chunks - 1));
+        // the timeout covers the whole batch, the caller's own chunk included
+        long deadline = System.nanoTime() + timeout.toNanos();
+        boolean completed = false;
+        try {
+            int chunkSize = chunks == 0 ? 0 : Math.ceilDiv(distinct.size(), chunks);
+            for (int chunk = 0; chunk < chunks - 1; chunk++) {
+                int from = chunk * chunkSize;
+                int to = Math.min(distinct.size(), from + chunkSize);
+                futures.add(executor.submit(() -> verify(distinct, results, from, to, now)));
+            }
+            verify(distinct, results, Math.max(0, chunks - 1) * chunkSize, distinct.size(), now);
+            for (Future<?> future : futures) {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+            completed = true;
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ServiceOverloadedException("Token validation queue is full", retryAfter);
+        } catch (TimeoutException e) {
+            throw new ServiceOverloadedException("Token validation timed out", retryAfter);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while validating tokens", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Token validation failed", e.getCause());
+        } finally {
+            // whatever went wrong, chunks still queued or running would only burn the pool
+            if (!completed) {
+                futures.forEach(future -> future.cancel(true));
+            }
+        }
+
+        List<Result> ordered = new ArrayList<>(tokens.size());
+        int valid = 0;
+        for (int index : firstIndex) {
+            Result result = results[index];
+            ordered.add(result);
+            valid += result.valid() ? 1 : 0;
+        }
+        batchSize.record(tokens.size());
+        validCounter.increment(valid);
+        invalidCounter.increment(tokens.size() - valid);
+        return ordered;
+    }
+
+    // maps every position to the index of its token among the distinct ones
+    private static List<String> distinct(List<String> tokens, int[] firstIndex) {
+        Map<String, Integer> seen = new HashMap<>(tokens.size() * 2);
+        List<String> distinct = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            Integer index = seen.putIfAbsent(token == null ? "" : token, distinct.size());
+            if (index == null) {
+                firstIndex[i] = distinct.size();
+                distinct.add(token);
+            } else {
+                firstIndex[i] = index;
+            }
+        }
+        return distinct;
+    }
+
+    private void verify(List<String> tokens, Result[] results, int from, int to, Instant now) {
+        for (int i = from; i < to; i++) {
+            Verification verification = accessTokenVerifier.verify(tokens.get(i), now);
+            results[i] = verification.valid()
+                    ? new Result(
+                            true,
+                            verification.claims().getSubject(),
+                            verification.claims().getExpirationTime().toInstant(),
+                            null)
+                    : new Result(false, null, null, verification.reason());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** Whether a token is valid, whose it is and until when, or why it is not. */
+    public record Result(
+            boolean valid, @Nullable String subject, @Nullable Instant expiresAt, @Nullable String reason) {}
+}
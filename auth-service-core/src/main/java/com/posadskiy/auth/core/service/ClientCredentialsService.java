@@ -0,0 +1,172 @@
+package com.posadskiy.auth.core.service;
+
+import com.posadskiy.auth.core.exception.ClientCredentialsException;
+import com.posadskiy.auth.core.property.ClientCredentialsConfigurationProperties;
+import com.posadskiy.auth.core.property.ServiceClientConfigurationProperties;
+import com.posadskiy.auth.core.service.JwtTokenService.TokenDetails;
+import com.posadskiy.auth.core.utils.TokenDigest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.util.StringUtils;
+import jakarta.inject.Singleton;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * OAuth 2.0 client credentials grant for internal services.
+ *
+ * <p>Clients are loaded from {@code auth.client-credentials.clients} at startup. A secret is checked
+ * against its hash once, on the verifier pool; after that the same secret is recognised by its
+ * SHA-256 digest. An access token is handed out again for the same client and scope until it is
+ * within {@code refresh-margin} of expiry, so a repeated grant is a map lookup, not a signature.
+ */
+@Singleton
+public class ClientCredentialsService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClientCredentialsService.class);
+
+    private final Map<String, RegisteredClient> clients;
+    private final Map<String, IssuedToken> issuedTokens = new ConcurrentHashMap<>();
+    private final PasswordVerificationService passwordVerificationService;
+    private final JwtTokenService jwtTokenService;
+    private final ClientCredentialsConfigurationProperties configuration;
+    private final Counter issuedCounter;
+    private final Counter reusedCounter;
+
+    public ClientCredentialsService(
+            List<ServiceClientConfigurationProperties> clients,
+            PasswordVerificationService passwordVerificationService,
+            JwtTokenService jwtTokenService,
+            ClientCredentialsConfigurationProperties configuration,
+            MeterRegistry meterRegistry) {
+        this.clients = clients.stream()
+                .filter(ClientCredentialsService::isUsable)
+                .map(RegisteredClient::new)
+                .collect(Collectors.toUnmodifiableMap(RegisteredClient::id, Function.identity()));
+        this.passwordVerificationService = passwordVerificationService;
+        this.jwtTokenService = jwtTokenService;
+        this.configuration = configuration;
+
+        this.issuedCounter = Counter.builder("auth.client.credentials.tokens")
+                .description("Access tokens handed out by the client credentials grant")
+                .tag("result", "issued")
+                .register(meterRegistry);
+        this.reusedCounter = Counter.builder("auth.client.credentials.tokens")
+                .description("Access tokens handed out by the client credentials grant")
+                .tag("result", "reused")
+                .register(meterRegistry);
+    }
+
+    public GrantedToken grant(String clientId, String clientSecret, @Nullable String scope) {
+        RegisteredClient client = authenticatedClient(clientId, clientSecret);
+        String grantedScope = grantedScope(client, scope);
+
+        Instant now = Instant.now();
+        Instant refreshAfter = now.plus(configuration.getRefreshMargin());
+        IssuedToken token = issuedTokens.get(client.id() + ' ' + grantedScope);
+        if (token != null && token.expiresAt().isAfter(refreshAfter)) {
+            reusedCounter.increment();
+        } else {
+            token = issuedTokens.compute(client.id() + ' ' + grantedScope, (key, current) -> {
+                if (current != null && current.expiresAt().isAfter(refreshAfter)) {
+                    return current;
+                }
+                Instant expiresAt = now.plus(configuration.getAccessTokenTtl());
+                TokenDetails details = jwtTokenService.generateForClient(client.id(), grantedScope, now, expiresAt);
+                issuedCounter.increment();
+                return new IssuedToken(details.accessToken(), expiresAt);
+            });
+        }
+        long expiresIn = Duration.between(now, token.expiresAt()).toSeconds();
+        return new GrantedToken(token.accessToken(), expiresIn, grantedScope);
+    }
+
+    /** Checks the credentials of a registered client calling one of the other OAuth endpoints. */
+    public void authenticate(String clientId, String clientSecret) {
+        authenticatedClient(clientId, clientSecret);
+    }
+
+    private RegisteredClient authenticatedClient(String clientId, String clientSecret) {
+        RegisteredClient client = clientId == null ? null : clients.get(clientId);
+        if (client == null || clientSecret == null || !authenticate(client, clientSecret)) {
+            throw new ClientCredentialsException(
+                    ClientCredentialsException.INVALID_CLIENT, "Client authentication failed");
+        }
+        return client;
+    }
+
+    private boolean authenticate(RegisteredClient client, String clientSecret) {
+        byte[] digest = TokenDigest.sha256(clientSecret);
+        byte[] verified = client.verifiedSecretDigest;
+        if (verified != null && MessageDigest.isEqual(verified, digest)) {
+            return true;
+        }
+        if (!passwordVerificationService.verify(clientSecret, client.secretHash())) {
+            return false;
+        }
+        client.verifiedSecretDigest = digest;
+        return true;
+    }
+
+    private static String grantedScope(RegisteredClient client, @Nullable String scope) {
+        if (scope == null || scope.isBlank()) {
+            return String.join(" ", client.scopes());
+        }
+        Set<String> requested = new TreeSet<>(Arrays.asList(scope.trim().split("\\s+")));
+        if (!client.scopes().containsAll(requested)) {
+            throw new ClientCredentialsException(
+                    ClientCredentialsException.INVALID_SCOPE, "Requested scope is not allowed for this client");
+        }
+        return String.join(" ", requested);
+    }
+
+    private static boolean isUsable(ServiceClientConfigurationProperties client) {
+        if (StringUtils.isEmpty(client.getSecretHash())) {
+            LOG.warn("Service client {} has no secret hash configured and is ignored", client.getName());
+            return false;
+        }
+        return true;
+    }
+
+    public record GrantedToken(String accessToken, long expiresInSeconds, String scope) {}
+
+    private record IssuedToken(String accessToken, Instant expiresAt) {}
+
+    private static final class RegisteredClient {
+
+        private final String id;
+        private final String secretHash;
+        private final Set<String> scopes;
+        private volatile byte[] verifiedSecretDigest;
+
+        RegisteredClient(ServiceClientConfigurationProperties properties) {
+            this.id = properties.getName();
+            this.secretHash = properties.getSecretHash();
+            this.scopes = new TreeSet<>(properties.getScopes());
+        }
+
+        String id() {
+            return id;
+        }
+
+        String secretHash() {
+            return secretHash;
+        }
+
+        Set<String> scopes() {
+            return scopes;
+        }
+    }
+}
@@ -1,12 +1,8 @@
 package com.posadskiy.auth.core.service;
 
-import com.nimbusds.jose.JWSAlgorithm;
-import com.nimbusds.jose.JWSHeader;
-import com.nimbusds.jose.JWSSigner;
-import com.nimbusds.jose.crypto.MACSigner;
-import com.nimbusds.jwt.JWTClaimsSet;
-import com.nimbusds.jwt.SignedJWT;
 import com.posadskiy.auth.core.SocialAuthConstants;
+import com.posadskiy.auth.core.jwk.JwsMinter;
+import com.posadskiy.auth.core.jwk.SigningKeyRing;
 import com.posadskiy.auth.core.storage.db.entity.ExternalIdentityEntity;
 import com.posadskiy.auth.core.storage.db.entity.UserEntity;
 import io.micronaut.context.annotation.Value;
@@ -14,47 +10,107 @@ import jakarta.inject.Singleton;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Date;
+import java.util.UUID;
 
 @Singleton
 public class JwtTokenService {
 
-    private final JWSSigner signer;
+    private static final String ISSUER = "auth-service";
+    private static final byte[] ISSUER_CLAIM = ("\"iss\":\"" + ISSUER + '"').getBytes(StandardCharsets.US_ASCII);
+    private static final int SUB = 0;
+    private static final int ISS = 1;
+    private static final int IAT = 2;
+    private static final int EXP = 3;
+    private static final int EMAIL = 4;
+    private static final int EMAIL_VERIFIED = 5;
+    private static final int PICTURE = 6;
+    private static final int PROVIDER = 7;
+    private static final int EXTERNAL_SUBJECT = 8;
+    private static final int JTI = 4;
+    private static final int CLIENT_ID = 5;
+    private static final int SCOPE = 6;
+    private static final JwsMinter.ClaimOrder SOCIAL_CLAIM_ORDER = new JwsMinter.ClaimOrder(
+            "sub",
+            "iss",
+            "iat",
+            "exp",
+            "email",
+            SocialAuthConstants.CLAIM_EMAIL_VERIFIED,
+            SocialAuthConstants.CLAIM_PICTURE,
+            SocialAuthConstants.ATTR_PROVIDER,
+            SocialAuthConstants.ATTR_EXTERNAL_SUBJECT);
+    private static final JwsMinter.ClaimOrder CLIENT_CLAIM_ORDER = new JwsMinter.ClaimOrder(
+            "sub", "iss", "iat", "exp", "jti", SocialAuthConstants.CLAIM_CLIENT_ID, SocialAuthConstants.CLAIM_SCOPE);
+
+    private final JwsMinter minter = new JwsMinter();
+    private final SigningKeyRing signingKeyRing;
     private final Duration accessTokenTtl;
 
     public JwtTokenService(
             @Value("${social.oauth.jwt.access-token-ttl:PT5M}") Duration accessTokenTtl,
-            @Value("${JWT_GENERATOR_SIGNATURE_SECRET}") String secret)
-            throws Exception {
+            SigningKeyRing signingKeyRing) {
         this.accessTokenTtl = accessTokenTtl;
-        this.signer = new MACSigner(secret.getBytes(StandardCharsets.UTF_8));
+        this.signingKeyRing = signingKeyRing;
     }
 
+    /**
+     * Access token of a social login, signed with the ring's active key on {@link JwsMinter}'s fast
+     * path. Claims are written in Nimbus's order for the ones present, so header and payload are the
+     * same bytes as building it with Nimbus.
+     */
     public TokenDetails generate(UserEntity user, ExternalIdentityEntity identity) {
-        try {
-            Instant now = Instant.now();
-            Instant expiresAt = now.plus(accessTokenTtl);
-
-            JWTClaimsSet claims =
-                    new JWTClaimsSet.Builder()
-                            .subject(String.valueOf(user.getId()))
-                            .issuer("auth-service")
-                            .issueTime(Date.from(now))
-                            .expirationTime(Date.from(expiresAt))
-                            .claim("email", user.getEmail())
-                            .claim(SocialAuthConstants.CLAIM_EMAIL_VERIFIED, user.getEmailVerified())
-                            .claim(SocialAuthConstants.CLAIM_PICTURE, user.getPictureUrl())
-                            .claim(SocialAuthConstants.ATTR_PROVIDER, identity.getProvider())
-                            .claim(SocialAuthConstants.ATTR_EXTERNAL_SUBJECT, identity.getProviderUserId())
-                            .build();
-
-            SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claims);
-            jwt.sign(signer);
-
-            return new TokenDetails(jwt.serialize(), Duration.between(now, expiresAt).toSeconds());
-        } catch (Exception e) {
-            throw new IllegalStateException("Unable to generate JWT token", e);
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(accessTokenTtl);
+        return new TokenDetails(sign(user, identity, now, expiresAt), Duration.between(now, expiresAt).toSeconds());
+    }
+
+    String sign(UserEntity user, ExternalIdentityEntity identity, Instant issuedAt, Instant expiresAt) {
+        int present = 1 << SUB | 1 << ISS | 1 << IAT | 1 << EXP
+                | (user.getEmail() != null ? 1 << EMAIL : 0)
+                | (user.getEmailVerified() != null ? 1 << EMAIL_VERIFIED : 0)
+                | (user.getPictureUrl() != null ? 1 << PICTURE : 0)
+                | (identity.getProvider() != null ? 1 << PROVIDER : 0)
+                | (identity.getProviderUserId() != null ? 1 << EXTERNAL_SUBJECT : 0);
+        JwsMinter.Writer writer = minter.begin();
+        for (int claim : SOCIAL_CLAIM_ORDER.of(present)) {
+            switch (claim) {
+                case SUB -> writer.claim("sub", String.valueOf(user.getId()));
+                case ISS -> writer.raw(ISSUER_CLAIM);
+                case IAT -> writer.claim("iat", issuedAt.getEpochSecond());
+                case EXP -> writer.claim("exp", expiresAt.getEpochSecond());
+                case EMAIL -> writer.claim("email", user.getEmail());
+                case EMAIL_VERIFIED -> writer.claim(SocialAuthConstants.CLAIM_EMAIL_VERIFIED, user.getEmailVerified());
+                case PICTURE -> writer.claim(SocialAuthConstants.CLAIM_PICTURE, user.getPictureUrl());
+                case PROVIDER -> writer.claim(SocialAuthConstants.ATTR_PROVIDER, identity.getProvider());
+                default -> writer.claim(SocialAuthConstants.ATTR_EXTERNAL_SUBJECT, identity.getProviderUserId());
+            }
+        }
+        return writer.sign(signingKeyRing.active());
+    }
+
+    public TokenDetails generateForClient(String clientId, String scope, Instant issuedAt, Instant expiresAt) {
+        return new TokenDetails(
+                signForClient(clientId, scope, UUID.randomUUID().toString(), issuedAt, expiresAt),
+                Duration.between(issuedAt, expiresAt).toSeconds());
+    }
+
+    String signForClient(String clientId, String scope, String tokenId, Instant issuedAt, Instant expiresAt) {
+        int present = 1 << SUB | 1 << ISS | 1 << IAT | 1 << EXP | 1 << JTI
+                | (clientId != null ? 1 << CLIENT_ID : 0)
+                | (scope != null ? 1 << SCOPE : 0);
+        JwsMinter.Writer writer = minter.begin();
+        for (int claim : CLIENT_CLAIM_ORDER.of(present)) {
+            switch (claim) {
+                case SUB -> writer.claim("sub", clientId);
+                case ISS -> writer.raw(ISSUER_CLAIM);
+                case IAT -> writer.claim("iat", issuedAt.getEpochSecond());
+                case EXP -> writer.claim("exp", expiresAt.getEpochSecond());
+                case JTI -> writer.claim("jti", tokenId);
+                case CLIENT_ID -> writer.claim(SocialAuthConstants.CLAIM_CLIENT_ID, clientId);
+                default -> writer.claim(SocialAuthConstants.CLAIM_SCOPE, scope);
+            }
         }
+        return writer.sign(signingKeyRing.active());
     }
 
     public record TokenDetails(String accessToken, long expiresInSeconds) {}
@@ -0,0 +1,151 @@
+package com.posadskiy.auth.core.service;
+
+import com.posadskiy.auth.core.password.PasswordHashingEngine;
+import com.posadskiy.auth.core.property.PasswordHashingConfigurationProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.inject.Singleton;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Encodes new passwords with the configured engine and verifies hashes written by any known engine.
+ * Hashes carry their algorithm as a {@code {id}} prefix; unprefixed hashes are legacy bcrypt.
+ *
+ * <p>Every engine starts at its minimum cost. On startup the active engine is benchmarked on the
+ * current hardware and raised to the highest cost whose verification still fits the latency budget;
+ * the others only ever verify existing hashes, whose cost is recorded in the hash itself.
+ */
+@Singleton
+public class PasswordHashingService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PasswordHashingService.class);
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private final PasswordHashingConfigurationProperties configuration;
+    private final Map<String, PasswordHashingEngine> engines = new LinkedHashMap<>();
+    private final Map<String, AtomicInteger> costs = new LinkedHashMap<>();
+    private final PasswordHashingEngine activeEngine;
+    private final PasswordHashingEngine unprefixedEngine;
+
+    public PasswordHashingService(
+            List<PasswordHashingEngine> engines,
+            PasswordHashingConfigurationProperties configuration,
+            MeterRegistry meterRegistry) {
+        this.configuration = configuration;
+        PasswordHashingEngine unprefixed = null;
+        for (PasswordHashingEngine engine : engines) {
+            AtomicInteger cost = new AtomicInteger(engine.minimumCost());
+            this.engines.put(engine.id(), engine);
+            this.costs.put(engine.id(), cost);
+            if (engine.prefix().isEmpty()) {
+                unprefixed = engine;
+            }
+            Gauge.builder("auth.password.hashing.cost", cost, AtomicInteger::get)
+                    .description("Cost currently used when hashing new passwords")
+                    .tag("algorithm", engine.id())
+                    .register(meterRegistry);
+        }
+        this.unprefixedEngine = unprefixed;
+        this.activeEngine = this.engines.get(configuration.getAlgorithm());
+        if (activeEngine == null) {
+            throw new IllegalStateException("Unknown password hashing algorithm: " + configuration.getAlgorithm());
+        }
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return activeEngine.prefix() + activeEngine.encode(rawPassword, cost(activeEngine.id()));
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null) {
+            throw new IllegalArgumentException("rawPassword cannot be null");
+        }
+        EncodedPassword encoded = resolve(encodedPassword);
+        return encoded != null && encoded.engine().matches(rawPassword, encoded.hash());
+    }
+
+    /**
+     * Whether a hash that just verified successfully was produced by another engine or with a lower
+     * cost than the current one, and should be replaced.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        EncodedPassword encoded = resolve(encodedPassword);
+        return encoded != null
+                && (encoded.engine() != activeEngine
+                        || activeEngine.isWeakerThan(encoded.hash(), cost(activeEngine.id())));
+    }
+
+    @EventListener
+    void onStartup(StartupEvent event) {
+        if (configuration.isCalibrationEnabled()) {
+            Thread.ofPlatform().name("password-hash-calibration").daemon(true).start(this::calibrate);
+        }
+    }
+
+    void calibrate() {
+        try {
+            int cost = calibrate(activeEngine);
+            costs.get(activeEngine.id()).set(cost);
+            LOG.info("Calibrated {} password hashing to cost {}", activeEngine.id(), cost);
+        } catch (RuntimeException e) {
+            LOG.warn("Calibration of {} password hashing failed, keeping minimum cost", activeEngine.id(), e);
+        }
+    }
+
+    int cost(String algorithm) {
+        return costs.get(algorithm).get();
+    }
+
+    private int calibrate(PasswordHashingEngine engine) {
+        long budget = configuration.getVerifyLatencyBudget().toNanos();
+        int cost = engine.minimumCost();
+        if (measure(engine, cost) > budget) {
+            LOG.warn(
+                    "{} at minimum cost {} exceeds the verify latency budget of {}",
+                    engine.id(),
+                    cost,
+                    configuration.getVerifyLatencyBudget());
+            return cost;
+        }
+        while (cost < engine.maximumCost()) {
+            int next = Math.min(engine.nextCost(cost), engine.maximumCost());
+            if (measure(engine, next) > budget) {
+                break;
+            }
+            cost = next;
+        }
+        return cost;
+    }
+
+    private long measure(PasswordHashingEngine engine, int cost) {
+        String hash = engine.encode(CALIBRATION_PASSWORD, cost);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < Math.max(1, configuration.getCalibrationSamples()); i++) {
+            long startedAt = System.nanoTime();
+            engine.matches(CALIBRATION_PASSWORD, hash);
+            fastest = Math.min(fastest, System.nanoTime() - startedAt);
+        }
+        return fastest;
+    }
+
+    private EncodedPassword resolve(String encodedPassword) {
+        if (encodedPassword == null) {
+            return null;
+        }
+        if (encodedPassword.startsWith("{")) {
+            int end = encodedPassword.indexOf('}');
+            PasswordHashingEngine engine = end > 0 ? engines.get(encodedPassword.substring(1, end)) : null;
+            return engine == null ? null : new EncodedPassword(engine, encodedPassword.substring(end + 1));
+        }
+        return unprefixedEngine == null ? null : new EncodedPassword(unprefixedEngine, encodedPassword);
+    }
+
+    private record EncodedPassword(PasswordHashingEngine engine, String hash) {}
+}
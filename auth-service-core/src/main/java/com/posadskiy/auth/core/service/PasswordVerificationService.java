@@ -0,0 +1,158 @@
+package com.posadskiy.auth.core.service;
+
+import com.posadskiy.auth.core.exception.ServiceOverloadedException;
+import com.posadskiy.auth.core.property.PasswordVerificationConfigurationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs password hashing work on a fixed pool sized to the available cores, so login traffic can
+ * never use more CPU than the pool allows. Work that does not fit into the bounded queue is
+ * rejected immediately with a {@link ServiceOverloadedException}.
+ */
+@Singleton
+public class PasswordVerificationService {
+
+    private final PasswordHashingService passwordHashingService;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Duration retryAfter;
+    private final Timer queueWaitTimer;
+    private final Timer verifyTimer;
+    private final Counter rejectedCounter;
+    private final Counter timeoutCounter;
+    private final Counter backgroundRejectedCounter;
+
+    public PasswordVerificationService(
+            PasswordHashingService passwordHashingService,
+            PasswordVerificationConfigurationProperties configuration,
+            MeterRegistry meterRegistry) {
+        this.passwordHashingService = passwordHashingService;
+        int poolSize = Math.max(1, configuration.getPoolSize());
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, configuration.getQueueCapacity())),
+                Thread.ofPlatform().name("password-verifier-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeout = configuration.getTimeout();
+        this.retryAfter = configuration.getRetryAfter();
+
+        this.queueWaitTimer = Timer.builder("auth.password.verify.queue.wait")
+                .description("Time a password verification waited for a verifier thread")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("auth.password.verify.duration")
+                .description("Time spent hashing a password on a verifier thread")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.verify.rejected")
+                .description("Password verifications rejected by the verifier pool")
+                .tag("cause", "queue_full")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("auth.password.verify.rejected")
+                .description("Password verifications rejected by the verifier pool")
+                .tag("cause", "timeout")
+                .register(meterRegistry);
+        this.backgroundRejectedCounter = Counter.builder("auth.password.verify.rejected")
+                .description("Password verifications rejected by the verifier pool")
+                .tag("cause", "background")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.verify.queue.size", executor, pool -> pool.getQueue().size())
+                .description("Password verifications waiting for a verifier thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.verify.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Verifier threads currently hashing a password")
+                .register(meterRegistry);
+    }
+
+    public boolean verify(String rawPassword, String encodedPassword) {
+        return execute(() -> passwordHashingService.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Queues hashing work nobody waits for, such as upgrading a hash after login. It is dropped
+     * rather than queued when the pool is busy; the next login simply tries again.
+     */
+    public boolean submit(Runnable task) {
+        if (isSaturated()) {
+            backgroundRejectedCounter.increment();
+            return false;
+        }
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            backgroundRejectedCounter.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Cheap pre-check used before any DB work: when the queue is already full the attempt would be
+     * rejected anyway, so there is no point in spending a pool connection on it.
+     */
+    public boolean isSaturated() {
+        return executor.getQueue().remainingCapacity() == 0;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public <T> T execute(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWaitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    verifyTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ServiceOverloadedException("Password verification queue is full", retryAfter);
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeoutCounter.increment();
+            throw new ServiceOverloadedException("Password verification timed out", retryAfter);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password verification", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password verification failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
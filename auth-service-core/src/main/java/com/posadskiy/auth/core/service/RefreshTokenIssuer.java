@@ -1,36 +1,32 @@
 package com.posadskiy.auth.core.service;
 
-import com.posadskiy.auth.core.storage.db.RefreshTokenRepository;
+import com.posadskiy.auth.core.EnvelopeRefreshTokenGenerator;
 import com.posadskiy.auth.core.storage.db.entity.RefreshTokenEntity;
+import com.posadskiy.auth.core.utils.TokenDigest;
 import jakarta.inject.Singleton;
-import java.security.SecureRandom;
-import java.util.Base64;
 
 @Singleton
 public class RefreshTokenIssuer {
 
-    private final RefreshTokenRepository refreshTokenRepository;
-    private final SecureRandom secureRandom = new SecureRandom();
+    private final RefreshTokenWriter refreshTokenWriter;
+    private final EnvelopeRefreshTokenGenerator refreshTokenGenerator;
 
-    public RefreshTokenIssuer(RefreshTokenRepository refreshTokenRepository) {
-        this.refreshTokenRepository = refreshTokenRepository;
+    public RefreshTokenIssuer(
+            RefreshTokenWriter refreshTokenWriter, EnvelopeRefreshTokenGenerator refreshTokenGenerator) {
+        this.refreshTokenWriter = refreshTokenWriter;
+        this.refreshTokenGenerator = refreshTokenGenerator;
     }
 
     public String issue(Long userId, String provider, Long externalIdentityId) {
+        String key = refreshTokenGenerator.createKey(userId);
         RefreshTokenEntity entity = new RefreshTokenEntity();
-        entity.setUsername(String.valueOf(userId));
-        entity.setRefreshToken(generateTokenValue());
+        entity.setUserId(userId);
+        entity.setTokenDigest(TokenDigest.sha256(key));
         entity.setProvider(provider);
         entity.setExternalIdentityId(externalIdentityId);
         entity.setRevoked(Boolean.FALSE);
-        refreshTokenRepository.save(entity);
-        return entity.getRefreshToken();
-    }
-
-    private String generateTokenValue() {
-        byte[] bytes = new byte[64];
-        secureRandom.nextBytes(bytes);
-        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenWriter.write(entity);
+        return refreshTokenGenerator.sign(key);
     }
 }
 
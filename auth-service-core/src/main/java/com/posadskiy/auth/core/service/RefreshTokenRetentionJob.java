@@ -0,0 +1,151 @@
+package com.posadskiy.auth.core.service;
+
+import com.posadskiy.auth.core.property.RefreshTokenExpiryConfigurationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.data.connection.ConnectionOperations;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the daily {@code refresh_token} partitions created ahead of time and removes the ones whose
+ * every token is past its idle timeout: detached concurrently, so writers are never blocked, then
+ * dropped whole. No row is ever deleted one by one.
+ *
+ * <p>There is no default partition, so inserts start failing once the last partition created is in
+ * the past. Creation therefore always runs, in its own step; {@code retention-enabled} only turns
+ * off dropping. {@code auth.refresh.token.partitions.days.ahead} is what to alert on.
+ */
+@Singleton
+public class RefreshTokenRetentionJob {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RefreshTokenRetentionJob.class);
+
+    private final ConnectionOperations<Connection> connectionOperations;
+    private final RefreshTokenExpiryConfigurationProperties configuration;
+    private final Counter droppedCounter;
+    // exclusive upper bound of the newest partition, in epoch seconds; MIN_VALUE until first read
+    private final AtomicLong partitionedUntil = new AtomicLong(Long.MIN_VALUE);
+
+    public RefreshTokenRetentionJob(
+            ConnectionOperations<Connection> connectionOperations,
+            RefreshTokenExpiryConfigurationProperties configuration,
+            MeterRegistry meterRegistry) {
+        this.connectionOperations = connectionOperations;
+        this.configuration = configuration;
+        this.droppedCounter = Counter.builder("auth.refresh.token.partitions.dropped")
+                .description("Expired refresh token partitions detached and dropped")
+                .register(meterRegistry);
+        Gauge.builder("auth.refresh.token.partitions.days.ahead", this, job -> job.daysAhead(Instant.now()))
+                .description("Days past now covered by refresh token partitions; inserts fail at zero")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            fixedDelay = "${auth.refresh-token.retention-interval:1h}",
+            initialDelay = "${auth.refresh-token.retention-initial-delay:1m}")
+    void run() {
+        // a failed drop must not hold back creation, nor the other way round
+        execute("creation", this::createPartitions);
+        if (configuration.isRetentionEnabled()) {
+            execute("retention", this::dropExpiredPartitions);
+        }
+    }
+
+    private void execute(String step, MaintenanceStep maintenance) {
+        try {
+            connectionOperations.executeWrite(status -> {
+                try {
+                    maintenance.run(status.getConnection());
+                    return null;
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            LOG.warn("Refresh token partition {} failed, retrying on the next run", step, e);
+        }
+    }
+
+    void createPartitions(Connection connection) throws SQLException {
+        try (PreparedStatement create = connection.prepareStatement("SELECT refresh_token_create_partitions(?)")) {
+            create.setInt(1, configuration.getPartitionsAhead());
+            try (ResultSet created = create.executeQuery()) {
+                if (created.next() && created.getInt(1) > 0) {
+                    LOG.info("Created {} refresh token partitions", created.getInt(1));
+                }
+            }
+        }
+        try (PreparedStatement select =
+                        connection.prepareStatement("SELECT max(upper_bound) FROM refresh_token_partitions()");
+                ResultSet newest = select.executeQuery()) {
+            Timestamp upperBound = newest.next() ? newest.getTimestamp(1) : null;
+            if (upperBound != null) {
+                partitionedUntil.set(upperBound.toInstant().getEpochSecond());
+            }
+        }
+        double daysAhead = daysAhead(Instant.now());
+        if (daysAhead < 2) {
+            LOG.warn("Refresh token partitions only cover the next {} days", String.format("%.1f", daysAhead));
+        }
+    }
+
+    /** Days from {@code now} to the end of the newest partition, NaN before it was first read. */
+    double daysAhead(Instant now) {
+        long until = partitionedUntil.get();
+        return until == Long.MIN_VALUE ? Double.NaN : (until - now.getEpochSecond()) / 86_400d;
+    }
+
+    void dropExpiredPartitions(Connection connection) throws SQLException {
+        // A token expires at most the idle timeout after it was issued, so once a partition's upper
+        // bound is that far in the past nothing in it can be redeemed or matter for reuse detection.
+        Instant horizon = Instant.now().minus(configuration.getIdleTimeout());
+        for (ExpiredPartition partition : expiredPartitions(connection, horizon)) {
+            try (Statement statement = connection.createStatement()) {
+                // CONCURRENTLY commits in steps and cannot run in a transaction block; a detach that
+                // was interrupted is left pending and only needs finalizing.
+                statement.execute("ALTER TABLE refresh_token DETACH PARTITION " + partition.quotedName()
+                        + (partition.detachPending() ? " FINALIZE" : " CONCURRENTLY"));
+                statement.execute("DROP TABLE " + partition.quotedName());
+            }
+            droppedCounter.increment();
+            LOG.info("Dropped expired refresh token partition {}", partition.name());
+        }
+    }
+
+    private static List<ExpiredPartition> expiredPartitions(Connection connection, Instant horizon)
+            throws SQLException {
+        List<ExpiredPartition> partitions = new ArrayList<>();
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT partition_name, quote_ident(partition_name), detach_pending FROM refresh_token_partitions()"
+                        + " WHERE upper_bound <= ? ORDER BY upper_bound")) {
+            select.setTimestamp(1, Timestamp.from(horizon));
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    partitions.add(new ExpiredPartition(rows.getString(1), rows.getString(2), rows.getBoolean(3)));
+                }
+            }
+        }
+        return partitions;
+    }
+
+    @FunctionalInterface
+    private interface MaintenanceStep {
+        void run(Connection connection) throws SQLException;
+    }
+
+    private record ExpiredPartition(String name, String quotedName, boolean detachPending) {}
+}
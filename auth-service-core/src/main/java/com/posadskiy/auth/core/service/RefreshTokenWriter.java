@@ -0,0 +1,243 @@
+package com.posadskiy.auth.core.service;
+
+import com.posadskiy.auth.core.property.RefreshTokenExpiryConfigurationProperties;
+import com.posadskiy.auth.core.property.RefreshTokenWriteConfigurationProperties;
+import com.posadskiy.auth.core.storage.db.RefreshTokenRepository;
+import com.posadskiy.auth.core.storage.db.entity.RefreshTokenEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.exceptions.DataAccessException;
+import io.micronaut.transaction.TransactionOperations;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Group commit for new refresh tokens. Inserts from concurrent logins are collected by one writer
+ * thread for up to {@code max-batch-size} rows or {@code max-delay}, and go to the database as a
+ * single JDBC batch in one transaction. {@link #write} returns only once the transaction holding
+ * its row has committed, so a token is never handed out before it is durable.
+ *
+ * <p>Each insert also revokes the user's oldest live tokens beyond {@code max-sessions}, in the same
+ * statement, so a user or a misbehaving client cannot pile up sessions without bound.
+ *
+ * <p>When the queue is full, or batching is disabled, the row is inserted on the caller's thread.
+ */
+@Singleton
+public class RefreshTokenWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RefreshTokenWriter.class);
+
+    static final String INSERT_SQL = "INSERT INTO refresh_token"
+            + " (user_id, token_digest, revoked, provider, external_identity_id, family_id)"
+            + " VALUES (?, ?, ?, ?, ?, ?)";
+
+    // The new row is not visible to the UPDATE in the same statement, so the newest max-sessions - 1
+    // live tokens are kept besides it. Tokens past the idle timeout are dead already and left alone.
+    static final String CAPPED_INSERT_SQL = "WITH issued AS (" + INSERT_SQL + ")"
+            + " UPDATE refresh_token t SET revoked = TRUE"
+            + " FROM (SELECT id, date_created FROM refresh_token"
+            + " WHERE user_id = ? AND NOT revoked AND date_created >= ?"
+            + " ORDER BY date_created DESC, id DESC OFFSET ?) evicted"
+            + " WHERE t.id = evicted.id AND t.date_created = evicted.date_created";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionOperations<Connection> transactionOperations;
+    private final int maxSessions;
+    private final Duration idleTimeout;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Duration timeout;
+    private final BlockingQueue<PendingWrite> queue;
+    private final Thread writerThread;
+    private final DistributionSummary batchSize;
+    private final Timer commitWaitTimer;
+    private final Counter directCounter;
+    private volatile boolean running = true;
+
+    public RefreshTokenWriter(
+            RefreshTokenRepository refreshTokenRepository,
+            @Nullable TransactionOperations<Connection> transactionOperations,
+            RefreshTokenWriteConfigurationProperties configuration,
+            RefreshTokenExpiryConfigurationProperties expiryConfiguration,
+            MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionOperations = transactionOperations;
+        this.maxSessions = expiryConfiguration.getMaxSessions();
+        this.idleTimeout = expiryConfiguration.getIdleTimeout();
+        this.maxBatchSize = Math.max(1, configuration.getMaxBatchSize());
+        this.maxDelayNanos = configuration.getMaxDelay().toNanos();
+        this.timeout = configuration.getTimeout();
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, configuration.getQueueCapacity()));
+
+        this.batchSize = DistributionSummary.builder("auth.refresh.token.write.batch.size")
+                .description("Refresh tokens inserted per commit")
+                .register(meterRegistry);
+        this.commitWaitTimer = Timer.builder("auth.refresh.token.write.wait")
+                .description("Time a refresh token insert waited for its batch to commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.directCounter = Counter.builder("auth.refresh.token.write.direct")
+                .description("Refresh tokens inserted on the caller's thread instead of a batch")
+                .register(meterRegistry);
+
+        if (configuration.isBatchEnabled() && transactionOperations != null) {
+            this.writerThread = Thread.ofPlatform()
+                    .name("refresh-token-writer")
+                    .daemon(true)
+                    .start(this::run);
+        } else {
+            this.writerThread = null;
+        }
+    }
+
+    /** Inserts the token row and returns once it has committed. */
+    public void write(RefreshTokenEntity entity) {
+        PendingWrite pending = new PendingWrite(entity, new CompletableFuture<>(), System.nanoTime());
+        if (writerThread == null || !running || !queue.offer(pending)) {
+            directCounter.increment();
+            if (transactionOperations == null) {
+                refreshTokenRepository.save(entity);
+            } else {
+                transactionOperations.executeWrite(status -> {
+                    insert(status.getConnection(), List.of(pending));
+                    return null;
+                });
+            }
+            return;
+        }
+        try {
+            pending.committed().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new DataAccessException("Refresh token insert did not commit within " + timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted while waiting for the refresh token insert");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new DataAccessException("Refresh token insert failed", e.getCause());
+        }
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingWrite next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // shutting down: whatever was collected is still flushed below
+            }
+            flush(batch);
+            batch.clear();
+        }
+        queue.drainTo(batch);
+        flush(batch);
+    }
+
+    void flush(List<PendingWrite> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionOperations.executeWrite(status -> {
+                insert(status.getConnection(), batch);
+                return null;
+            });
+            batchSize.record(batch.size());
+            batch.forEach(this::complete);
+        } catch (Exception e) {
+            // SQLExceptions come through executeWrite unwrapped
+            if (batch.size() == 1) {
+                batch.getFirst()
+                        .committed()
+                        .completeExceptionally(
+                                e instanceof RuntimeException
+                                        ? e
+                                        : new DataAccessException("Refresh token insert failed", e));
+                return;
+            }
+            // One bad row, say for a user deleted meanwhile, must not fail everyone else's login.
+            LOG.warn("Refresh token batch of {} failed, retrying row by row", batch.size(), e);
+            for (PendingWrite pending : batch) {
+                flush(List.of(pending));
+            }
+        }
+    }
+
+    private void complete(PendingWrite pending) {
+        commitWaitTimer.record(System.nanoTime() - pending.queuedAt(), TimeUnit.NANOSECONDS);
+        pending.committed().complete(null);
+    }
+
+    private void insert(Connection connection, List<PendingWrite> batch) throws SQLException {
+        boolean capped = maxSessions > 0;
+        Timestamp liveSince = Timestamp.from(Instant.now().minus(idleTimeout));
+        try (PreparedStatement insert = connection.prepareStatement(capped ? CAPPED_INSERT_SQL : INSERT_SQL)) {
+            for (PendingWrite pending : batch) {
+                RefreshTokenEntity entity = pending.entity();
+                insert.setLong(1, entity.getUserId());
+                insert.setBytes(2, entity.getTokenDigest());
+                insert.setBoolean(3, Boolean.TRUE.equals(entity.getRevoked()));
+                setNullable(insert, 4, entity.getProvider(), Types.VARCHAR);
+                setNullable(insert, 5, entity.getExternalIdentityId(), Types.BIGINT);
+                setNullable(insert, 6, entity.getFamilyId(), Types.BIGINT);
+                if (capped) {
+                    insert.setLong(7, entity.getUserId());
+                    insert.setTimestamp(8, liveSince);
+                    insert.setInt(9, maxSessions - 1);
+                }
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static void setNullable(PreparedStatement statement, int index, Object value, int sqlType)
+            throws SQLException {
+        if (value == null) {
+            statement.setNull(index, sqlType);
+        } else {
+            statement.setObject(index, value, sqlType);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        if (writerThread != null) {
+            writerThread.interrupt();
+            writerThread.join(timeout.toMillis());
+        }
+    }
+
+    record PendingWrite(RefreshTokenEntity entity, CompletableFuture<Void> committed, long queuedAt) {}
+}
@@ -1,5 +1,6 @@
 package com.posadskiy.auth.core.service;
 
+import com.posadskiy.auth.core.cache.UserCache;
 import com.posadskiy.auth.core.oauth.ExternalProfile;
 import com.posadskiy.auth.core.storage.db.ExternalIdentityRepository;
 import com.posadskiy.auth.core.storage.db.UsersRepository;
@@ -15,14 +16,17 @@ import java.util.Optional;
 public class SocialLoginService {
 
     private final UsersRepository usersRepository;
+    private final UserCache userCache;
     private final ExternalIdentityRepository externalIdentityRepository;
     private final TokenEncryptionService tokenEncryptionService;
 
     public SocialLoginService(
             UsersRepository usersRepository,
+            UserCache userCache,
             ExternalIdentityRepository externalIdentityRepository,
             TokenEncryptionService tokenEncryptionService) {
         this.usersRepository = usersRepository;
+        this.userCache = userCache;
         this.externalIdentityRepository = externalIdentityRepository;
         this.tokenEncryptionService = tokenEncryptionService;
     }
@@ -40,7 +44,7 @@ public class SocialLoginService {
                 existingIdentity.orElseGet(() -> createIdentitySkeleton(profile));
 
         UserEntity user = existingIdentity
-                .map(ei -> usersRepository.findById(ei.getUserId()).orElseThrow())
+                .map(ei -> userCache.findById(ei.getUserId()).orElseThrow())
                 .orElseGet(() -> resolveUserForProfile(profile));
 
         identity.setUserId(user.getId());
@@ -63,14 +67,10 @@ public class SocialLoginService {
             externalIdentityRepository.save(identity);
         }
 
-        user.setLastLoginAt(LocalDateTime.now());
-        if (profile.emailVerified()) {
-            user.setEmailVerified(Boolean.TRUE);
-        }
-        if (StringUtils.isNotEmpty(profile.pictureUrl())) {
-            user.setPictureUrl(profile.pictureUrl());
-        }
-        usersRepository.update(user);
+        user = userCache.update(user, u -> {
+            u.setLastLoginAt(LocalDateTime.now());
+            applyProfile(u, profile);
+        });
 
         return new SocialLoginResult(user, identity);
     }
@@ -83,20 +83,17 @@ public class SocialLoginService {
     }
 
     private UserEntity resolveUserForProfile(ExternalProfile profile) {
-        return usersRepository
-                .findByEmail(profile.email())
-                .map(existing -> updateExistingUser(existing, profile))
-                .orElseGet(() -> createUserFromProfile(profile));
+        // Profile changes for an existing user are written by the single update in handle()
+        return userCache.findByEmail(profile.email()).orElseGet(() -> createUserFromProfile(profile));
     }
 
-    private UserEntity updateExistingUser(UserEntity user, ExternalProfile profile) {
+    private void applyProfile(UserEntity user, ExternalProfile profile) {
         if (profile.emailVerified()) {
             user.setEmailVerified(Boolean.TRUE);
         }
         if (StringUtils.isNotEmpty(profile.pictureUrl())) {
             user.setPictureUrl(profile.pictureUrl());
         }
-        return usersRepository.update(user);
     }
 
     private UserEntity createUserFromProfile(ExternalProfile profile) {
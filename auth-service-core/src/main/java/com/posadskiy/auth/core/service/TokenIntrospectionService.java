@@ -0,0 +1,175 @@
+package com.posadskiy.auth.core.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.posadskiy.auth.core.EnvelopeRefreshTokenGenerator;
+import com.posadskiy.auth.core.EnvelopeRefreshTokenGenerator.Envelope;
+import com.posadskiy.auth.core.SocialAuthConstants;
+import com.posadskiy.auth.core.cache.RefreshTokenCache;
+import com.posadskiy.auth.core.jwk.AccessTokenVerifier;
+import com.posadskiy.auth.core.jwk.AccessTokenVerifier.Verification;
+import com.posadskiy.auth.core.property.TokenIntrospectionCacheConfigurationProperties;
+import com.posadskiy.auth.core.storage.db.RefreshTokenRepository;
+import com.posadskiy.auth.core.utils.TokenDigest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micronaut.core.annotation.Nullable;
+import jakarta.inject.Singleton;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token introspection (RFC 7662) for services that cannot verify tokens themselves.
+ *
+ * <p>Access tokens are verified against the signing keys once and then answered from a bounded LRU
+ * keyed by the token's SHA-256 digest, each entry expiring with the token it describes. Only active
+ * answers are cached, so an entry never outlives the token and nothing else needs invalidating.
+ *
+ * <p>Refresh tokens can be revoked at any time, by any instance: after the envelope's MAC and expiry
+ * are checked, only a family revocation the {@link RefreshTokenCache} knows of is answered from
+ * memory, and anything else is read from the database.
+ */
+@Singleton
+public class TokenIntrospectionService {
+
+    public static final String ACCESS_TOKEN = "access_token";
+    public static final String REFRESH_TOKEN = "refresh_token";
+
+    // matches the window refresh_token_rotate searches around a token's issue time
+    private static final Duration ISSUE_TIME_SKEW = Duration.ofHours(1);
+
+    private final AccessTokenVerifier accessTokenVerifier;
+    private final EnvelopeRefreshTokenGenerator refreshTokenGenerator;
+    private final RefreshTokenCache refreshTokenCache;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Cache<ByteBuffer, Introspection> accessTokens;
+
+    public TokenIntrospectionService(
+            AccessTokenVerifier accessTokenVerifier,
+            EnvelopeRefreshTokenGenerator refreshTokenGenerator,
+            RefreshTokenCache refreshTokenCache,
+            RefreshTokenRepository refreshTokenRepository,
+            TokenIntrospectionCacheConfigurationProperties configuration,
+            MeterRegistry meterRegistry) {
+        this.accessTokenVerifier = accessTokenVerifier;
+        this.refreshTokenGenerator = refreshTokenGenerator;
+        this.refreshTokenCache = refreshTokenCache;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.accessTokens = Caffeine.newBuilder()
+                .maximumSize(configuration.getMaximumSize())
+                .expireAfter(new UntilTokenExpires())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, accessTokens, "introspection");
+    }
+
+    /**
+     * What {@code token} is, told apart by its shape: a JWS has two dots, a refresh envelope one. The
+     * {@code token_type_hint} is not needed for that and is ignored, as RFC 7662 allows.
+     */
+    public Introspection introspect(@Nullable String token) {
+        if (token == null || token.isEmpty()) {
+            return Introspection.INACTIVE;
+        }
+        int firstDot = token.indexOf('.');
+        if (firstDot > 0 && token.indexOf('.', firstDot + 1) > 0) {
+            return introspectAccessToken(token);
+        }
+        return introspectRefreshToken(token);
+    }
+
+    private Introspection introspectAccessToken(String token) {
+        Instant now = Instant.now();
+        ByteBuffer digest = ByteBuffer.wrap(TokenDigest.sha256(token));
+        Introspection cached = accessTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+        Verification verification = accessTokenVerifier.verify(token, now);
+        if (!verification.valid()) {
+            return Introspection.INACTIVE;
+        }
+        JWTClaimsSet claims = verification.claims();
+        Introspection introspection = new Introspection(
+                true,
+                ACCESS_TOKEN,
+                claims.getSubject(),
+                stringClaim(claims, SocialAuthConstants.CLAIM_CLIENT_ID),
+                stringClaim(claims, SocialAuthConstants.CLAIM_SCOPE),
+                claims.getIssuer(),
+                claims.getJWTID(),
+                claims.getIssueTime() == null ? null : claims.getIssueTime().toInstant(),
+                claims.getExpirationTime().toInstant());
+        accessTokens.put(digest, introspection);
+        return introspection;
+    }
+
+    private Introspection introspectRefreshToken(String token) {
+        Optional<String> key = refreshTokenGenerator.validate(token);
+        if (key.isEmpty()) {
+            return Introspection.INACTIVE;
+        }
+        Envelope envelope = refreshTokenGenerator.open(key.get()).orElseThrow();
+        if (refreshTokenCache.isRevoked(envelope.userId(), envelope.authenticatedAt())
+                || !refreshTokenRepository.isLive(
+                        TokenDigest.sha256(key.get()),
+                        envelope.issuedAt().minus(ISSUE_TIME_SKEW),
+                        envelope.issuedAt().plus(ISSUE_TIME_SKEW))) {
+            return Introspection.INACTIVE;
+        }
+        return new Introspection(
+                true,
+                REFRESH_TOKEN,
+                String.valueOf(envelope.userId()),
+                null,
+                null,
+                null,
+                null,
+                envelope.issuedAt(),
+                envelope.expiresAt());
+    }
+
+    private static String stringClaim(JWTClaimsSet claims, String name) {
+        return claims.getClaim(name) instanceof String value ? value : null;
+    }
+
+    /** RFC 7662 section 2.2 fields; everything but {@code active} is null for an inactive token. */
+    public record Introspection(
+            boolean active,
+            @Nullable String tokenType,
+            @Nullable String subject,
+            @Nullable String clientId,
+            @Nullable String scope,
+            @Nullable String issuer,
+            @Nullable String tokenId,
+            @Nullable Instant issuedAt,
+            @Nullable Instant expiresAt) {
+
+        public static final Introspection INACTIVE =
+                new Introspection(false, null, null, null, null, null, null, null, null);
+    }
+
+    private static final class UntilTokenExpires implements Expiry<ByteBuffer, Introspection> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Introspection value, long currentTime) {
+            long seconds = Duration.between(Instant.now(), value.expiresAt()).getSeconds();
+            return TimeUnit.SECONDS.toNanos(Math.max(0, seconds));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Introspection value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Introspection value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -3,14 +3,43 @@ package com.posadskiy.auth.core.storage.db;
 import static io.micronaut.data.model.query.builder.sql.Dialect.POSTGRES;
 
 import com.posadskiy.auth.core.storage.db.entity.RefreshTokenEntity;
+import com.posadskiy.auth.core.storage.db.projection.RefreshTokenRotation;
 import io.micronaut.core.annotation.NonNull;
+import io.micronaut.data.annotation.Query;
 import io.micronaut.data.jdbc.annotation.JdbcRepository;
 import io.micronaut.data.repository.CrudRepository;
-import jakarta.validation.constraints.NotBlank;
+import java.time.Instant;
 import java.util.Optional;
 
 @JdbcRepository(dialect = POSTGRES)
 public interface RefreshTokenRepository extends CrudRepository<RefreshTokenEntity, Long> {
 
-    Optional<RefreshTokenEntity> findByRefreshToken(@NonNull @NotBlank String refreshToken);
+    Optional<RefreshTokenEntity> findByTokenDigest(@NonNull byte[] tokenDigest);
+
+    long countByUserIdAndRevokedFalse(@NonNull Long userId);
+
+    /** Revokes every live refresh token of the user, i.e. logs them out everywhere. */
+    @Query("UPDATE refresh_token SET revoked = TRUE WHERE user_id = :userId AND revoked = FALSE")
+    long revokeAllByUserId(@NonNull Long userId);
+
+    /**
+     * Whether the token is stored and not revoked. Like the rotation, the lookup is bounded by the
+     * token's issue time so it only probes the partitions around it.
+     */
+    @Query("SELECT EXISTS (SELECT 1 FROM refresh_token WHERE token_digest = :tokenDigest AND NOT revoked"
+            + " AND date_created >= :issuedFrom AND date_created < :issuedUntil)")
+    boolean isLive(@NonNull byte[] tokenDigest, @NonNull Instant issuedFrom, @NonNull Instant issuedUntil);
+
+    /**
+     * Spends a refresh token and registers its successor in the same family, or revokes the family
+     * when the token was already spent, in one round trip through {@code refresh_token_rotate}. The
+     * issue time narrows the lookup to the partitions around it. The same round trip returns the
+     * profile and social identity needed to sign the refreshed access token. Redemptions within a
+     * family queue on an advisory lock, so a reuse also revokes a successor that a concurrent
+     * redemption has just committed. Empty when the digest is unknown.
+     */
+    @Query("SELECT user_id, rotated, email, email_verified, picture_url, provider, provider_user_id"
+            + " FROM refresh_token_rotate(:presentedDigest, :presentedIssuedAt, :successorDigest)")
+    Optional<RefreshTokenRotation> rotate(
+            @NonNull byte[] presentedDigest, @NonNull Instant presentedIssuedAt, @NonNull byte[] successorDigest);
 }
@@ -0,0 +1,30 @@
+package com.posadskiy.auth.core.storage.db;
+
+import static io.micronaut.data.model.query.builder.sql.Dialect.POSTGRES;
+
+import com.posadskiy.auth.core.storage.db.entity.SigningKeyEntity;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.data.annotation.Query;
+import io.micronaut.data.jdbc.annotation.JdbcRepository;
+import io.micronaut.data.repository.CrudRepository;
+import java.time.Instant;
+import java.util.List;
+
+@JdbcRepository(dialect = POSTGRES)
+public interface SigningKeyRepository extends CrudRepository<SigningKeyEntity, String> {
+
+    List<SigningKeyEntity> findByActivatesAtGreaterThanEqualsOrderByActivatesAt(@NonNull Instant activatesAt);
+
+    /** Keeps whichever key reached the slot first when instances rotate at the same time. */
+    @Query("INSERT INTO signing_key (kid, algorithm, activates_at, public_key, private_key)"
+            + " VALUES (:kid, :algorithm, :activatesAt, :publicKey, :privateKey)"
+            + " ON CONFLICT DO NOTHING")
+    void insertIfSlotFree(
+            @NonNull String kid,
+            @NonNull String algorithm,
+            @NonNull Instant activatesAt,
+            @NonNull byte[] publicKey,
+            @NonNull byte[] privateKey);
+
+    void deleteByActivatesAtLessThan(@NonNull Instant activatesAt);
+}
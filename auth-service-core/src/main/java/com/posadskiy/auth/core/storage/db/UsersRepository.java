@@ -3,10 +3,14 @@ package com.posadskiy.auth.core.storage.db;
 import static io.micronaut.data.model.query.builder.sql.Dialect.POSTGRES;
 
 import com.posadskiy.auth.core.storage.db.entity.UserEntity;
+import com.posadskiy.auth.core.storage.db.projection.UserCredentialProjection;
+import com.posadskiy.auth.core.storage.db.projection.UserEmailProjection;
 import io.micronaut.core.annotation.NonNull;
+import io.micronaut.data.annotation.Query;
 import io.micronaut.data.jdbc.annotation.JdbcRepository;
 import io.micronaut.data.repository.CrudRepository;
 import jakarta.validation.constraints.NotBlank;
+import java.util.List;
 import java.util.Optional;
 
 @JdbcRepository(dialect = POSTGRES)
@@ -14,7 +18,36 @@ public interface UsersRepository extends CrudRepository<UserEntity, Long> {
 
     Optional<UserEntity> findByUsername(@NonNull @NotBlank String username);
 
+    /**
+     * Case-insensitive, one probe of {@code users_email_normalized_key}. The parameter is normalized
+     * with the same expression the {@code users_normalize_email} trigger uses.
+     */
+    @Query("SELECT * FROM users WHERE email_normalized = lower(btrim(:email))")
     Optional<UserEntity> findByEmail(@NonNull @NotBlank String email);
 
+    @Query("SELECT * FROM users WHERE email_normalized = lower(btrim(:email)) OR username = :username")
     Optional<UserEntity> findByEmailOrUsername(@NonNull @NotBlank String email, @NonNull @NotBlank String username);
+
+    /**
+     * Only what a password login needs, all of it in
+     * {@code idx_users_active_email_normalized_credentials}, so the lookup is an index-only scan.
+     * Active users only, which is why {@code active} itself is not read.
+     */
+    @Query("SELECT id, password_hash FROM users WHERE email_normalized = lower(btrim(:email)) AND active = TRUE")
+    Optional<UserCredentialProjection> findCredentialsByEmail(@NonNull @NotBlank String email);
+
+    /**
+     * Keyset page of active users' emails ordered by id, so large tables are streamed without
+     * holding a connection for the whole scan.
+     */
+    @Query("SELECT id, email FROM users WHERE id > :afterId AND active = TRUE ORDER BY id LIMIT :limit")
+    List<UserEmailProjection> findEmailsAfter(long afterId, int limit);
+
+    /**
+     * Replaces the hash only if it is still the one that was verified, so a password changed in the
+     * meantime is never overwritten by a rehash of the old one.
+     */
+    @Query("UPDATE users SET password_hash = :newPasswordHash, version = version + 1 "
+            + "WHERE id = :id AND password_hash = :currentPasswordHash")
+    long updatePasswordHash(@NonNull Long id, @NonNull String currentPasswordHash, @NonNull String newPasswordHash);
 }
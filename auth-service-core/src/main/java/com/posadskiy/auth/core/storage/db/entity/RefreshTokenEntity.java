@@ -6,7 +6,6 @@ import io.micronaut.data.annotation.GeneratedValue;
 import io.micronaut.data.annotation.Id;
 import io.micronaut.data.annotation.MappedEntity;
 import io.micronaut.data.annotation.MappedProperty;
-import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 import lombok.Data;
@@ -21,12 +20,14 @@ public class RefreshTokenEntity {
     private Long id;
 
     @NonNull
-    @NotBlank
-    private String username;
+    @NotNull
+    @MappedProperty("user_id")
+    private Long userId;
 
     @NonNull
-    @NotBlank
-    private String refreshToken;
+    @NotNull
+    @MappedProperty("token_digest")
+    private byte[] tokenDigest;
 
     @MappedProperty("provider")
     private String provider;
@@ -34,6 +35,9 @@ public class RefreshTokenEntity {
     @MappedProperty("external_identity_id")
     private Long externalIdentityId;
 
+    @MappedProperty("family_id")
+    private Long familyId;
+
     @NonNull
     @NotNull
     private Boolean revoked;
@@ -51,20 +55,20 @@ public class RefreshTokenEntity {
         this.id = id;
     }
 
-    public @NonNull @NotBlank String getUsername() {
-        return username;
+    public @NonNull @NotNull Long getUserId() {
+        return userId;
     }
 
-    public void setUsername(@NonNull @NotBlank String username) {
-        this.username = username;
+    public void setUserId(@NonNull @NotNull Long userId) {
+        this.userId = userId;
     }
 
-    public @NonNull @NotBlank String getRefreshToken() {
-        return refreshToken;
+    public @NonNull @NotNull byte[] getTokenDigest() {
+        return tokenDigest;
     }
 
-    public void setRefreshToken(@NonNull @NotBlank String refreshToken) {
-        this.refreshToken = refreshToken;
+    public void setTokenDigest(@NonNull @NotNull byte[] tokenDigest) {
+        this.tokenDigest = tokenDigest;
     }
 
     public String getProvider() {
@@ -83,6 +87,14 @@ public class RefreshTokenEntity {
         this.externalIdentityId = externalIdentityId;
     }
 
+    public Long getFamilyId() {
+        return familyId;
+    }
+
+    public void setFamilyId(Long familyId) {
+        this.familyId = familyId;
+    }
+
     public @NonNull @NotNull Boolean getRevoked() {
         return revoked;
     }
@@ -0,0 +1,78 @@
+package com.posadskiy.auth.core.storage.db.entity;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.data.annotation.Id;
+import io.micronaut.data.annotation.MappedEntity;
+import io.micronaut.data.annotation.MappedProperty;
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+
+@MappedEntity("signing_key")
+public class SigningKeyEntity {
+
+    @Id
+    @NonNull
+    @NotNull
+    private String kid;
+
+    @NonNull
+    @NotNull
+    private String algorithm;
+
+    @NonNull
+    @NotNull
+    @MappedProperty("activates_at")
+    private Instant activatesAt;
+
+    /** X.509 SubjectPublicKeyInfo. */
+    @NonNull
+    @NotNull
+    @MappedProperty("public_key")
+    private byte[] publicKey;
+
+    /** PKCS#8, encrypted with the key encryption secret. */
+    @NonNull
+    @NotNull
+    @MappedProperty("private_key")
+    private byte[] privateKey;
+
+    public String getKid() {
+        return kid;
+    }
+
+    public void setKid(String kid) {
+        this.kid = kid;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public Instant getActivatesAt() {
+        return activatesAt;
+    }
+
+    public void setActivatesAt(Instant activatesAt) {
+        this.activatesAt = activatesAt;
+    }
+
+    public byte[] getPublicKey() {
+        return publicKey;
+    }
+
+    public void setPublicKey(byte[] publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    public byte[] getPrivateKey() {
+        return privateKey;
+    }
+
+    public void setPrivateKey(byte[] privateKey) {
+        this.privateKey = privateKey;
+    }
+}
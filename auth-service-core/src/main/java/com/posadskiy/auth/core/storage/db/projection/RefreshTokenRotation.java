@@ -0,0 +1,19 @@
+package com.posadskiy.auth.core.storage.db.projection;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.core.annotation.Nullable;
+
+/**
+ * Outcome of {@code RefreshTokenRepository.rotate}: whose token it was, and whether it was live and got
+ * a successor ({@code rotated}) or had already been used, which revokes its whole family. Also carries
+ * the user's profile and, for sessions opened through a social login, the identity they came from.
+ */
+@Introspected
+public record RefreshTokenRotation(
+        Long userId,
+        boolean rotated,
+        @Nullable String email,
+        @Nullable Boolean emailVerified,
+        @Nullable String pictureUrl,
+        @Nullable String provider,
+        @Nullable String providerUserId) {}
@@ -0,0 +1,6 @@
+package com.posadskiy.auth.core.storage.db.projection;
+
+import io.micronaut.core.annotation.Introspected;
+
+@Introspected
+public record UserCredentialProjection(Long id, String passwordHash) {}
@@ -0,0 +1,42 @@
+package com.posadskiy.auth.core.storage.r2dbc;
+
+import com.posadskiy.auth.core.property.RefreshTokenR2dbcConfigurationProperties;
+import io.micronaut.context.annotation.Bean;
+import io.micronaut.context.annotation.Factory;
+import io.micronaut.context.annotation.Requires;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+/**
+ * The connection pool of the R2DBC refresh token store. It is separate from the JDBC data source,
+ * which keeps serving everything else.
+ */
+@Factory
+@Requires(property = "auth.refresh-token.store", value = "r2dbc")
+public class RefreshTokenR2dbcFactory {
+
+    @Singleton
+    @Named("refresh-token")
+    @Bean(preDestroy = "dispose")
+    ConnectionPool refreshTokenConnectionPool(RefreshTokenR2dbcConfigurationProperties configuration) {
+        ConnectionFactoryOptions.Builder options =
+                ConnectionFactoryOptions.parse(configuration.getUrl()).mutate();
+        if (configuration.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, configuration.getUsername());
+        }
+        if (configuration.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, configuration.getPassword());
+        }
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .name("refresh-token")
+                .initialSize(configuration.getInitialSize())
+                .maxSize(configuration.getMaxSize())
+                .maxAcquireTime(configuration.getMaxAcquireTime())
+                .maxIdleTime(configuration.getMaxIdleTime())
+                .build());
+    }
+}
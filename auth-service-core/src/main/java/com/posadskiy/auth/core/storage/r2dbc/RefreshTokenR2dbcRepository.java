@@ -0,0 +1,56 @@
+package com.posadskiy.auth.core.storage.r2dbc;
+
+import com.posadskiy.auth.core.storage.db.projection.RefreshTokenRotation;
+import io.micronaut.context.annotation.Requires;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import java.time.Instant;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@code RefreshTokenRepository.rotate}, on the R2DBC PostgreSQL driver.
+ * Nothing waits on a socket: the query is written and its row read on the driver's own event loop.
+ */
+@Singleton
+@Requires(property = "auth.refresh-token.store", value = "r2dbc")
+public class RefreshTokenR2dbcRepository {
+
+    static final String ROTATE_SQL = "SELECT user_id, rotated, email, email_verified, picture_url, provider,"
+            + " provider_user_id FROM refresh_token_rotate($1, $2, $3)";
+
+    private final ConnectionPool connectionPool;
+
+    public RefreshTokenR2dbcRepository(@Named("refresh-token") ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    /** See {@code RefreshTokenRepository.rotate}. Empty when the digest is unknown. */
+    public Mono<RefreshTokenRotation> rotate(byte[] presentedDigest, Instant presentedIssuedAt, byte[] successorDigest) {
+        return Mono.usingWhen(
+                connectionPool.create(),
+                connection -> rotate(connection, presentedDigest, presentedIssuedAt, successorDigest),
+                Connection::close);
+    }
+
+    private static Mono<RefreshTokenRotation> rotate(
+            Connection connection, byte[] presentedDigest, Instant presentedIssuedAt, byte[] successorDigest) {
+        return Flux.from(connection
+                        .createStatement(ROTATE_SQL)
+                        .bind(0, presentedDigest)
+                        .bind(1, presentedIssuedAt)
+                        .bind(2, successorDigest)
+                        .execute())
+                .flatMap(result -> result.map((row, metadata) -> new RefreshTokenRotation(
+                        row.get("user_id", Long.class),
+                        Boolean.TRUE.equals(row.get("rotated", Boolean.class)),
+                        row.get("email", String.class),
+                        row.get("email_verified", Boolean.class),
+                        row.get("picture_url", String.class),
+                        row.get("provider", String.class),
+                        row.get("provider_user_id", String.class))))
+                .singleOrEmpty();
+    }
+}
@@ -0,0 +1,28 @@
+package com.posadskiy.auth.core.utils;
+
+import java.util.Locale;
+
+/**
+ * Java side of {@code lower(btrim(email))}, the expression behind {@code users.email_normalized}.
+ * {@code btrim} strips spaces only, so tabs and other control characters are kept, unlike
+ * {@link String#trim()}.
+ */
+public final class EmailNormalizer {
+
+    private EmailNormalizer() {}
+
+    public static String normalize(String email) {
+        if (email == null) {
+            return null;
+        }
+        int from = 0;
+        int to = email.length();
+        while (from < to && email.charAt(from) == ' ') {
+            from++;
+        }
+        while (to > from && email.charAt(to - 1) == ' ') {
+            to--;
+        }
+        return email.substring(from, to).toLowerCase(Locale.ROOT);
+    }
+}
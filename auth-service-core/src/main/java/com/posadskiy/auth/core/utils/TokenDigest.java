@@ -0,0 +1,24 @@
+package com.posadskiy.auth.core.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 of a token's UTF-8 bytes, the form secrets are stored and compared in. Matches
+ * {@code sha256(convert_to(token, 'UTF8'))} on the database side.
+ */
+public final class TokenDigest {
+
+    public static final int LENGTH = 32;
+
+    private TokenDigest() {}
+
+    public static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,20 +1,42 @@
 package com.posadskiy.auth.core;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.posadskiy.auth.core.identity.KnownIdentityFilter;
+import com.posadskiy.auth.core.password.BcryptPasswordHashingEngine;
+import com.posadskiy.auth.core.property.PasswordHashingConfigurationProperties;
+import com.posadskiy.auth.core.property.PasswordVerificationConfigurationProperties;
+import com.posadskiy.auth.core.ratelimit.LoginRateLimiter;
+import com.posadskiy.auth.core.service.PasswordHashingService;
+import com.posadskiy.auth.core.service.PasswordVerificationService;
 import com.posadskiy.auth.core.storage.db.UsersRepository;
-import com.posadskiy.auth.core.storage.db.entity.UserEntity;
+import com.posadskiy.auth.core.storage.db.projection.UserCredentialProjection;
 import com.posadskiy.auth.core.utils.PasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
 import io.micronaut.security.authentication.AuthenticationResponse;
 import io.micronaut.security.authentication.UsernamePasswordCredentials;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,38 +48,52 @@ class AuthenticationProviderUserPasswordTest {
     @Mock
     private HttpRequest<Object> httpRequest;
 
+    @Mock
+    private KnownIdentityFilter knownIdentityFilter;
+
+    @Mock
+    private LoginRateLimiter loginRateLimiter;
+
+    @Spy
+    private PasswordHashingService passwordHashingService = new PasswordHashingService(
+            List.of(new BcryptPasswordHashingEngine(8, 8)),
+            new PasswordHashingConfigurationProperties(),
+            new SimpleMeterRegistry());
+
+    @Spy
+    private PasswordVerificationService passwordVerificationService = new PasswordVerificationService(
+            passwordHashingService, new PasswordVerificationConfigurationProperties(), new SimpleMeterRegistry());
+
     @InjectMocks
     private AuthenticationProviderUserPassword<Object> authenticationProvider;
 
-    private UserEntity testUser;
+    private UserCredentialProjection testUser;
 
     @BeforeEach
     void setUp() {
-        testUser = new UserEntity();
-        testUser.setId(1L);
-        testUser.setEmail("test@example.com");
-        testUser.setUsername("testuser");
         // Use a real BCrypt hash for "correctpassword"
-        testUser.setPasswordHash(PasswordEncoder.encode("correctpassword"));
+        testUser = new UserCredentialProjection(1L, PasswordEncoder.encode("correctpassword"));
+        lenient().when(knownIdentityFilter.mightContain(anyString())).thenReturn(true);
+        lenient().when(loginRateLimiter.tryAcquire(any(), any())).thenReturn(Duration.ZERO);
     }
 
     @Test
-    void shouldAuthenticateSystemUser() {
+    void shouldNotAuthenticateSystemIdentityWithoutCredentials() {
         // Given
+        when(usersRepository.findCredentialsByEmail("system")).thenReturn(Optional.empty());
         UsernamePasswordCredentials authRequest = new UsernamePasswordCredentials("system", "anypassword");
 
         // When
         AuthenticationResponse response = authenticationProvider.authenticate(httpRequest, authRequest);
 
         // Then
-        assertTrue(response.isAuthenticated());
-        assertEquals("system", response.getAuthentication().get().getName());
+        assertFalse(response.isAuthenticated());
     }
 
     @Test
     void shouldReturnFailureWhenUserNotFound() {
         // Given
-        when(usersRepository.findByEmail("nonexistent@example.com")).thenReturn(Optional.empty());
+        when(usersRepository.findCredentialsByEmail("nonexistent@example.com")).thenReturn(Optional.empty());
         UsernamePasswordCredentials authRequest =
                 new UsernamePasswordCredentials("nonexistent@example.com", "password");
 
@@ -71,7 +107,7 @@ class AuthenticationProviderUserPasswordTest {
     @Test
     void shouldReturnFailureWhenPasswordDoesNotMatch() {
         // Given
-        when(usersRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(usersRepository.findCredentialsByEmail("test@example.com")).thenReturn(Optional.of(testUser));
         UsernamePasswordCredentials authRequest = new UsernamePasswordCredentials("test@example.com", "wrongpassword");
 
         // When
@@ -84,7 +120,7 @@ class AuthenticationProviderUserPasswordTest {
     @Test
     void shouldReturnSuccessWhenCredentialsMatch() {
         // Given
-        when(usersRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(usersRepository.findCredentialsByEmail("test@example.com")).thenReturn(Optional.of(testUser));
         UsernamePasswordCredentials authRequest =
                 new UsernamePasswordCredentials("test@example.com", "correctpassword");
 
@@ -99,7 +135,7 @@ class AuthenticationProviderUserPasswordTest {
     @Test
     void shouldHandleNullHttpRequest() {
         // Given
-        when(usersRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(usersRepository.findCredentialsByEmail("test@example.com")).thenReturn(Optional.of(testUser));
         UsernamePasswordCredentials authRequest =
                 new UsernamePasswordCredentials("test@example.com", "correctpassword");
 
@@ -114,7 +150,7 @@ class AuthenticationProviderUserPasswordTest {
     @Test
     void shouldHandleEmptyPassword() {
         // Given
-        when(usersRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(usersRepository.findCredentialsByEmail("test@example.com")).thenReturn(Optional.of(testUser));
         UsernamePasswordCredentials authRequest = new UsernamePasswordCredentials("test@example.com", "");
 
         // When
@@ -127,7 +163,7 @@ class AuthenticationProviderUserPasswordTest {
     @Test
     void shouldHandleNullPassword() {
         // Given
-        when(usersRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(usersRepository.findCredentialsByEmail("test@example.com")).thenReturn(Optional.of(testUser));
         UsernamePasswordCredentials authRequest = new UsernamePasswordCredentials("test@example.com", null);
 
         // When & Then
@@ -135,4 +171,114 @@ class AuthenticationProviderUserPasswordTest {
             authenticationProvider.authenticate(httpRequest, authRequest);
         });
     }
+
+    @Test
+    void shouldRejectWithoutDatabaseLookupWhenVerifierIsSaturated() {
+        // Given
+        doReturn(true).when(passwordVerificationService).isSaturated();
+        UsernamePasswordCredentials authRequest =
+                new UsernamePasswordCredentials("test@example.com", "correctpassword");
+
+        // When
+        AuthenticationResponse response = authenticationProvider.authenticate(httpRequest, authRequest);
+
+        // Then
+        assertFalse(response.isAuthenticated());
+        AuthenticationThrottled throttled = assertInstanceOf(AuthenticationThrottled.class, response);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, throttled.getStatus());
+        verifyNoInteractions(usersRepository);
+    }
+
+    @Test
+    void shouldUpgradeOutdatedPasswordHashAfterSuccessfulLogin() {
+        // Given
+        String currentHash = testUser.passwordHash();
+        when(usersRepository.findCredentialsByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        doReturn(true).when(passwordHashingService).needsRehash(currentHash);
+        UsernamePasswordCredentials authRequest =
+                new UsernamePasswordCredentials("test@example.com", "correctpassword");
+
+        // When
+        AuthenticationResponse response = authenticationProvider.authenticate(httpRequest, authRequest);
+
+        // Then
+        assertTrue(response.isAuthenticated());
+        verify(usersRepository, timeout(5000)).updatePasswordHash(eq(1L), eq(currentHash), startsWith("$2a$08$"));
+    }
+
+    @Test
+    void shouldNotUpgradeCurrentPasswordHash() {
+        // Given
+        when(usersRepository.findCredentialsByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        UsernamePasswordCredentials authRequest =
+                new UsernamePasswordCredentials("test@example.com", "correctpassword");
+
+        // When
+        AuthenticationResponse response = authenticationProvider.authenticate(httpRequest, authRequest);
+
+        // Then
+        assertTrue(response.isAuthenticated());
+        verify(passwordVerificationService, never()).submit(any());
+    }
+
+    @Test
+    void shouldRejectUnknownIdentityWithoutDatabaseLookup() {
+        // Given
+        when(knownIdentityFilter.mightContain("unknown@example.com")).thenReturn(false);
+        UsernamePasswordCredentials authRequest = new UsernamePasswordCredentials("unknown@example.com", "password");
+
+        // When
+        AuthenticationResponse response = authenticationProvider.authenticate(httpRequest, authRequest);
+
+        // Then
+        assertFalse(response.isAuthenticated());
+        verifyNoInteractions(usersRepository);
+    }
+
+    @Test
+    void shouldCountFalsePositiveWhenTheFilterLetAnUnknownIdentityThrough() {
+        // Given
+        when(usersRepository.findCredentialsByEmail("unknown@example.com")).thenReturn(Optional.empty());
+        UsernamePasswordCredentials authRequest = new UsernamePasswordCredentials("unknown@example.com", "password");
+
+        // When
+        AuthenticationResponse response = authenticationProvider.authenticate(httpRequest, authRequest);
+
+        // Then
+        assertFalse(response.isAuthenticated());
+        verify(knownIdentityFilter).recordFalsePositive();
+    }
+
+    @Test
+    void shouldNotCountFallbackLookupsAsFalsePositives() {
+        // Given
+        when(knownIdentityFilter.mightContain("unknown@example.com")).thenReturn(false);
+        when(knownIdentityFilter.tryMissLookup()).thenReturn(true);
+        when(usersRepository.findCredentialsByEmail("unknown@example.com")).thenReturn(Optional.empty());
+        UsernamePasswordCredentials authRequest = new UsernamePasswordCredentials("unknown@example.com", "password");
+
+        // When
+        AuthenticationResponse response = authenticationProvider.authenticate(httpRequest, authRequest);
+
+        // Then
+        assertFalse(response.isAuthenticated());
+        verify(knownIdentityFilter, never()).recordFalsePositive();
+    }
+
+    @Test
+    void shouldRejectRateLimitedAttemptBeforeAnyCredentialWork() {
+        // Given
+        when(loginRateLimiter.tryAcquire(httpRequest, "test@example.com")).thenReturn(Duration.ofSeconds(3));
+        UsernamePasswordCredentials authRequest =
+                new UsernamePasswordCredentials("test@example.com", "correctpassword");
+
+        // When
+        AuthenticationResponse response = authenticationProvider.authenticate(httpRequest, authRequest);
+
+        // Then
+        AuthenticationThrottled throttled = assertInstanceOf(AuthenticationThrottled.class, response);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, throttled.getStatus());
+        assertEquals(3, throttled.getRetryAfterSeconds());
+        verifyNoInteractions(usersRepository, knownIdentityFilter);
+    }
 }
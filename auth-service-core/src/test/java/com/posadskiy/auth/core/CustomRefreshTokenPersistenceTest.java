@@ -1,19 +1,35 @@
 package com.posadskiy.auth.core;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import com.posadskiy.auth.core.EnvelopeRefreshTokenGenerator.Envelope;
+import com.posadskiy.auth.core.cache.RefreshTokenCache;
+import com.posadskiy.auth.core.property.RefreshTokenCacheConfigurationProperties;
+import com.posadskiy.auth.core.property.RefreshTokenExpiryConfigurationProperties;
+import com.posadskiy.auth.core.service.RefreshTokenWriter;
 import com.posadskiy.auth.core.storage.db.RefreshTokenRepository;
 import com.posadskiy.auth.core.storage.db.entity.RefreshTokenEntity;
+import com.posadskiy.auth.core.storage.db.projection.RefreshTokenRotation;
+import com.posadskiy.auth.core.utils.TokenDigest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.errors.OauthErrorResponseException;
+import io.micronaut.security.token.event.RefreshTokenGeneratedEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
 
 @ExtendWith(MockitoExtension.class)
 class CustomRefreshTokenPersistenceTest {
@@ -21,17 +37,31 @@ class CustomRefreshTokenPersistenceTest {
     @Mock
     private RefreshTokenRepository refreshTokenRepository;
 
-    @InjectMocks
+    @Mock
+    private EnvelopeRefreshTokenGenerator refreshTokenGenerator;
+
+    @Mock
+    private RefreshTokenWriter refreshTokenWriter;
+
+    private SimpleMeterRegistry meterRegistry;
     private CustomRefreshTokenPersistence refreshTokenPersistence;
 
     private RefreshTokenEntity testToken;
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        refreshTokenPersistence = new CustomRefreshTokenPersistence(
+                refreshTokenRepository,
+                refreshTokenGenerator,
+                refreshTokenWriter,
+                new RefreshTokenCache(new RefreshTokenCacheConfigurationProperties(), meterRegistry),
+                new RefreshTokenExpiryConfigurationProperties(),
+                meterRegistry);
         testToken = new RefreshTokenEntity();
         testToken.setId(1L);
-        testToken.setUsername("testuser");
-        testToken.setRefreshToken("test-refresh-token");
+        testToken.setUserId(42L);
+        testToken.setTokenDigest(TokenDigest.sha256("test-refresh-token"));
         testToken.setRevoked(false);
     }
 
@@ -39,7 +69,7 @@ class CustomRefreshTokenPersistenceTest {
     void shouldNotPersistTokenWithNullEvent() {
         // When & Then
         assertDoesNotThrow(() -> refreshTokenPersistence.persistToken(null));
-        verify(refreshTokenRepository, never()).save(any(RefreshTokenEntity.class));
+        verify(refreshTokenWriter, never()).write(any(RefreshTokenEntity.class));
     }
 
     @Test
@@ -51,6 +81,163 @@ class CustomRefreshTokenPersistenceTest {
         assertNotNull(publisher);
     }
 
+    @Test
+    void shouldPersistOnlyTheTokenDigest() {
+        // Given
+        RefreshTokenGeneratedEvent event =
+                new RefreshTokenGeneratedEvent(Authentication.build("42"), "test-refresh-token");
+
+        // When
+        refreshTokenPersistence.persistToken(event);
+
+        // Then
+        ArgumentCaptor<RefreshTokenEntity> saved = ArgumentCaptor.forClass(RefreshTokenEntity.class);
+        verify(refreshTokenWriter).write(saved.capture());
+        assertArrayEquals(
+                TokenDigest.sha256("test-refresh-token"), saved.getValue().getTokenDigest());
+        assertEquals(TokenDigest.LENGTH, saved.getValue().getTokenDigest().length);
+        assertEquals(42L, saved.getValue().getUserId());
+    }
+
+    @Test
+    void shouldNotPersistTokenForNonNumericName() {
+        // Given
+        RefreshTokenGeneratedEvent event =
+                new RefreshTokenGeneratedEvent(Authentication.build("testuser"), "test-refresh-token");
+
+        // When
+        refreshTokenPersistence.persistToken(event);
+
+        // Then
+        verify(refreshTokenWriter, never()).write(any(RefreshTokenEntity.class));
+    }
+
+    @Test
+    void shouldRotateTokenAndCarrySignedSuccessor() {
+        // Given
+        Envelope envelope = envelope(Instant.now().plus(Duration.ofDays(7)));
+        when(refreshTokenGenerator.open("test-refresh-token")).thenReturn(Optional.of(envelope));
+        when(refreshTokenGenerator.createSuccessorKey(envelope)).thenReturn("successor-key");
+        when(refreshTokenGenerator.sign("successor-key")).thenReturn("signed-successor");
+        when(refreshTokenRepository.rotate(
+                        aryEq(TokenDigest.sha256("test-refresh-token")),
+                        eq(envelope.issuedAt()),
+                        aryEq(TokenDigest.sha256("successor-key"))))
+                .thenReturn(Optional.of(new RefreshTokenRotation(42L, true, null, null, null, null, null)));
+
+        // When
+        Authentication authentication = Flux.from(refreshTokenPersistence.getAuthentication("test-refresh-token"))
+                .blockFirst();
+
+        // Then
+        assertNotNull(authentication);
+        assertEquals("42", authentication.getName());
+        assertEquals(
+                "signed-successor", authentication.getAttributes().get(SocialAuthConstants.ATTR_ROTATED_REFRESH_TOKEN));
+        assertEquals(1, authentication.getAttributes().size());
+    }
+
+    @Test
+    void shouldCarryFirstLoginClaimsOfSocialSession() {
+        // Given
+        Envelope envelope = envelope(Instant.now().plus(Duration.ofDays(7)));
+        when(refreshTokenGenerator.open("test-refresh-token")).thenReturn(Optional.of(envelope));
+        when(refreshTokenGenerator.createSuccessorKey(envelope)).thenReturn("successor-key");
+        when(refreshTokenGenerator.sign("successor-key")).thenReturn("signed-successor");
+        when(refreshTokenRepository.rotate(any(byte[].class), any(Instant.class), any(byte[].class)))
+                .thenReturn(Optional.of(
+                        new RefreshTokenRotation(42L, true, "user@example.com", true, null, "google", "google-sub")));
+
+        // When
+        Authentication authentication = Flux.from(refreshTokenPersistence.getAuthentication("test-refresh-token"))
+                .blockFirst();
+
+        // Then
+        assertNotNull(authentication);
+        Map<String, Object> attributes = authentication.getAttributes();
+        assertEquals("user@example.com", attributes.get("email"));
+        assertEquals(true, attributes.get(SocialAuthConstants.CLAIM_EMAIL_VERIFIED));
+        assertEquals("google", attributes.get(SocialAuthConstants.ATTR_PROVIDER));
+        assertEquals("google-sub", attributes.get(SocialAuthConstants.ATTR_EXTERNAL_SUBJECT));
+        assertFalse(attributes.containsKey(SocialAuthConstants.CLAIM_PICTURE));
+    }
+
+    @Test
+    void shouldRejectReusedToken() {
+        // Given
+        Envelope envelope = envelope(Instant.now().plus(Duration.ofDays(7)));
+        when(refreshTokenGenerator.open("test-refresh-token")).thenReturn(Optional.of(envelope));
+        when(refreshTokenGenerator.createSuccessorKey(envelope)).thenReturn("successor-key");
+        when(refreshTokenRepository.rotate(any(byte[].class), any(Instant.class), any(byte[].class)))
+                .thenReturn(Optional.of(new RefreshTokenRotation(42L, false, null, null, null, null, null)));
+
+        // When & Then
+        assertThrows(OauthErrorResponseException.class, () -> Flux.from(
+                        refreshTokenPersistence.getAuthentication("test-refresh-token"))
+                .blockFirst());
+        verify(refreshTokenGenerator, never()).sign(anyString());
+    }
+
+    @Test
+    void shouldRefuseSuccessorOfRevokedFamilyWithoutQuerying() {
+        // Given
+        Envelope envelope = envelope(Instant.now().plus(Duration.ofDays(7)));
+        Envelope successor = new Envelope(
+                42L, envelope.authenticatedAt(), envelope.issuedAt().plusSeconds(60), envelope.expiresAt());
+        when(refreshTokenGenerator.open("test-refresh-token")).thenReturn(Optional.of(envelope));
+        when(refreshTokenGenerator.open("successor-token")).thenReturn(Optional.of(successor));
+        when(refreshTokenGenerator.createSuccessorKey(envelope)).thenReturn("successor-key");
+        when(refreshTokenRepository.rotate(any(byte[].class), any(Instant.class), any(byte[].class)))
+                .thenReturn(Optional.of(new RefreshTokenRotation(42L, false, null, null, null, null, null)));
+        assertThrows(OauthErrorResponseException.class, () -> Flux.from(
+                        refreshTokenPersistence.getAuthentication("test-refresh-token"))
+                .blockFirst());
+
+        // When & Then
+        assertThrows(OauthErrorResponseException.class, () -> Flux.from(
+                        refreshTokenPersistence.getAuthentication("successor-token"))
+                .blockFirst());
+        verify(refreshTokenRepository, times(1)).rotate(any(byte[].class), any(Instant.class), any(byte[].class));
+        assertEquals(
+                1, meterRegistry.get("auth.refresh.token.cache.rejected").counter().count());
+    }
+
+    @Test
+    void shouldShareOneRedemptionWithinIdempotencyWindow() {
+        // Given
+        Envelope envelope = envelope(Instant.now().plus(Duration.ofDays(7)));
+        when(refreshTokenGenerator.open("test-refresh-token")).thenReturn(Optional.of(envelope));
+        when(refreshTokenGenerator.createSuccessorKey(envelope)).thenReturn("successor-key");
+        when(refreshTokenGenerator.sign("successor-key")).thenReturn("signed-successor");
+        when(refreshTokenRepository.rotate(any(byte[].class), any(Instant.class), any(byte[].class)))
+                .thenReturn(Optional.of(new RefreshTokenRotation(42L, true, null, null, null, null, null)));
+
+        // When
+        Authentication first = Flux.from(refreshTokenPersistence.getAuthentication("test-refresh-token"))
+                .blockFirst();
+        Authentication second = Flux.from(refreshTokenPersistence.getAuthentication("test-refresh-token"))
+                .blockFirst();
+
+        // Then
+        assertSame(first, second);
+        verify(refreshTokenRepository, times(1)).rotate(any(byte[].class), any(Instant.class), any(byte[].class));
+        assertEquals(
+                1, meterRegistry.get("auth.refresh.token.coalesced").counter().count());
+    }
+
+    @Test
+    void shouldRejectExpiredTokenWithoutQuerying() {
+        // Given
+        when(refreshTokenGenerator.open("test-refresh-token"))
+                .thenReturn(Optional.of(envelope(Instant.now().minusSeconds(1))));
+
+        // When & Then
+        assertThrows(OauthErrorResponseException.class, () -> Flux.from(
+                        refreshTokenPersistence.getAuthentication("test-refresh-token"))
+                .blockFirst());
+        verifyNoInteractions(refreshTokenRepository);
+    }
+
     @Test
     void shouldHandleRevokedToken() {
         // When
@@ -77,4 +264,9 @@ class CustomRefreshTokenPersistenceTest {
         // Then
         assertNotNull(publisher);
     }
+
+    private static Envelope envelope(Instant expiresAt) {
+        Instant issuedAt = expiresAt.minus(Duration.ofDays(7));
+        return new Envelope(42L, issuedAt, issuedAt, expiresAt);
+    }
 }
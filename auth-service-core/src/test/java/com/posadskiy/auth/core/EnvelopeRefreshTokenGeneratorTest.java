@@ -0,0 +1,123 @@
+package com.posadskiy.auth.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.posadskiy.auth.core.property.RefreshTokenExpiryConfigurationProperties;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.token.jwt.generator.RefreshTokenConfigurationProperties;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EnvelopeRefreshTokenGeneratorTest {
+
+    private static final String SECRET = "test-secret-key-for-jwt-signing";
+
+    private EnvelopeRefreshTokenGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        generator = generator(SECRET, Duration.ofDays(7), Duration.ofDays(30));
+    }
+
+    @Test
+    void shouldValidateSignedTokenBackToItsKey() {
+        // Given
+        String key = generator.createKey(Authentication.build("42"));
+
+        // When
+        Optional<String> validated = generator.validate(
+                generator.generate(Authentication.build("42"), key).orElseThrow());
+
+        // Then
+        assertEquals(Optional.of(key), validated);
+        assertEquals(42L, generator.open(key).orElseThrow().userId());
+    }
+
+    @Test
+    void shouldRejectTamperedToken() {
+        // Given
+        String token = generator.sign(generator.createKey(42L));
+        char first = token.charAt(0);
+        String tampered = (first == 'A' ? 'B' : 'A') + token.substring(1);
+
+        // When & Then
+        assertTrue(generator.validate(tampered).isEmpty());
+    }
+
+    @Test
+    void shouldRejectTokenSignedWithAnotherSecret() {
+        // Given
+        String token = generator("another-secret", Duration.ofDays(7), Duration.ofDays(30))
+                .sign(generator.createKey(42L));
+
+        // When & Then
+        assertTrue(generator.validate(token).isEmpty());
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        // Given
+        EnvelopeRefreshTokenGenerator expiring = generator(SECRET, Duration.ZERO, Duration.ofDays(30));
+        String token = expiring.sign(expiring.createKey(42L));
+
+        // When & Then
+        assertTrue(expiring.validate(token).isEmpty());
+    }
+
+    @Test
+    void shouldRejectMalformedTokens() {
+        // Given
+        String token = generator.sign(generator.createKey(42L));
+
+        // When & Then
+        assertTrue(generator.validate(null).isEmpty());
+        assertTrue(generator.validate("").isEmpty());
+        assertTrue(generator.validate(token.substring(0, token.length() - 1)).isEmpty());
+        assertTrue(generator.validate(token.replace('.', '!')).isEmpty());
+        assertTrue(generator.validate("!".repeat(token.length())).isEmpty());
+        assertTrue(generator.open("not-a-key").isEmpty());
+    }
+
+    @Test
+    void shouldCapSuccessorExpiryAtAbsoluteLifetime() {
+        // Given
+        Instant authenticatedAt = Instant.now().minus(Duration.ofDays(28));
+        EnvelopeRefreshTokenGenerator.Envelope envelope =
+                new EnvelopeRefreshTokenGenerator.Envelope(42L, authenticatedAt, authenticatedAt, Instant.now());
+
+        // When
+        EnvelopeRefreshTokenGenerator.Envelope successor =
+                generator.open(generator.createSuccessorKey(envelope)).orElseThrow();
+
+        // Then
+        assertEquals(42L, successor.userId());
+        assertEquals(
+                authenticatedAt.getEpochSecond(), successor.authenticatedAt().getEpochSecond());
+        assertEquals(
+                authenticatedAt.getEpochSecond() + Duration.ofDays(30).toSeconds(),
+                successor.expiresAt().getEpochSecond());
+    }
+
+    @Test
+    void shouldRejectTokenPastAbsoluteLifetime() {
+        // Given
+        EnvelopeRefreshTokenGenerator expiring = generator(SECRET, Duration.ofDays(7), Duration.ZERO);
+        String token = expiring.sign(expiring.createKey(42L));
+
+        // When & Then
+        assertTrue(expiring.validate(token).isEmpty());
+    }
+
+    private static EnvelopeRefreshTokenGenerator generator(
+            String secret, Duration idleTimeout, Duration absoluteLifetime) {
+        RefreshTokenConfigurationProperties refreshTokenConfiguration = new RefreshTokenConfigurationProperties();
+        refreshTokenConfiguration.setSecret(secret);
+        RefreshTokenExpiryConfigurationProperties expiryConfiguration = new RefreshTokenExpiryConfigurationProperties();
+        expiryConfiguration.setIdleTimeout(idleTimeout);
+        expiryConfiguration.setAbsoluteLifetime(absoluteLifetime);
+        return new EnvelopeRefreshTokenGenerator(refreshTokenConfiguration, expiryConfiguration);
+    }
+}
@@ -0,0 +1,94 @@
+package com.posadskiy.auth.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.posadskiy.auth.core.EnvelopeRefreshTokenGenerator.Envelope;
+import com.posadskiy.auth.core.cache.RefreshTokenCache;
+import com.posadskiy.auth.core.property.RefreshTokenExpiryConfigurationProperties;
+import com.posadskiy.auth.core.service.RefreshTokenWriter;
+import com.posadskiy.auth.core.storage.db.projection.RefreshTokenRotation;
+import com.posadskiy.auth.core.storage.r2dbc.RefreshTokenR2dbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.errors.OauthErrorResponseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+@ExtendWith(MockitoExtension.class)
+class R2dbcRefreshTokenPersistenceTest {
+
+    @Mock
+    private RefreshTokenR2dbcRepository refreshTokenRepository;
+
+    @Mock
+    private EnvelopeRefreshTokenGenerator refreshTokenGenerator;
+
+    @Mock
+    private RefreshTokenWriter refreshTokenWriter;
+
+    @Mock
+    private RefreshTokenCache refreshTokenCache;
+
+    private R2dbcRefreshTokenPersistence refreshTokenPersistence;
+    private Envelope envelope;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenPersistence = new R2dbcRefreshTokenPersistence(
+                refreshTokenRepository,
+                refreshTokenGenerator,
+                refreshTokenWriter,
+                refreshTokenCache,
+                new RefreshTokenExpiryConfigurationProperties(),
+                new SimpleMeterRegistry());
+        Instant now = Instant.now();
+        envelope = new Envelope(42L, now, now, now.plus(Duration.ofDays(7)));
+        when(refreshTokenGenerator.open("test-refresh-token")).thenReturn(Optional.of(envelope));
+        when(refreshTokenGenerator.createSuccessorKey(envelope)).thenReturn("successor-key");
+    }
+
+    @Test
+    void shouldNotBlockSubscriberWhileRotating() {
+        // Given
+        Sinks.One<RefreshTokenRotation> rotation = Sinks.one();
+        when(refreshTokenGenerator.sign("successor-key")).thenReturn("signed-successor");
+        when(refreshTokenRepository.rotate(any(byte[].class), any(Instant.class), any(byte[].class)))
+                .thenReturn(rotation.asMono());
+        AtomicReference<Authentication> emitted = new AtomicReference<>();
+
+        // When
+        Mono.from(refreshTokenPersistence.getAuthentication("test-refresh-token"))
+                .subscribe(emitted::set);
+
+        // Then
+        assertNull(emitted.get());
+        rotation.tryEmitValue(new RefreshTokenRotation(42L, true, null, null, null, null, null));
+        assertNotNull(emitted.get());
+        assertEquals("42", emitted.get().getName());
+        assertEquals(
+                "signed-successor", emitted.get().getAttributes().get(SocialAuthConstants.ATTR_ROTATED_REFRESH_TOKEN));
+    }
+
+    @Test
+    void shouldRejectUnknownToken() {
+        // Given
+        when(refreshTokenRepository.rotate(any(byte[].class), any(Instant.class), any(byte[].class)))
+                .thenReturn(Mono.empty());
+
+        // When & Then
+        assertThrows(OauthErrorResponseException.class, () -> Mono.from(
+                        refreshTokenPersistence.getAuthentication("test-refresh-token"))
+                .block());
+    }
+}
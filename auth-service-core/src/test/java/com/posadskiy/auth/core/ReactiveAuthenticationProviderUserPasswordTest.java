@@ -0,0 +1,89 @@
+package com.posadskiy.auth.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import com.posadskiy.auth.core.identity.KnownIdentityFilter;
+import com.posadskiy.auth.core.password.BcryptPasswordHashingEngine;
+import com.posadskiy.auth.core.property.PasswordHashingConfigurationProperties;
+import com.posadskiy.auth.core.property.PasswordVerificationConfigurationProperties;
+import com.posadskiy.auth.core.ratelimit.LoginRateLimiter;
+import com.posadskiy.auth.core.service.PasswordHashingService;
+import com.posadskiy.auth.core.service.PasswordVerificationService;
+import com.posadskiy.auth.core.storage.db.UsersRepository;
+import com.posadskiy.auth.core.storage.db.projection.UserCredentialProjection;
+import com.posadskiy.auth.core.utils.PasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.security.authentication.AuthenticationResponse;
+import io.micronaut.security.authentication.UsernamePasswordCredentials;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveAuthenticationProviderUserPasswordTest {
+
+    @Mock
+    private UsersRepository usersRepository;
+
+    @Mock
+    private HttpRequest<Object> httpRequest;
+
+    @Mock
+    private KnownIdentityFilter knownIdentityFilter;
+
+    @Mock
+    private LoginRateLimiter loginRateLimiter;
+
+    @Spy
+    private PasswordHashingService passwordHashingService = new PasswordHashingService(
+            List.of(new BcryptPasswordHashingEngine(8, 8)),
+            new PasswordHashingConfigurationProperties(),
+            new SimpleMeterRegistry());
+
+    @Spy
+    private PasswordVerificationService passwordVerificationService = new PasswordVerificationService(
+            passwordHashingService, new PasswordVerificationConfigurationProperties(), new SimpleMeterRegistry());
+
+    @InjectMocks
+    private ReactiveAuthenticationProviderUserPassword<Object> authenticationProvider =
+            new ReactiveAuthenticationProviderUserPassword<>(Executors.newVirtualThreadPerTaskExecutor());
+
+    @Test
+    void shouldAuthenticateOnVirtualThread() {
+        // Given
+        AtomicBoolean lookedUpOnVirtualThread = new AtomicBoolean();
+        UserCredentialProjection user =
+                new UserCredentialProjection(1L, PasswordEncoder.encode("correctpassword"));
+        when(loginRateLimiter.tryAcquire(any(), any())).thenReturn(Duration.ZERO);
+        when(knownIdentityFilter.mightContain(anyString())).thenReturn(true);
+        when(usersRepository.findCredentialsByEmail("test@example.com")).thenAnswer(invocation -> {
+            lookedUpOnVirtualThread.set(Thread.currentThread().isVirtual());
+            return Optional.of(user);
+        });
+        UsernamePasswordCredentials authRequest =
+                new UsernamePasswordCredentials("test@example.com", "correctpassword");
+
+        // When
+        AuthenticationResponse response = Mono.from(authenticationProvider.authenticate(httpRequest, authRequest))
+                .block();
+
+        // Then
+        assertNotNull(response);
+        assertTrue(response.isAuthenticated());
+        assertEquals("1", response.getAuthentication().get().getName());
+        assertTrue(lookedUpOnVirtualThread.get());
+    }
+}
@@ -0,0 +1,109 @@
+package com.posadskiy.auth.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.posadskiy.auth.core.property.RefreshTokenExpiryConfigurationProperties;
+import io.micronaut.context.BeanContext;
+import io.micronaut.context.event.ApplicationEventPublisher;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.token.claims.ClaimsGenerator;
+import io.micronaut.security.token.event.AccessTokenGeneratedEvent;
+import io.micronaut.security.token.event.RefreshTokenGeneratedEvent;
+import io.micronaut.security.token.generator.AccessTokenConfiguration;
+import io.micronaut.security.token.generator.RefreshTokenGenerator;
+import io.micronaut.security.token.generator.TokenGenerator;
+import io.micronaut.security.token.render.AccessRefreshToken;
+import io.micronaut.security.token.render.TokenRenderer;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RotatingAccessRefreshTokenGeneratorTest {
+
+    @Mock
+    private AccessTokenConfiguration accessTokenConfiguration;
+
+    @Mock
+    private TokenRenderer tokenRenderer;
+
+    @Mock
+    private TokenGenerator tokenGenerator;
+
+    @Mock
+    private ApplicationEventPublisher<RefreshTokenGeneratedEvent> refreshTokenGeneratedEventPublisher;
+
+    @Mock
+    private ApplicationEventPublisher<AccessTokenGeneratedEvent> accessTokenGeneratedEventPublisher;
+
+    private RotatingAccessRefreshTokenGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        generator = new RotatingAccessRefreshTokenGenerator(
+                accessTokenConfiguration,
+                tokenRenderer,
+                tokenGenerator,
+                mock(BeanContext.class),
+                mock(RefreshTokenGenerator.class),
+                mock(ClaimsGenerator.class),
+                refreshTokenGeneratedEventPublisher,
+                accessTokenGeneratedEventPublisher,
+                new RefreshTokenExpiryConfigurationProperties());
+        when(accessTokenConfiguration.getExpiration()).thenReturn(3600);
+        when(tokenGenerator.generateToken(any(Authentication.class), anyInt())).thenReturn(Optional.of("access"));
+        when(tokenRenderer.render(any(Authentication.class), anyInt(), anyString(), anyString()))
+                .thenReturn(new AccessRefreshToken("access", "rendered", "Bearer", 3600));
+    }
+
+    @Test
+    void shouldHandOutRotatedSuccessorWithoutLeakingItIntoClaims() {
+        // Given
+        Authentication authentication =
+                Authentication.build("testuser", Map.of(SocialAuthConstants.ATTR_ROTATED_REFRESH_TOKEN, "successor"));
+
+        // When
+        Optional<AccessRefreshToken> token = generator.generate("spent", authentication);
+
+        // Then
+        assertTrue(token.isPresent());
+        ArgumentCaptor<Authentication> signed = ArgumentCaptor.forClass(Authentication.class);
+        verify(tokenGenerator).generateToken(signed.capture(), anyInt());
+        assertFalse(signed.getValue().getAttributes().containsKey(SocialAuthConstants.ATTR_ROTATED_REFRESH_TOKEN));
+        verify(tokenRenderer).render(any(Authentication.class), eq(3600), eq("access"), eq("successor"));
+    }
+
+    @Test
+    void shouldSignOnceForCoalescedRefreshes() {
+        // Given
+        Authentication authentication =
+                Authentication.build("testuser", Map.of(SocialAuthConstants.ATTR_ROTATED_REFRESH_TOKEN, "successor"));
+
+        // When
+        Optional<AccessRefreshToken> first = generator.generate("spent", authentication);
+        Optional<AccessRefreshToken> second = generator.generate("spent", authentication);
+
+        // Then
+        assertSame(first.orElseThrow(), second.orElseThrow());
+        verify(tokenGenerator, times(1)).generateToken(any(Authentication.class), anyInt());
+    }
+
+    @Test
+    void shouldKeepPresentedTokenWithoutRotation() {
+        // Given
+        Authentication authentication = Authentication.build("testuser");
+
+        // When
+        generator.generate("presented", authentication);
+
+        // Then
+        verify(tokenRenderer).render(any(Authentication.class), eq(3600), eq("access"), eq("presented"));
+    }
+}
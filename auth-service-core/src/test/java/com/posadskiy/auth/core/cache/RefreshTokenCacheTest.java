@@ -0,0 +1,54 @@
+package com.posadskiy.auth.core.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.posadskiy.auth.core.property.RefreshTokenCacheConfigurationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RefreshTokenCacheTest {
+
+    private static final Instant SESSION_START = Instant.ofEpochSecond(1_760_000_000L);
+
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshTokenCache refreshTokenCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        refreshTokenCache = new RefreshTokenCache(new RefreshTokenCacheConfigurationProperties(), meterRegistry);
+    }
+
+    @Test
+    void shouldRefuseEveryTokenOfARevokedFamilyFromMemory() {
+        // Given
+        refreshTokenCache.familyRevoked(42L, SESSION_START);
+
+        // When
+        boolean revoked = refreshTokenCache.isRevoked(42L, SESSION_START.plusMillis(500));
+
+        // Then
+        assertTrue(revoked);
+        assertEquals(1, meterRegistry.get("auth.refresh.token.cache.rejected").counter().count());
+        assertEquals(0, meterRegistry.get("auth.refresh.token.cache.database.lookups").counter().count());
+        assertEquals(1, meterRegistry.get("auth.refresh.token.cache.size").gauge().value());
+    }
+
+    @Test
+    void shouldCountOtherSessionsAsDatabaseLookups() {
+        // Given
+        refreshTokenCache.familyRevoked(42L, SESSION_START);
+
+        // When
+        boolean otherSession = refreshTokenCache.isRevoked(42L, SESSION_START.plusSeconds(1));
+        boolean otherUser = refreshTokenCache.isRevoked(43L, SESSION_START);
+
+        // Then
+        assertFalse(otherSession);
+        assertFalse(otherUser);
+        assertEquals(0, meterRegistry.get("auth.refresh.token.cache.rejected").counter().count());
+        assertEquals(2, meterRegistry.get("auth.refresh.token.cache.database.lookups").counter().count());
+    }
+}
@@ -0,0 +1,114 @@
+package com.posadskiy.auth.core.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.posadskiy.auth.core.property.UserCacheConfigurationProperties;
+import com.posadskiy.auth.core.storage.db.UsersRepository;
+import com.posadskiy.auth.core.storage.db.entity.UserEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.data.exceptions.OptimisticLockException;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+
+    @Mock
+    private UsersRepository usersRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userCache = new UserCache(usersRepository, new UserCacheConfigurationProperties(), meterRegistry);
+    }
+
+    @Test
+    void shouldServeRepeatedReadsByIdAndEmailFromCache() {
+        // Given
+        when(usersRepository.findById(1L)).thenReturn(Optional.of(user(1L, "Test@Example.com", 0L)));
+
+        // When
+        userCache.findById(1L);
+        Optional<UserEntity> byId = userCache.findById(1L);
+        Optional<UserEntity> byEmail = userCache.findByEmail("test@example.COM ");
+
+        // Then
+        assertTrue(byId.isPresent());
+        assertEquals(1L, byEmail.orElseThrow().getId());
+        verify(usersRepository, times(1)).findById(1L);
+        verify(usersRepository, never()).findByEmail(any());
+        assertEquals(
+                2.0,
+                meterRegistry
+                        .get("cache.gets")
+                        .tag("cache", "users.by-id")
+                        .tag("result", "hit")
+                        .functionCounter()
+                        .count());
+    }
+
+    @Test
+    void shouldReturnCopiesSoCallersCannotMutateTheCachedEntry() {
+        // Given
+        when(usersRepository.findById(1L)).thenReturn(Optional.of(user(1L, "test@example.com", 0L)));
+
+        // When
+        userCache.findById(1L).orElseThrow().setPictureUrl("changed");
+
+        // Then
+        assertNull(userCache.findById(1L).orElseThrow().getPictureUrl());
+    }
+
+    @Test
+    void shouldRefreshEntryOnUpdateAndIgnoreOlderVersions() {
+        // Given
+        when(usersRepository.findById(1L)).thenReturn(Optional.of(user(1L, "test@example.com", 0L)));
+        userCache.findById(1L);
+
+        // When
+        UserEntity updated = user(1L, "test@example.com", 2L);
+        updated.setPictureUrl("new");
+        userCache.onUserUpdated(updated);
+        userCache.onUserUpdated(user(1L, "test@example.com", 1L));
+
+        // Then
+        UserEntity cached = userCache.findById(1L).orElseThrow();
+        assertEquals(2L, cached.getVersion());
+        assertEquals("new", cached.getPictureUrl());
+    }
+
+    @Test
+    void shouldReapplyChangesToCurrentRowWhenCachedCopyIsStale() {
+        // Given
+        UserEntity stale = user(1L, "test@example.com", 0L);
+        UserEntity current = user(1L, "test@example.com", 3L);
+        when(usersRepository.update(stale)).thenThrow(new OptimisticLockException("stale"));
+        when(usersRepository.findById(1L)).thenReturn(Optional.of(current));
+        when(usersRepository.update(current)).thenReturn(current);
+
+        // When
+        UserEntity result = userCache.update(stale, u -> u.setPictureUrl("picture"));
+
+        // Then
+        assertSame(current, result);
+        assertEquals("picture", current.getPictureUrl());
+    }
+
+    private static UserEntity user(Long id, String email, Long version) {
+        UserEntity user = new UserEntity();
+        user.setId(id);
+        user.setUsername("test");
+        user.setEmail(email);
+        user.setVersion(version);
+        return user;
+    }
+}
@@ -0,0 +1,156 @@
+package com.posadskiy.auth.core.identity;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.posadskiy.auth.core.property.KnownIdentityFilterConfigurationProperties;
+import com.posadskiy.auth.core.storage.db.UsersRepository;
+import com.posadskiy.auth.core.storage.db.projection.UserEmailProjection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class KnownIdentityFilterTest {
+
+    @Mock
+    private UsersRepository usersRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private KnownIdentityFilter identityFilter;
+
+    @BeforeEach
+    void setUp() {
+        KnownIdentityFilterConfigurationProperties properties = new KnownIdentityFilterConfigurationProperties();
+        properties.setExpectedInsertions(1_000);
+        properties.setPageSize(2);
+        properties.setMissCatchUpInterval(Duration.ofHours(1));
+        properties.setMissLookupsPerSecond(0);
+        meterRegistry = new SimpleMeterRegistry();
+        identityFilter = new KnownIdentityFilter(usersRepository, properties, meterRegistry);
+    }
+
+    @Test
+    void shouldTreatEveryIdentityAsKnownUntilBuilt() {
+        // When & Then
+        assertTrue(identityFilter.mightContain("unknown@example.com"));
+        verify(usersRepository, never()).findEmailsAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldRejectUnknownIdentitiesAfterBuild() {
+        // Given
+        when(usersRepository.findEmailsAfter(0, 2))
+                .thenReturn(List.of(
+                        new UserEmailProjection(1L, "first@example.com"),
+                        new UserEmailProjection(2L, "Second@Example.com")));
+        when(usersRepository.findEmailsAfter(2, 2)).thenReturn(List.of());
+
+        // When
+        identityFilter.rebuild();
+
+        // Then
+        assertTrue(identityFilter.mightContain("first@example.com"));
+        assertTrue(identityFilter.mightContain(" second@example.COM "));
+        assertFalse(identityFilter.mightContain("unknown@example.com"));
+        assertFalse(identityFilter.tryMissLookup());
+        assertEquals(
+                1.0,
+                meterRegistry
+                        .get("auth.identity.filter.lookups")
+                        .tag("result", "negative")
+                        .counter()
+                        .count());
+        assertTrue(meterRegistry.get("auth.identity.filter.size").gauge().value() > 0);
+    }
+
+    @Test
+    void shouldCatchUpOnFirstMissToFindUsersCreatedElsewhere() {
+        // Given
+        when(usersRepository.findEmailsAfter(0, 2))
+                .thenReturn(List.of(new UserEmailProjection(1L, "first@example.com")))
+                .thenReturn(List.of(
+                        new UserEmailProjection(1L, "first@example.com"),
+                        new UserEmailProjection(2L, "new@example.com")))
+                .thenReturn(List.of());
+        when(usersRepository.findEmailsAfter(2, 2)).thenReturn(List.of());
+        identityFilter.rebuild();
+
+        // When & Then
+        assertTrue(identityFilter.mightContain("new@example.com"));
+        assertFalse(identityFilter.mightContain("unknown@example.com"));
+    }
+
+    @Test
+    void shouldAddPersistedUsers() {
+        // Given
+        when(usersRepository.findEmailsAfter(0, 2)).thenReturn(List.of());
+        identityFilter.rebuild();
+
+        // When
+        identityFilter.add("Created@Example.com");
+
+        // Then
+        assertTrue(identityFilter.mightContain("created@example.com"));
+    }
+
+    @Test
+    void shouldSendBoundedNumberOfMissesToTheDatabase() {
+        // Given
+        KnownIdentityFilterConfigurationProperties properties = new KnownIdentityFilterConfigurationProperties();
+        properties.setExpectedInsertions(1_000);
+        properties.setMissCatchUpInterval(Duration.ofHours(1));
+        properties.setMissLookupsPerSecond(2);
+        KnownIdentityFilter fallback = new KnownIdentityFilter(usersRepository, properties, meterRegistry);
+        when(usersRepository.findEmailsAfter(0, properties.getPageSize())).thenReturn(List.of());
+        fallback.rebuild();
+
+        // When
+        boolean known = fallback.mightContain("renamed@example.com");
+        boolean first = fallback.tryMissLookup();
+        boolean second = fallback.tryMissLookup();
+        boolean third = fallback.tryMissLookup();
+
+        // Then
+        assertFalse(known);
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertEquals(
+                2.0,
+                meterRegistry
+                        .get("auth.identity.filter.lookups")
+                        .tag("result", "fallback")
+                        .counter()
+                        .count());
+        assertEquals(
+                1.0,
+                meterRegistry
+                        .get("auth.identity.filter.lookups")
+                        .tag("result", "negative")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    void shouldAddIdentitiesTheDatabaseConfirmed() {
+        // Given
+        when(usersRepository.findEmailsAfter(0, 2)).thenReturn(List.of());
+        identityFilter.rebuild();
+
+        // When
+        identityFilter.confirm("Renamed@Example.com");
+
+        // Then
+        assertTrue(identityFilter.mightContain("renamed@example.com"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.posadskiy.auth.core.jwk;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.posadskiy.auth.core.property.JwtSigningConfigurationProperties;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(startApplication = false, transactional = false)
+@Property(name = "datasources.default.url", value = JdbcSigningKeyStoreTest.URL)
+@Property(name = "datasources.default.driver-class-name", value = "org.h2.Driver")
+@Property(name = "datasources.default.username", value = "sa")
+@Property(name = "datasources.default.password", value = "")
+@Property(name = "flyway.enabled", value = "false")
+@Property(name = "auth.identity-filter.enabled", value = "false")
+@Property(name = "auth.jwt.signing.store", value = "jdbc")
+@Property(name = "auth.jwt.signing.key-encryption-secret", value = "a-test-secret")
+class JdbcSigningKeyStoreTest {
+
+    static final String URL = "jdbc:h2:mem:signing-keys;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final Instant ROTATION = Instant.ofEpochSecond(Duration.ofDays(30).toSeconds() * 700);
+
+    @Inject
+    SigningKeyStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS signing_key");
+            statement.execute("""
+                    CREATE TABLE signing_key
+                    (
+                        kid          VARCHAR(64)              NOT NULL PRIMARY KEY,
+                        algorithm    VARCHAR(16)              NOT NULL,
+                        activates_at TIMESTAMP WITH TIME ZONE NOT NULL
+                            CONSTRAINT signing_key_activates_at_key UNIQUE,
+                        public_key   BYTEA                    NOT NULL,
+                        private_key  BYTEA                    NOT NULL,
+                        date_created TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+                    )""");
+        }
+    }
+
+    @Test
+    void shouldBeTheStoreWhenConfiguredForJdbc() {
+        assertInstanceOf(JdbcSigningKeyStore.class, store);
+    }
+
+    @Test
+    void shouldKeepOnlyTheFirstKeyInsertedForASlot() {
+        // Given
+        SigningKeyStore.StoredKey first = storedKey("first", ROTATION);
+        SigningKeyStore.StoredKey second = storedKey("second", ROTATION);
+
+        // When
+        store.insertIfSlotFree(first);
+        store.insertIfSlotFree(second);
+
+        // Then
+        List<SigningKeyStore.StoredKey> keys = store.findActivatingSince(ROTATION);
+        assertEquals(1, keys.size());
+        assertEquals("first", keys.get(0).kid());
+        assertEquals(ROTATION, keys.get(0).activatesAt());
+        assertArrayEquals(first.publicKey(), keys.get(0).publicKey());
+        assertArrayEquals(first.privateKey(), keys.get(0).privateKey());
+    }
+
+    @Test
+    void shouldFindKeysInActivationOrderAndDeleteRetiredOnes() {
+        // Given
+        Instant next = ROTATION.plus(Duration.ofDays(30));
+        store.insertIfSlotFree(storedKey("next", next));
+        store.insertIfSlotFree(storedKey("current", ROTATION));
+
+        // When
+        List<SigningKeyStore.StoredKey> before = store.findActivatingSince(Instant.EPOCH);
+        store.deleteActivatingBefore(next);
+
+        // Then
+        assertEquals(List.of("current", "next"), before.stream().map(SigningKeyStore.StoredKey::kid).toList());
+        assertEquals(List.of("next"), store.findActivatingSince(Instant.EPOCH).stream()
+                .map(SigningKeyStore.StoredKey::kid)
+                .toList());
+    }
+
+    @Test
+    void shouldShareKeysBetweenRingsThroughTheDatabase() {
+        // Given
+        Instant now = ROTATION.plus(Duration.ofDays(1));
+        SigningKeyRing ring = ring();
+        ring.refresh(now);
+
+        // When
+        SigningKeyRing other = ring();
+        other.refresh(now);
+
+        // Then
+        SigningKey key = other.active(now);
+        assertEquals(ring.active(now).kid(), key.kid());
+        byte[] input = "header.payload".getBytes(StandardCharsets.US_ASCII);
+        byte[] signature = new byte[key.signatureLength()];
+        key.sign(input, 0, input.length, signature, 0);
+        assertTrue(ring.active(now).verify(input, signature));
+    }
+
+    private SigningKeyRing ring() {
+        JwtSigningConfigurationProperties configuration = new JwtSigningConfigurationProperties();
+        configuration.setKeyEncryptionSecret("a-test-secret");
+        return new SigningKeyRing(store, configuration);
+    }
+
+    private static SigningKeyStore.StoredKey storedKey(String kid, Instant activatesAt) {
+        return new SigningKeyStore.StoredKey(
+                kid,
+                "ES256",
+                activatesAt,
+                (kid + "-public").getBytes(StandardCharsets.UTF_8),
+                (kid + "-private").getBytes(StandardCharsets.UTF_8));
+    }
+}
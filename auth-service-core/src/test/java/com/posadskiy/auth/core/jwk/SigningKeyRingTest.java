@@ -0,0 +1,134 @@
+package com.posadskiy.auth.core.jwk;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.posadskiy.auth.core.property.JwtSigningConfigurationProperties;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SigningKeyRingTest {
+
+    // a slot boundary: a multiple of the 30 day rotation interval since the epoch
+    private static final Instant ROTATION = Instant.ofEpochSecond(Duration.ofDays(30).toSeconds() * 700);
+
+    private InMemorySigningKeyStore store;
+    private SigningKeyRing ring;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemorySigningKeyStore();
+        ring = ring("a-test-secret", "ES256");
+    }
+
+    @Test
+    void shouldPublishNextKeyAheadOfItsSlotAndSwitchToItOnTime() throws Exception {
+        // Given
+        Instant beforeRotation = ROTATION.minus(Duration.ofHours(1));
+
+        // When
+        ring.refresh(beforeRotation);
+
+        // Then
+        SigningKey current = ring.active(beforeRotation);
+        SigningKey next = ring.active(ROTATION);
+        assertNotEquals(current.kid(), next.kid());
+        assertEquals(ROTATION, next.activatesAt());
+        JWKSet published = JWKSet.parse(new String(ring.jwks().body(), StandardCharsets.UTF_8));
+        assertNotNull(published.getKeyByKeyId(current.kid()));
+        assertNotNull(published.getKeyByKeyId(next.kid()));
+    }
+
+    @Test
+    void shouldKeepRetiredKeyPublishedForTheOverlap() {
+        // Given
+        ring.refresh(ROTATION.minus(Duration.ofHours(1)));
+        String retired = ring.active(ROTATION.minus(Duration.ofHours(1))).kid();
+
+        // When
+        ring.refresh(ROTATION.plus(Duration.ofDays(4)));
+        SigningKey withinOverlap = ring.find(retired);
+        ring.refresh(ROTATION.plus(Duration.ofDays(6)));
+
+        // Then
+        assertNotNull(withinOverlap);
+        assertNull(ring.find(retired));
+    }
+
+    @Test
+    void shouldKeepEtagUntilKeysChange() {
+        // Given
+        ring.refresh(ROTATION.plus(Duration.ofDays(1)));
+        SigningKeyRing.Jwks first = ring.jwks();
+
+        // When
+        ring.refresh(ROTATION.plus(Duration.ofDays(2)));
+        SigningKeyRing.Jwks unchanged = ring.jwks();
+        ring.refresh(ROTATION.plus(Duration.ofDays(30)).minus(Duration.ofHours(1)));
+        SigningKeyRing.Jwks published = ring.jwks();
+
+        // Then
+        assertSame(first, unchanged);
+        assertNotEquals(first.etag(), published.etag());
+        assertTrue(published.etag().startsWith("\"") && published.etag().endsWith("\""));
+    }
+
+    @Test
+    void shouldSignWithKeysCreatedByAnotherInstance() {
+        // Given
+        Instant now = ROTATION.plus(Duration.ofDays(1));
+        ring.refresh(now);
+        SigningKeyRing other = ring("a-test-secret", "ES256");
+
+        // When
+        other.refresh(now);
+
+        // Then
+        SigningKey key = other.active(now);
+        assertEquals(ring.active(now).kid(), key.kid());
+        byte[] input = "header.payload".getBytes(StandardCharsets.US_ASCII);
+        byte[] signature = new byte[key.signatureLength()];
+        key.sign(input, 0, input.length, signature, 0);
+        assertTrue(ring.active(now).verify(input, signature));
+    }
+
+    @Test
+    void shouldNotLoadKeysUnderAnotherEncryptionSecret() {
+        // Given
+        Instant now = ROTATION.plus(Duration.ofDays(1));
+        ring.refresh(now);
+        SigningKeyRing other = ring("another-secret", "ES256");
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> other.refresh(now));
+    }
+
+    @Test
+    void shouldSignWithEd25519() {
+        // Given
+        SigningKeyRing edDsa = ring("a-test-secret", "EdDSA");
+        Instant now = ROTATION.plus(Duration.ofDays(1));
+        edDsa.refresh(now);
+        SigningKey key = edDsa.active(now);
+        byte[] input = "header.payload".getBytes(StandardCharsets.US_ASCII);
+        byte[] signature = new byte[key.signatureLength()];
+
+        // When
+        key.sign(input, 0, input.length, signature, 0);
+
+        // Then
+        assertEquals("EdDSA", key.algorithm().jwsAlgorithm().getName());
+        assertTrue(key.verify(input, signature));
+        assertEquals("OKP", key.publicJwk().getKeyType().getValue());
+    }
+
+    private SigningKeyRing ring(String secret, String algorithm) {
+        JwtSigningConfigurationProperties configuration = new JwtSigningConfigurationProperties();
+        configuration.setKeyEncryptionSecret(secret);
+        configuration.setAlgorithm(algorithm);
+        return new SigningKeyRing(store, configuration);
+    }
+}
@@ -0,0 +1,73 @@
+package com.posadskiy.auth.core.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.posadskiy.auth.core.exception.RateLimitedException;
+import com.posadskiy.auth.core.property.ClientRateLimitConfigurationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.http.HttpRequest;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ClientRateLimiterTest {
+
+    private ClientRateLimitConfigurationProperties configuration;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        configuration = new ClientRateLimitConfigurationProperties();
+        configuration.setAddressCapacity(2);
+        configuration.setClientCapacity(3);
+        configuration.setClientAddressHeader("X-Forwarded-For");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldLimitEachClientAddress() {
+        // Given
+        ClientRateLimiter limiter = new ClientRateLimiter(configuration, meterRegistry);
+        limiter.acquire(request("10.0.0.1"), "billing-service");
+        limiter.acquire(request("10.0.0.1"), "reporting-service");
+
+        // When
+        RateLimitedException e = assertThrows(
+                RateLimitedException.class, () -> limiter.acquire(request("10.0.0.1"), "search-service"));
+
+        // Then
+        assertTrue(e.getRetryAfter().compareTo(Duration.ZERO) > 0);
+        assertEquals(1.0, meterRegistry.get("auth.client.rate.limited").tag("key", "address").counter().count());
+        limiter.acquire(request("10.0.0.2"), "search-service");
+    }
+
+    @Test
+    void shouldLimitEachClientIdAcrossAddresses() {
+        // Given
+        ClientRateLimiter limiter = new ClientRateLimiter(configuration, meterRegistry);
+        limiter.acquire(request("10.0.0.1"), "billing-service");
+        limiter.acquire(request("10.0.0.2"), "billing-service");
+        limiter.acquire(request("10.0.0.3"), "billing-service");
+
+        // When & Then
+        assertThrows(RateLimitedException.class, () -> limiter.acquire(request("10.0.0.4"), "billing-service"));
+        assertEquals(1.0, meterRegistry.get("auth.client.rate.limited").tag("key", "client").counter().count());
+        limiter.acquire(request("10.0.0.4"), "reporting-service");
+    }
+
+    @Test
+    void shouldLetEverythingThroughWhenDisabled() {
+        // Given
+        configuration.setEnabled(false);
+        ClientRateLimiter limiter = new ClientRateLimiter(configuration, meterRegistry);
+
+        // When & Then
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(request("10.0.0.1"), "billing-service");
+        }
+    }
+
+    private static HttpRequest<?> request(String address) {
+        return HttpRequest.POST("/oauth2/token", "").header("X-Forwarded-For", address + ", 192.168.0.1");
+    }
+}
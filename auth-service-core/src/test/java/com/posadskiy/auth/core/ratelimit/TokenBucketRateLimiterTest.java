@@ -0,0 +1,66 @@
+package com.posadskiy.auth.core.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    void shouldAllowBurstUpToCapacityThenReportWait() {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, Duration.ofSeconds(3), 4, 100);
+
+        // When & Then
+        assertTrue(limiter.tryAcquire("10.0.0.1", 0).isZero());
+        assertTrue(limiter.tryAcquire("10.0.0.1", 0).isZero());
+        assertTrue(limiter.tryAcquire("10.0.0.1", 0).isZero());
+        assertEquals(Duration.ofSeconds(1), limiter.tryAcquire("10.0.0.1", 0));
+        assertTrue(limiter.tryAcquire("10.0.0.2", 0).isZero());
+    }
+
+    @Test
+    void shouldRefillOneTokenPerEmissionInterval() {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, Duration.ofSeconds(2), 4, 100);
+        limiter.tryAcquire("user@example.com", 0);
+        limiter.tryAcquire("user@example.com", 0);
+
+        // When & Then
+        assertFalse(limiter.tryAcquire("user@example.com", SECOND / 2).isZero());
+        assertTrue(limiter.tryAcquire("user@example.com", SECOND).isZero());
+        assertFalse(limiter.tryAcquire("user@example.com", SECOND).isZero());
+    }
+
+    @Test
+    void shouldEvictOnlyRefilledKeys() {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, Duration.ofSeconds(10), 4, 100);
+        limiter.tryAcquire("idle", 0);
+        limiter.tryAcquire("busy", 9 * SECOND);
+
+        // When
+        int evicted = limiter.evictIdle(10 * SECOND);
+
+        // Then
+        assertEquals(1, evicted);
+        assertEquals(1, limiter.size());
+        assertFalse(limiter.tryAcquire("busy", 10 * SECOND).isZero());
+    }
+
+    @Test
+    void shouldFailOpenWhenEveryTrackedKeyIsStillLimited() {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, Duration.ofSeconds(10), 1, 2);
+        limiter.tryAcquire("first", 0);
+        limiter.tryAcquire("second", 0);
+
+        // When & Then
+        assertTrue(limiter.tryAcquire("third", 0).isZero());
+        assertTrue(limiter.tryAcquire("third", 0).isZero());
+        assertEquals(2, limiter.size());
+    }
+}
@@ -0,0 +1,152 @@
+package com.posadskiy.auth.core.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.posadskiy.auth.core.jwk.AccessTokenVerifier;
+import com.posadskiy.auth.core.jwk.InMemorySigningKeyStore;
+import com.posadskiy.auth.core.jwk.SigningKeyRing;
+import com.posadskiy.auth.core.property.BatchTokenValidationConfigurationProperties;
+import com.posadskiy.auth.core.property.JwtSigningConfigurationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchTokenValidationServiceTest {
+
+    private JwtTokenService jwtTokenService;
+    private AccessTokenVerifier accessTokenVerifier;
+    private BatchTokenValidationConfigurationProperties configuration;
+    private BatchTokenValidationService service;
+
+    @BeforeEach
+    void setUp() {
+        JwtSigningConfigurationProperties signing = new JwtSigningConfigurationProperties();
+        signing.setKeyEncryptionSecret("a-test-secret");
+        SigningKeyRing signingKeyRing = new SigningKeyRing(new InMemorySigningKeyStore(), signing);
+        jwtTokenService = new JwtTokenService(Duration.ofMinutes(5), signingKeyRing);
+        accessTokenVerifier = spy(new AccessTokenVerifier(signingKeyRing));
+        configuration = new BatchTokenValidationConfigurationProperties();
+        configuration.setPoolSize(4);
+        configuration.setMinChunkSize(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void shouldReturnResultsInOrderOfTheTokens() {
+        // Given
+        service = service();
+        Instant issuedAt = Instant.now();
+        String valid = token("client-a", issuedAt, issuedAt.plus(Duration.ofMinutes(5)));
+        String expired = token("client-b", issuedAt.minus(Duration.ofHours(1)), issuedAt.minus(Duration.ofMinutes(1)));
+
+        // When
+        List<BatchTokenValidationService.Result> results = service.validate(List.of(valid, "garbage", expired));
+
+        // Then
+        assertTrue(results.get(0).valid());
+        assertEquals("client-a", results.get(0).subject());
+        assertEquals(issuedAt.plus(Duration.ofMinutes(5)).getEpochSecond(), results.get(0).expiresAt().getEpochSecond());
+        assertEquals(AccessTokenVerifier.MALFORMED, results.get(1).reason());
+        assertEquals(AccessTokenVerifier.EXPIRED, results.get(2).reason());
+        assertNull(results.get(2).subject());
+    }
+
+    @Test
+    void shouldVerifyOnSeveralThreadsAndRepeatedTokensOnce() {
+        // Given
+        service = service();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> {
+                    threads.add(Thread.currentThread());
+                    return invocation.callRealMethod();
+                })
+                .when(accessTokenVerifier)
+                .verify(any(), any());
+        Instant now = Instant.now();
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            tokens.add(token("client-" + i, now, now.plus(Duration.ofMinutes(5))));
+        }
+        tokens.addAll(Collections.nCopies(8, tokens.getFirst()));
+
+        // When
+        List<BatchTokenValidationService.Result> results = service.validate(tokens);
+
+        // Then
+        assertEquals(40, results.size());
+        assertTrue(results.stream().allMatch(BatchTokenValidationService.Result::valid));
+        assertEquals("client-31", results.get(31).subject());
+        assertEquals("client-0", results.get(39).subject());
+        verify(accessTokenVerifier, times(32)).verify(any(), any());
+        assertTrue(threads.size() > 1);
+    }
+
+    @Test
+    void shouldRefuseBatchOverTheLimit() {
+        // Given
+        configuration.setMaxTokens(2);
+        service = service();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> service.validate(List.of("a", "b", "c")));
+    }
+
+    @Test
+    void shouldCancelOtherChunksWhenOneFails() throws Exception {
+        // Given
+        configuration.setPoolSize(2);
+        configuration.setMinChunkSize(1);
+        service = service();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+                    if ("slow".equals(invocation.getArgument(0))) {
+                        started.countDown();
+                        try {
+                            new CountDownLatch(1).await();
+                        } catch (InterruptedException e) {
+                            interrupted.countDown();
+                        }
+                        return invocation.callRealMethod();
+                    }
+                    started.await();
+                    throw new IllegalStateException("verifier failed");
+                })
+                .when(accessTokenVerifier)
+                .verify(any(), any());
+
+        // When
+        assertThrows(IllegalStateException.class, () -> service.validate(List.of("slow", "failing")));
+
+        // Then
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    private String token(String clientId, Instant issuedAt, Instant expiresAt) {
+        return jwtTokenService
+                .generateForClient(clientId, "users:read", issuedAt, expiresAt)
+                .accessToken();
+    }
+
+    private BatchTokenValidationService service() {
+        return new BatchTokenValidationService(accessTokenVerifier, configuration, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,113 @@
+package com.posadskiy.auth.core.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import com.posadskiy.auth.core.exception.ClientCredentialsException;
+import com.posadskiy.auth.core.jwk.InMemorySigningKeyStore;
+import com.posadskiy.auth.core.jwk.SigningKeyRing;
+import com.posadskiy.auth.core.password.BcryptPasswordHashingEngine;
+import com.posadskiy.auth.core.property.ClientCredentialsConfigurationProperties;
+import com.posadskiy.auth.core.property.JwtSigningConfigurationProperties;
+import com.posadskiy.auth.core.property.PasswordHashingConfigurationProperties;
+import com.posadskiy.auth.core.property.PasswordVerificationConfigurationProperties;
+import com.posadskiy.auth.core.property.ServiceClientConfigurationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ClientCredentialsServiceTest {
+
+    private PasswordVerificationService passwordVerificationService;
+    private JwtTokenService jwtTokenService;
+    private ClientCredentialsConfigurationProperties configuration;
+    private ServiceClientConfigurationProperties client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        PasswordHashingService hashingService = new PasswordHashingService(
+                List.of(new BcryptPasswordHashingEngine(4, 4)),
+                new PasswordHashingConfigurationProperties(),
+                new SimpleMeterRegistry());
+        passwordVerificationService = spy(new PasswordVerificationService(
+                hashingService, new PasswordVerificationConfigurationProperties(), new SimpleMeterRegistry()));
+        JwtSigningConfigurationProperties signing = new JwtSigningConfigurationProperties();
+        signing.setKeyEncryptionSecret("a-test-secret");
+        jwtTokenService = spy(new JwtTokenService(
+                Duration.ofMinutes(5), new SigningKeyRing(new InMemorySigningKeyStore(), signing)));
+        configuration = new ClientCredentialsConfigurationProperties();
+        client = new ServiceClientConfigurationProperties("billing-service");
+        client.setSecretHash(hashingService.encode("billing-secret"));
+        client.setScopes(List.of("users:write", "users:read"));
+    }
+
+    @Test
+    void shouldReuseTokenAndSkipHashingForRepeatedGrants() {
+        // Given
+        ClientCredentialsService service = service();
+
+        // When
+        var first = service.grant("billing-service", "billing-secret", null);
+        var second = service.grant("billing-service", "billing-secret", "users:write users:read");
+
+        // Then
+        assertEquals(first.accessToken(), second.accessToken());
+        assertEquals("users:read users:write", first.scope());
+        verify(jwtTokenService, times(1)).generateForClient(anyString(), anyString(), any(), any());
+        verify(passwordVerificationService, times(1)).verify(anyString(), anyString());
+    }
+
+    @Test
+    void shouldSignNewTokenWithinRefreshMargin() {
+        // Given
+        configuration.setRefreshMargin(configuration.getAccessTokenTtl());
+        ClientCredentialsService service = service();
+
+        // When
+        var first = service.grant("billing-service", "billing-secret", "users:read");
+        var second = service.grant("billing-service", "billing-secret", "users:read");
+
+        // Then
+        assertNotEquals(first.accessToken(), second.accessToken());
+    }
+
+    @Test
+    void shouldRejectWrongSecretAndUnknownClient() {
+        // Given
+        ClientCredentialsService service = service();
+
+        // When & Then
+        var wrongSecret =
+                assertThrows(ClientCredentialsException.class, () -> service.grant("billing-service", "guess", null));
+        var unknown = assertThrows(
+                ClientCredentialsException.class, () -> service.grant("other-service", "billing-secret", null));
+        assertEquals(ClientCredentialsException.INVALID_CLIENT, wrongSecret.getError());
+        assertEquals(ClientCredentialsException.INVALID_CLIENT, unknown.getError());
+    }
+
+    @Test
+    void shouldRejectScopeOutsideRegistration() {
+        // Given
+        ClientCredentialsService service = service();
+
+        // When
+        var e = assertThrows(
+                ClientCredentialsException.class,
+                () -> service.grant("billing-service", "billing-secret", "users:read admin"));
+
+        // Then
+        assertEquals(ClientCredentialsException.INVALID_SCOPE, e.getError());
+    }
+
+    private ClientCredentialsService service() {
+        return new ClientCredentialsService(
+                List.of(client),
+                passwordVerificationService,
+                jwtTokenService,
+                configuration,
+                new SimpleMeterRegistry());
+    }
+}
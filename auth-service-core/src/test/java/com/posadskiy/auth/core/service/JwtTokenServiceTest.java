@@ -0,0 +1,203 @@
+package com.posadskiy.auth.core.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.posadskiy.auth.core.SocialAuthConstants;
+import com.posadskiy.auth.core.jwk.InMemorySigningKeyStore;
+import com.posadskiy.auth.core.jwk.SigningKey;
+import com.posadskiy.auth.core.jwk.SigningKeyRing;
+import com.posadskiy.auth.core.property.JwtSigningConfigurationProperties;
+import com.posadskiy.auth.core.storage.db.entity.ExternalIdentityEntity;
+import com.posadskiy.auth.core.storage.db.entity.UserEntity;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JwtTokenServiceTest {
+
+    private SigningKeyRing signingKeyRing;
+    private JwtTokenService jwtTokenService;
+
+    @BeforeEach
+    void setUp() {
+        JwtSigningConfigurationProperties configuration = new JwtSigningConfigurationProperties();
+        configuration.setKeyEncryptionSecret("a-test-secret");
+        signingKeyRing = new SigningKeyRing(new InMemorySigningKeyStore(), configuration);
+        jwtTokenService = new JwtTokenService(Duration.ofMinutes(5), signingKeyRing);
+    }
+
+    @Test
+    void shouldMintTheSameHeaderAndPayloadAsNimbus() throws Exception {
+        // Given
+        UserEntity user = user("jane.doe@example.com", true, "https://example.com/a.png?s=96&x=<y>");
+        ExternalIdentityEntity identity = identity("google", "109876543210987654321");
+        Instant issuedAt = Instant.ofEpochMilli(1_760_000_000_999L);
+        Instant expiresAt = issuedAt.plus(Duration.ofMinutes(5));
+
+        // When
+        String token = jwtTokenService.sign(user, identity, issuedAt, expiresAt);
+
+        // Then
+        SigningKey key = signingKeyRing.active();
+        assertEquals(nimbus(user, identity, issuedAt, expiresAt), signingInput(token));
+        assertEquals(key.kid(), SignedJWT.parse(token).getHeader().getKeyID());
+        assertTrue(SignedJWT.parse(token).verify(new ECDSAVerifier(key.publicJwk().toECKey())));
+    }
+
+    @Test
+    void shouldEscapeAndEncodeStringsLikeNimbus() throws Exception {
+        // Given
+        UserEntity user = user("\"quoted\"\\back\tslash\n\u0001@example.com", null, "ünïcödé ☃ 😀 \u2028 end");
+        ExternalIdentityEntity identity = identity("github", "\ud83d");
+        Instant issuedAt = Instant.ofEpochSecond(1_760_000_000L);
+        Instant expiresAt = issuedAt.plus(Duration.ofMinutes(5));
+
+        // When
+        String token = jwtTokenService.sign(user, identity, issuedAt, expiresAt);
+
+        // Then
+        assertEquals(nimbus(user, identity, issuedAt, expiresAt), signingInput(token));
+    }
+
+    @Test
+    void shouldLeaveOutMissingClaims() throws Exception {
+        // Given
+        UserEntity user = user(null, null, null);
+        ExternalIdentityEntity identity = identity(null, "subject");
+        Instant issuedAt = Instant.ofEpochSecond(1_760_000_000L);
+        Instant expiresAt = issuedAt.plus(Duration.ofMinutes(5));
+
+        // When
+        String token = jwtTokenService.sign(user, identity, issuedAt, expiresAt);
+
+        // Then
+        assertEquals(nimbus(user, identity, issuedAt, expiresAt), signingInput(token));
+        assertNull(SignedJWT.parse(token).getJWTClaimsSet().getClaim("email"));
+    }
+
+    @Test
+    void shouldMintTheSameHeaderAndPayloadAsNimbusForEveryCombinationOfClaims() throws Exception {
+        // Given
+        Instant issuedAt = Instant.ofEpochSecond(1_760_000_000L);
+        Instant expiresAt = issuedAt.plus(Duration.ofMinutes(5));
+
+        for (int present = 0; present < 32; present++) {
+            UserEntity user = user(
+                    (present & 1) != 0 ? "a@example.com" : null,
+                    (present & 2) != 0 ? Boolean.FALSE : null,
+                    (present & 4) != 0 ? "https://example.com/a.png" : null);
+            ExternalIdentityEntity identity = identity(
+                    (present & 8) != 0 ? "google" : null, (present & 16) != 0 ? "subject" : null);
+
+            // When
+            String token = jwtTokenService.sign(user, identity, issuedAt, expiresAt);
+
+            // Then
+            assertEquals(nimbus(user, identity, issuedAt, expiresAt), signingInput(token), "claims present: " + present);
+        }
+    }
+
+    @Test
+    void shouldReportTokenLifetime() {
+        // When
+        JwtTokenService.TokenDetails details =
+                jwtTokenService.generate(user("a@example.com", true, null), identity("google", "sub"));
+
+        // Then
+        assertEquals(300, details.expiresInSeconds());
+    }
+
+    @Test
+    void shouldSignClientTokensWithTheSameKey() throws Exception {
+        // Given
+        Instant issuedAt = Instant.ofEpochSecond(1_760_000_000L);
+
+        // When
+        String token = jwtTokenService
+                .generateForClient("billing-service", "users:read", issuedAt, issuedAt.plus(Duration.ofMinutes(15)))
+                .accessToken();
+
+        // Then
+        SignedJWT jwt = SignedJWT.parse(token);
+        assertTrue(jwt.verify(new ECDSAVerifier(signingKeyRing.active().publicJwk().toECKey())));
+        assertEquals("billing-service", jwt.getJWTClaimsSet().getSubject());
+        assertEquals("users:read", jwt.getJWTClaimsSet().getStringClaim(SocialAuthConstants.CLAIM_SCOPE));
+        assertNotNull(jwt.getJWTClaimsSet().getJWTID());
+    }
+
+    @Test
+    void shouldMintClientTokensLikeNimbus() throws Exception {
+        // Given
+        Instant issuedAt = Instant.ofEpochSecond(1_760_000_000L);
+        Instant expiresAt = issuedAt.plus(Duration.ofMinutes(15));
+
+        for (String scope : new String[] {"users:read", null}) {
+            // When
+            String token = jwtTokenService.signForClient("billing-service", scope, "token-id", issuedAt, expiresAt);
+
+            // Then
+            JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                    .subject("billing-service")
+                    .issuer("auth-service")
+                    .issueTime(Date.from(issuedAt))
+                    .expirationTime(Date.from(expiresAt))
+                    .jwtID("token-id")
+                    .claim(SocialAuthConstants.CLAIM_CLIENT_ID, "billing-service")
+                    .claim(SocialAuthConstants.CLAIM_SCOPE, scope)
+                    .build();
+            assertEquals(nimbus(claims), signingInput(token), "scope: " + scope);
+        }
+    }
+
+    private static String signingInput(String token) {
+        return token.substring(0, token.lastIndexOf('.'));
+    }
+
+    private String nimbus(UserEntity user, ExternalIdentityEntity identity, Instant issuedAt, Instant expiresAt) {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject(String.valueOf(user.getId()))
+                .issuer("auth-service")
+                .issueTime(Date.from(issuedAt))
+                .expirationTime(Date.from(expiresAt))
+                .claim("email", user.getEmail())
+                .claim(SocialAuthConstants.CLAIM_EMAIL_VERIFIED, user.getEmailVerified())
+                .claim(SocialAuthConstants.CLAIM_PICTURE, user.getPictureUrl())
+                .claim(SocialAuthConstants.ATTR_PROVIDER, identity.getProvider())
+                .claim(SocialAuthConstants.ATTR_EXTERNAL_SUBJECT, identity.getProviderUserId())
+                .build();
+        return nimbus(claims);
+    }
+
+    private String nimbus(JWTClaimsSet claims) {
+        SignedJWT jwt = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.ES256)
+                        .keyID(signingKeyRing.active().kid())
+                        .build(),
+                claims);
+        return new String(jwt.getSigningInput(), StandardCharsets.US_ASCII);
+    }
+
+    private static UserEntity user(String email, Boolean emailVerified, String pictureUrl) {
+        UserEntity user = new UserEntity();
+        user.setId(42L);
+        user.setEmail(email);
+        user.setEmailVerified(emailVerified);
+        user.setPictureUrl(pictureUrl);
+        return user;
+    }
+
+    private static ExternalIdentityEntity identity(String provider, String providerUserId) {
+        ExternalIdentityEntity identity = new ExternalIdentityEntity();
+        identity.setProvider(provider);
+        identity.setProviderUserId(providerUserId);
+        return identity;
+    }
+}
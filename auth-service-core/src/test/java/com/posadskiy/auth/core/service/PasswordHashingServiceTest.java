@@ -0,0 +1,144 @@
+package com.posadskiy.auth.core.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.posadskiy.auth.core.password.Argon2PasswordHashingEngine;
+import com.posadskiy.auth.core.password.BcryptPasswordHashingEngine;
+import com.posadskiy.auth.core.password.PasswordHashingEngine;
+import com.posadskiy.auth.core.password.Pbkdf2PasswordHashingEngine;
+import com.posadskiy.auth.core.password.ScryptPasswordHashingEngine;
+import com.posadskiy.auth.core.property.PasswordHashingConfigurationProperties;
+import com.posadskiy.auth.core.utils.PasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PasswordHashingServiceTest {
+
+    private static List<PasswordHashingEngine> engines() {
+        return List.of(
+                new BcryptPasswordHashingEngine(8, 9),
+                new Argon2PasswordHashingEngine(1024, 1, 1, 2),
+                new ScryptPasswordHashingEngine(8, 1, 10, 11),
+                new Pbkdf2PasswordHashingEngine(1000, 1500));
+    }
+
+    private static PasswordHashingService service(String algorithm) {
+        PasswordHashingConfigurationProperties properties = new PasswordHashingConfigurationProperties();
+        properties.setAlgorithm(algorithm);
+        properties.setCalibrationSamples(1);
+        return new PasswordHashingService(engines(), properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldEncodeAndMatchWithEachAlgorithm() {
+        for (String algorithm : List.of("bcrypt", "argon2", "scrypt", "pbkdf2")) {
+            // Given
+            PasswordHashingService hashingService = service(algorithm);
+
+            // When
+            String encoded = hashingService.encode("correctpassword");
+
+            // Then
+            assertTrue(hashingService.matches("correctpassword", encoded), algorithm);
+            assertFalse(hashingService.matches("wrongpassword", encoded), algorithm);
+            assertFalse(hashingService.needsRehash(encoded), algorithm);
+            assertEquals(!"bcrypt".equals(algorithm), encoded.startsWith("{" + algorithm + "}"), algorithm);
+        }
+    }
+
+    @Test
+    void shouldVerifyLegacyBcryptHashAndRequestUpgradeToActiveAlgorithm() {
+        // Given
+        String legacyHash = PasswordEncoder.encode("correctpassword");
+
+        // When
+        PasswordHashingService hashingService = service("argon2");
+
+        // Then
+        assertTrue(hashingService.matches("correctpassword", legacyHash));
+        assertTrue(hashingService.needsRehash(legacyHash));
+        assertFalse(service("bcrypt").needsRehash(legacyHash));
+    }
+
+    @Test
+    void shouldRejectUnknownAlgorithmPrefix() {
+        // Given
+        PasswordHashingService hashingService = service("bcrypt");
+
+        // When & Then
+        assertFalse(hashingService.matches("correctpassword", "{md5}5f4dcc3b5aa765d61d8327deb882cf99"));
+        assertThrows(IllegalArgumentException.class, () -> hashingService.matches(null, "{md5}"));
+    }
+
+    @Test
+    void shouldRejectMalformedPbkdf2Hashes() {
+        // Given
+        PasswordHashingService hashingService = service("pbkdf2");
+
+        for (String malformed : List.of(
+                "{pbkdf2}many$c2FsdHNhbHRzYWx0c2FsdA$aGFzaA",
+                "{pbkdf2}1000$not*base64$aGFzaA",
+                "{pbkdf2}1000$$aGFzaA",
+                "{pbkdf2}0$c2FsdHNhbHRzYWx0c2FsdA$aGFzaA")) {
+            // When & Then
+            assertFalse(hashingService.matches("correctpassword", malformed), malformed);
+            assertFalse(hashingService.needsRehash(malformed), malformed);
+        }
+    }
+
+    @Test
+    void shouldRaiseCostUpToMaximumWhenBudgetAllows() {
+        // Given
+        PasswordHashingConfigurationProperties properties = new PasswordHashingConfigurationProperties();
+        properties.setVerifyLatencyBudget(Duration.ofMinutes(1));
+        properties.setCalibrationSamples(1);
+        PasswordHashingService hashingService =
+                new PasswordHashingService(engines(), properties, new SimpleMeterRegistry());
+        String minimumCostHash = hashingService.encode("correctpassword");
+
+        // When
+        hashingService.calibrate();
+
+        // Then
+        assertEquals(9, hashingService.cost("bcrypt"));
+        assertTrue(hashingService.needsRehash(minimumCostHash));
+    }
+
+    @Test
+    void shouldCalibrateOnlyTheActiveEngine() {
+        // Given
+        PasswordHashingConfigurationProperties properties = new PasswordHashingConfigurationProperties();
+        properties.setAlgorithm("pbkdf2");
+        properties.setVerifyLatencyBudget(Duration.ofMinutes(1));
+        properties.setCalibrationSamples(1);
+        PasswordHashingService hashingService =
+                new PasswordHashingService(engines(), properties, new SimpleMeterRegistry());
+
+        // When
+        hashingService.calibrate();
+
+        // Then
+        assertEquals(1500, hashingService.cost("pbkdf2"));
+        assertEquals(8, hashingService.cost("bcrypt"));
+        assertEquals(1, hashingService.cost("argon2"));
+        assertEquals(10, hashingService.cost("scrypt"));
+    }
+
+    @Test
+    void shouldKeepMinimumCostWhenBudgetIsExceeded() {
+        // Given
+        PasswordHashingConfigurationProperties properties = new PasswordHashingConfigurationProperties();
+        properties.setVerifyLatencyBudget(Duration.ofNanos(1));
+        properties.setCalibrationSamples(1);
+        PasswordHashingService hashingService =
+                new PasswordHashingService(engines(), properties, new SimpleMeterRegistry());
+
+        // When
+        hashingService.calibrate();
+
+        // Then
+        assertEquals(8, hashingService.cost("bcrypt"));
+    }
+}
@@ -0,0 +1,98 @@
+package com.posadskiy.auth.core.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.posadskiy.auth.core.exception.ServiceOverloadedException;
+import com.posadskiy.auth.core.password.BcryptPasswordHashingEngine;
+import com.posadskiy.auth.core.property.PasswordHashingConfigurationProperties;
+import com.posadskiy.auth.core.property.PasswordVerificationConfigurationProperties;
+import com.posadskiy.auth.core.utils.PasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PasswordVerificationServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordVerificationService verificationService;
+
+    @BeforeEach
+    void setUp() {
+        PasswordVerificationConfigurationProperties properties = new PasswordVerificationConfigurationProperties();
+        properties.setPoolSize(1);
+        properties.setQueueCapacity(1);
+        properties.setTimeout(Duration.ofSeconds(5));
+        properties.setRetryAfter(Duration.ofSeconds(2));
+        meterRegistry = new SimpleMeterRegistry();
+        PasswordHashingService hashingService = new PasswordHashingService(
+                List.of(new BcryptPasswordHashingEngine(8, 8)),
+                new PasswordHashingConfigurationProperties(),
+                meterRegistry);
+        verificationService = new PasswordVerificationService(hashingService, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        verificationService.shutdown();
+    }
+
+    @Test
+    void shouldVerifyPasswordOnVerifierPool() {
+        // Given
+        String encodedPassword = PasswordEncoder.encode("correctpassword");
+
+        // When & Then
+        assertTrue(verificationService.verify("correctpassword", encodedPassword));
+        assertFalse(verificationService.verify("wrongpassword", encodedPassword));
+        assertEquals(2, meterRegistry.get("auth.password.verify.duration").timer().count());
+    }
+
+    @Test
+    void shouldPropagateVerificationErrors() {
+        // Given
+        String encodedPassword = PasswordEncoder.encode("correctpassword");
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> verificationService.verify(null, encodedPassword));
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFull() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> verificationService.execute(() -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued =
+                CompletableFuture.supplyAsync(() -> verificationService.execute(() -> Boolean.TRUE));
+        while (!verificationService.isSaturated()) {
+            Thread.onSpinWait();
+        }
+
+        // When
+        ServiceOverloadedException exception = assertThrows(
+                ServiceOverloadedException.class, () -> verificationService.execute(() -> Boolean.TRUE));
+
+        // Then
+        assertEquals(Duration.ofSeconds(2), exception.getRetryAfter());
+        assertEquals(
+                1.0,
+                meterRegistry
+                        .get("auth.password.verify.rejected")
+                        .tag("cause", "queue_full")
+                        .counter()
+                        .count());
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+}
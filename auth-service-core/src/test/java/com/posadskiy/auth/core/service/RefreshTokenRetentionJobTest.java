@@ -0,0 +1,97 @@
+package com.posadskiy.auth.core.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.posadskiy.auth.core.property.RefreshTokenExpiryConfigurationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.data.connection.ConnectionOperations;
+import io.micronaut.data.connection.ConnectionStatus;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RefreshTokenRetentionJobTest {
+
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement create = mock(PreparedStatement.class);
+    private final PreparedStatement newest = mock(PreparedStatement.class);
+    private final PreparedStatement expired = mock(PreparedStatement.class);
+    private final RefreshTokenExpiryConfigurationProperties configuration =
+            new RefreshTokenExpiryConfigurationProperties();
+    private final Instant partitionedUntil = Instant.now().plus(Duration.ofDays(5));
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshTokenRetentionJob job;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        when(connection.prepareStatement(startsWith("SELECT refresh_token_create_partitions"))).thenReturn(create);
+        when(connection.prepareStatement(startsWith("SELECT max(upper_bound)"))).thenReturn(newest);
+        when(connection.prepareStatement(startsWith("SELECT partition_name"))).thenReturn(expired);
+        ResultSet created = mock(ResultSet.class);
+        when(created.next()).thenReturn(true);
+        when(created.getInt(1)).thenReturn(1);
+        when(create.executeQuery()).thenReturn(created);
+        ResultSet upperBound = mock(ResultSet.class);
+        when(upperBound.next()).thenReturn(true);
+        when(upperBound.getTimestamp(1)).thenReturn(Timestamp.from(partitionedUntil));
+        when(newest.executeQuery()).thenReturn(upperBound);
+        when(expired.executeQuery()).thenReturn(mock(ResultSet.class));
+
+        ConnectionStatus<Connection> status = mock(ConnectionStatus.class);
+        when(status.getConnection()).thenReturn(connection);
+        ConnectionOperations<Connection> connectionOperations = mock(ConnectionOperations.class);
+        when(connectionOperations.executeWrite(any())).thenAnswer(invocation -> invocation
+                .<Function<ConnectionStatus<Connection>, ?>>getArgument(0)
+                .apply(status));
+        meterRegistry = new SimpleMeterRegistry();
+        job = new RefreshTokenRetentionJob(connectionOperations, configuration, meterRegistry);
+    }
+
+    @Test
+    void shouldCreatePartitionsWithRetentionDisabled() throws Exception {
+        // Given
+        configuration.setRetentionEnabled(false);
+
+        // When
+        job.run();
+
+        // Then
+        verify(create).setInt(1, configuration.getPartitionsAhead());
+        verify(connection, never()).prepareStatement(startsWith("SELECT partition_name"));
+    }
+
+    @Test
+    void shouldStillDropExpiredPartitionsWhenCreationFails() throws Exception {
+        // Given
+        when(create.executeQuery()).thenThrow(new SQLException("lock timeout"));
+
+        // When
+        job.run();
+
+        // Then
+        verify(expired).executeQuery();
+    }
+
+    @Test
+    void shouldPublishDaysOfPartitionsAhead() {
+        // Given
+        assertTrue(Double.isNaN(meterRegistry.get("auth.refresh.token.partitions.days.ahead").gauge().value()));
+
+        // When
+        job.run();
+
+        // Then
+        assertEquals(5, meterRegistry.get("auth.refresh.token.partitions.days.ahead").gauge().value(), 0.01);
+        assertEquals(2, job.daysAhead(partitionedUntil.minus(Duration.ofDays(2))), 0.0001);
+    }
+}
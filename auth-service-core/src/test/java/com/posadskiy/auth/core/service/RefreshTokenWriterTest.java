@@ -0,0 +1,154 @@
+package com.posadskiy.auth.core.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.posadskiy.auth.core.property.RefreshTokenExpiryConfigurationProperties;
+import com.posadskiy.auth.core.property.RefreshTokenWriteConfigurationProperties;
+import com.posadskiy.auth.core.storage.db.RefreshTokenRepository;
+import com.posadskiy.auth.core.storage.db.entity.RefreshTokenEntity;
+import com.posadskiy.auth.core.utils.TokenDigest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.data.exceptions.DataAccessException;
+import io.micronaut.transaction.TransactionCallback;
+import io.micronaut.transaction.TransactionOperations;
+import io.micronaut.transaction.TransactionStatus;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RefreshTokenWriterTest {
+
+    private final RefreshTokenRepository refreshTokenRepository = mock(RefreshTokenRepository.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Connection connection = mock(Connection.class);
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshTokenWriter writer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        TransactionStatus<Connection> status = mock(TransactionStatus.class);
+        when(status.getConnection()).thenReturn(connection);
+        TransactionOperations<Connection> transactionOperations = mock(TransactionOperations.class);
+        when(transactionOperations.executeWrite(any())).thenAnswer(invocation -> invocation
+                .<TransactionCallback<Connection, ?>>getArgument(0)
+                .apply(status));
+
+        RefreshTokenWriteConfigurationProperties configuration = new RefreshTokenWriteConfigurationProperties();
+        configuration.setMaxBatchSize(3);
+        configuration.setMaxDelay(Duration.ofSeconds(5));
+        RefreshTokenExpiryConfigurationProperties expiryConfiguration = new RefreshTokenExpiryConfigurationProperties();
+        expiryConfiguration.setMaxSessions(3);
+        meterRegistry = new SimpleMeterRegistry();
+        writer = new RefreshTokenWriter(
+                refreshTokenRepository, transactionOperations, configuration, expiryConfiguration, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.shutdown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void shouldCommitConcurrentWritesAsOneBatch() throws Exception {
+        // When
+        List<CompletableFuture<Void>> writes = List.of(write(1L), write(2L), write(3L));
+        CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+
+        // Then
+        verify(statement, times(3)).addBatch();
+        verify(statement).executeBatch();
+        verify(refreshTokenRepository, never()).save(any());
+        DistributionSummary batchSize =
+                meterRegistry.get("auth.refresh.token.write.batch.size").summary();
+        assertEquals(1, batchSize.count());
+        assertEquals(3, batchSize.totalAmount());
+    }
+
+    @Test
+    void shouldRevokeSessionsBeyondTheCapInTheInsertStatement() throws Exception {
+        // When
+        CompletableFuture.allOf(write(1L), write(2L), write(3L)).join();
+
+        // Then
+        verify(connection).prepareStatement(RefreshTokenWriter.CAPPED_INSERT_SQL);
+        verify(statement).setLong(7, 2L);
+        verify(statement, times(3)).setInt(9, 2);
+    }
+
+    @Test
+    void shouldFailOnlyTheRowThatCannotBeInserted() throws Exception {
+        // Given
+        when(statement.executeBatch())
+                .thenThrow(new SQLException("batch failed"))
+                .thenReturn(new int[] {1})
+                .thenThrow(new SQLException("foreign key violation"))
+                .thenReturn(new int[] {1});
+
+        // When
+        List<CompletableFuture<Void>> writes = List.of(write(1L), write(2L), write(3L));
+
+        // Then
+        long failed = writes.stream()
+                .filter(write -> {
+                    try {
+                        write.join();
+                        return false;
+                    } catch (CompletionException e) {
+                        assertInstanceOf(DataAccessException.class, e.getCause());
+                        return true;
+                    }
+                })
+                .count();
+        assertEquals(1, failed);
+        verify(statement, times(4)).executeBatch();
+    }
+
+    @Test
+    void shouldSaveDirectlyWhenBatchingIsDisabled() throws InterruptedException {
+        // Given
+        RefreshTokenWriteConfigurationProperties configuration = new RefreshTokenWriteConfigurationProperties();
+        configuration.setBatchEnabled(false);
+        RefreshTokenWriter direct = new RefreshTokenWriter(
+                refreshTokenRepository,
+                null,
+                configuration,
+                new RefreshTokenExpiryConfigurationProperties(),
+                meterRegistry);
+        RefreshTokenEntity entity = entity(1L);
+
+        // When
+        direct.write(entity);
+
+        // Then
+        verify(refreshTokenRepository).save(entity);
+        direct.shutdown();
+    }
+
+    private CompletableFuture<Void> write(long userId) {
+        return CompletableFuture.runAsync(() -> writer.write(entity(userId)), callers);
+    }
+
+    private static RefreshTokenEntity entity(long userId) {
+        RefreshTokenEntity entity = new RefreshTokenEntity();
+        entity.setUserId(userId);
+        entity.setTokenDigest(TokenDigest.sha256("token-" + userId));
+        entity.setRevoked(Boolean.FALSE);
+        return entity;
+    }
+}
@@ -0,0 +1,136 @@
+package com.posadskiy.auth.core.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.posadskiy.auth.core.EnvelopeRefreshTokenGenerator;
+import com.posadskiy.auth.core.cache.RefreshTokenCache;
+import com.posadskiy.auth.core.jwk.AccessTokenVerifier;
+import com.posadskiy.auth.core.jwk.InMemorySigningKeyStore;
+import com.posadskiy.auth.core.jwk.SigningKeyRing;
+import com.posadskiy.auth.core.property.JwtSigningConfigurationProperties;
+import com.posadskiy.auth.core.property.RefreshTokenExpiryConfigurationProperties;
+import com.posadskiy.auth.core.property.TokenIntrospectionCacheConfigurationProperties;
+import com.posadskiy.auth.core.storage.db.RefreshTokenRepository;
+import com.posadskiy.auth.core.utils.TokenDigest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.security.token.jwt.generator.RefreshTokenConfigurationProperties;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TokenIntrospectionServiceTest {
+
+    @Mock
+    private RefreshTokenCache refreshTokenCache;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private JwtTokenService jwtTokenService;
+    private AccessTokenVerifier accessTokenVerifier;
+    private EnvelopeRefreshTokenGenerator refreshTokenGenerator;
+    private TokenIntrospectionService service;
+
+    @BeforeEach
+    void setUp() {
+        JwtSigningConfigurationProperties signing = new JwtSigningConfigurationProperties();
+        signing.setKeyEncryptionSecret("a-test-secret");
+        SigningKeyRing signingKeyRing = new SigningKeyRing(new InMemorySigningKeyStore(), signing);
+        jwtTokenService = new JwtTokenService(Duration.ofMinutes(5), signingKeyRing);
+        accessTokenVerifier = spy(new AccessTokenVerifier(signingKeyRing));
+        RefreshTokenConfigurationProperties refreshTokenConfiguration = new RefreshTokenConfigurationProperties();
+        refreshTokenConfiguration.setSecret("test-secret-key-for-jwt-signing");
+        refreshTokenGenerator = new EnvelopeRefreshTokenGenerator(
+                refreshTokenConfiguration, new RefreshTokenExpiryConfigurationProperties());
+        service = new TokenIntrospectionService(
+                accessTokenVerifier,
+                refreshTokenGenerator,
+                refreshTokenCache,
+                refreshTokenRepository,
+                new TokenIntrospectionCacheConfigurationProperties(),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldVerifyAccessTokenOnceAndAnswerRepeatsFromCache() {
+        // Given
+        Instant now = Instant.now();
+        String token = jwtTokenService
+                .generateForClient("billing-service", "users:read", now, now.plus(Duration.ofMinutes(15)))
+                .accessToken();
+
+        // When
+        TokenIntrospectionService.Introspection first = service.introspect(token);
+        TokenIntrospectionService.Introspection second = service.introspect(token);
+
+        // Then
+        assertTrue(first.active());
+        assertEquals("billing-service", first.subject());
+        assertEquals("billing-service", first.clientId());
+        assertEquals("users:read", first.scope());
+        assertEquals(TokenIntrospectionService.ACCESS_TOKEN, first.tokenType());
+        assertEquals(now.plus(Duration.ofMinutes(15)).getEpochSecond(), first.expiresAt().getEpochSecond());
+        assertSame(first, second);
+        verify(accessTokenVerifier, times(1)).verify(any(), any());
+    }
+
+    @Test
+    void shouldReportExpiredAndTamperedAccessTokensInactive() {
+        // Given
+        Instant issuedAt = Instant.now().minus(Duration.ofHours(1));
+        String expired = jwtTokenService
+                .generateForClient("billing-service", "users:read", issuedAt, issuedAt.plus(Duration.ofMinutes(15)))
+                .accessToken();
+        String valid = jwtTokenService
+                .generateForClient("billing-service", "users:read", Instant.now(), Instant.now().plusSeconds(60))
+                .accessToken();
+        String tampered = valid.substring(0, valid.length() - 4) + (valid.endsWith("AAAA") ? "BBBB" : "AAAA");
+
+        // When & Then
+        assertFalse(service.introspect(expired).active());
+        assertFalse(service.introspect(tampered).active());
+        assertFalse(service.introspect("not-a-token").active());
+        assertFalse(service.introspect(null).active());
+    }
+
+    @Test
+    void shouldReportRefreshTokenActiveUntilRevokedOnAnyInstance() {
+        // Given
+        String key = refreshTokenGenerator.createKey(42L);
+        String token = refreshTokenGenerator.sign(key);
+        byte[] digest = TokenDigest.sha256(key);
+        when(refreshTokenRepository.isLive(eq(digest), any(), any())).thenReturn(true, false);
+
+        // When
+        TokenIntrospectionService.Introspection live = service.introspect(token);
+        TokenIntrospectionService.Introspection revoked = service.introspect(token);
+
+        // Then
+        assertTrue(live.active());
+        assertEquals("42", live.subject());
+        assertEquals(TokenIntrospectionService.REFRESH_TOKEN, live.tokenType());
+        assertFalse(revoked.active());
+    }
+
+    @Test
+    void shouldTrustOnlyRevocationsFromTheCache() {
+        // Given
+        String key = refreshTokenGenerator.createKey(42L);
+        when(refreshTokenCache.isRevoked(eq(42L), any())).thenReturn(true);
+
+        // When
+        TokenIntrospectionService.Introspection introspection = service.introspect(refreshTokenGenerator.sign(key));
+
+        // Then
+        assertFalse(introspection.active());
+        verifyNoInteractions(refreshTokenRepository);
+    }
+}
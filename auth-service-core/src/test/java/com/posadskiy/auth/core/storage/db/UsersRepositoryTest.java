@@ -0,0 +1,91 @@
+package com.posadskiy.auth.core.storage.db;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.posadskiy.auth.core.storage.db.projection.UserCredentialProjection;
+import com.posadskiy.auth.core.storage.db.projection.UserEmailProjection;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(startApplication = false, transactional = false)
+@Property(name = "datasources.default.url", value = UsersRepositoryTest.URL)
+@Property(name = "datasources.default.driver-class-name", value = "org.h2.Driver")
+@Property(name = "datasources.default.username", value = "sa")
+@Property(name = "datasources.default.password", value = "")
+@Property(name = "flyway.enabled", value = "false")
+@Property(name = "auth.identity-filter.enabled", value = "false")
+@Property(name = "auth.jwt.signing.key-encryption-secret", value = "a-test-secret")
+class UsersRepositoryTest {
+
+    static final String URL = "jdbc:h2:mem:users;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Inject
+    UsersRepository usersRepository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS users");
+            statement.execute("""
+                    CREATE TABLE users
+                    (
+                        id               BIGSERIAL PRIMARY KEY,
+                        username         VARCHAR(255) NOT NULL UNIQUE,
+                        email            VARCHAR(255) NOT NULL UNIQUE,
+                        email_normalized VARCHAR(255) GENERATED ALWAYS AS (LOWER(TRIM(email))),
+                        password_hash    TEXT,
+                        email_verified   BOOLEAN DEFAULT FALSE,
+                        picture_url      TEXT,
+                        last_login_at    TIMESTAMP WITH TIME ZONE,
+                        version          BIGINT DEFAULT 0 NOT NULL,
+                        created_at       TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+                        updated_at       TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+                        active           BOOLEAN NOT NULL DEFAULT TRUE,
+                        deactivated_at   TIMESTAMP WITH TIME ZONE
+                    )""");
+            statement.execute("INSERT INTO users (id, username, email, password_hash, picture_url) VALUES "
+                    + "(1, 'jane', 'Jane.Doe@example.com', 'jane-hash', 'https://example.com/jane.png'), "
+                    + "(2, 'john', 'john@example.com', 'john-hash', NULL)");
+            statement.execute("UPDATE users SET active = FALSE, deactivated_at = CURRENT_TIMESTAMP WHERE id = 2");
+        }
+    }
+
+    @Test
+    void shouldReadOnlyIdAndPasswordHashOfActiveUser() {
+        // When
+        Optional<UserCredentialProjection> credentials =
+                usersRepository.findCredentialsByEmail(" jane.doe@EXAMPLE.com ");
+
+        // Then
+        assertEquals(Optional.of(new UserCredentialProjection(1L, "jane-hash")), credentials);
+    }
+
+    @Test
+    void shouldNotFindCredentialsOfInactiveUser() {
+        // When & Then
+        assertTrue(usersRepository.findCredentialsByEmail("john@example.com").isEmpty());
+    }
+
+    @Test
+    void shouldNotFindCredentialsOfUnknownEmail() {
+        // When & Then
+        assertTrue(usersRepository.findCredentialsByEmail("unknown@example.com").isEmpty());
+    }
+
+    @Test
+    void shouldPageEmailsOfActiveUsersOnly() {
+        // When & Then
+        assertEquals(
+                List.of(new UserEmailProjection(1L, "Jane.Doe@example.com")),
+                usersRepository.findEmailsAfter(0, 10));
+    }
+}
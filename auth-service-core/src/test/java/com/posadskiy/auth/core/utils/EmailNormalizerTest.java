@@ -0,0 +1,28 @@
+package com.posadskiy.auth.core.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class EmailNormalizerTest {
+
+    @Test
+    void shouldStripSpacesAndLowercase() {
+        // When
+        String normalized = EmailNormalizer.normalize("  John.Doe@Example.COM ");
+
+        // Then
+        assertEquals("john.doe@example.com", normalized);
+    }
+
+    @Test
+    void shouldKeepOtherWhitespaceLikeBtrim() {
+        // When
+        String normalized = EmailNormalizer.normalize(" \tJohn@Example.com\n ");
+
+        // Then
+        assertEquals("\tjohn@example.com\n", normalized);
+        assertEquals("", EmailNormalizer.normalize("   "));
+        assertNull(EmailNormalizer.normalize(null));
+    }
+}
@@ -0,0 +1,30 @@
+package com.posadskiy.auth.core.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HexFormat;
+import org.junit.jupiter.api.Test;
+
+class TokenDigestTest {
+
+    @Test
+    void shouldMatchSha256OfUtf8Bytes() {
+        // When
+        byte[] digest = TokenDigest.sha256("abc");
+
+        // Then
+        assertEquals(TokenDigest.LENGTH, digest.length);
+        assertEquals(
+                "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                HexFormat.of().formatHex(digest));
+    }
+
+    @Test
+    void shouldKeepFixedLengthForLongTokens() {
+        // When
+        byte[] digest = TokenDigest.sha256("a".repeat(4096));
+
+        // Then
+        assertEquals(TokenDigest.LENGTH, digest.length);
+    }
+}
@@ -0,0 +1,87 @@
+package com.posadskiy.auth.web.controller;
+
+import com.posadskiy.auth.core.exception.ErrorMessage;
+import com.posadskiy.auth.core.ratelimit.ClientRateLimiter;
+import com.posadskiy.auth.core.service.BatchTokenValidationService;
+import com.posadskiy.auth.core.service.BatchTokenValidationService.Result;
+import com.posadskiy.auth.core.service.ClientCredentialsService;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Body;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Header;
+import io.micronaut.http.annotation.Post;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.annotation.ExecuteOn;
+import io.micronaut.security.annotation.Secured;
+import io.micronaut.security.rules.SecurityRule;
+import io.micronaut.serde.annotation.Serdeable;
+import java.util.List;
+
+/**
+ * Validates many access tokens in one round trip, for gateways fronting many requests. Callers are
+ * registered service clients authenticating with HTTP Basic, as at the token endpoint. Results come
+ * back in the order of the tokens.
+ */
+@Secured(SecurityRule.IS_ANONYMOUS)
+@Controller("/oauth2")
+public class BatchTokenValidationController {
+
+    private final ClientCredentialsService clientCredentialsService;
+    private final BatchTokenValidationService batchTokenValidationService;
+    private final ClientRateLimiter clientRateLimiter;
+
+    public BatchTokenValidationController(
+            ClientCredentialsService clientCredentialsService,
+            BatchTokenValidationService batchTokenValidationService,
+            ClientRateLimiter clientRateLimiter) {
+        this.clientCredentialsService = clientCredentialsService;
+        this.batchTokenValidationService = batchTokenValidationService;
+        this.clientRateLimiter = clientRateLimiter;
+    }
+
+    // Waits for the validator pool, and a client's first call verifies its secret against the hash
+    @ExecuteOn(TaskExecutors.BLOCKING)
+    @Post(value = "/validate/batch", consumes = MediaType.APPLICATION_JSON)
+    public HttpResponse<?> validate(
+            HttpRequest<?> httpRequest,
+            @Nullable @Header(HttpHeaders.AUTHORIZATION) String authorization,
+            @Body BatchValidationRequest request) {
+        ClientAuthentication client = ClientAuthentication.of(authorization, null, null);
+        clientRateLimiter.acquire(httpRequest, client.clientId());
+        clientCredentialsService.authenticate(client.clientId(), client.clientSecret());
+
+        List<String> tokens = request.tokens() == null ? List.of() : request.tokens();
+        if (tokens.size() > batchTokenValidationService.getMaxTokens()) {
+            return HttpResponse.badRequest(new ErrorMessage(
+                    false, "At most " + batchTokenValidationService.getMaxTokens() + " tokens per batch"));
+        }
+        List<TokenValidation> results = batchTokenValidationService.validate(tokens).stream()
+                .map(TokenValidation::of)
+                .toList();
+        return HttpResponse.ok(new BatchValidationResponse(results)).header(HttpHeaders.CACHE_CONTROL, "no-store");
+    }
+
+    @Serdeable
+    public record BatchValidationRequest(@Nullable List<String> tokens) {}
+
+    @Serdeable
+    public record BatchValidationResponse(List<TokenValidation> results) {}
+
+    /** {@code expiry} in epoch seconds; {@code reason} only for an invalid token. */
+    @Serdeable
+    public record TokenValidation(
+            boolean valid, @Nullable String subject, @Nullable Long expiry, @Nullable String reason) {
+
+        static TokenValidation of(Result result) {
+            return new TokenValidation(
+                    result.valid(),
+                    result.subject(),
+                    result.expiresAt() == null ? null : result.expiresAt().getEpochSecond(),
+                    result.reason());
+        }
+    }
+}
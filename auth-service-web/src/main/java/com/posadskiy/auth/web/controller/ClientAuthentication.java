@@ -0,0 +1,43 @@
+package com.posadskiy.auth.web.controller;
+
+import com.posadskiy.auth.core.exception.ClientCredentialsException;
+import io.micronaut.core.annotation.Nullable;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Client credentials presented to an OAuth endpoint: HTTP Basic when given, otherwise the
+ * {@code client_id}/{@code client_secret} form fields (RFC 6749 section 2.3.1).
+ */
+record ClientAuthentication(@Nullable String clientId, @Nullable String clientSecret) {
+
+    private static final String BASIC_PREFIX = "Basic ";
+
+    static ClientAuthentication of(
+            @Nullable String authorization, @Nullable String clientId, @Nullable String clientSecret) {
+        if (authorization != null && authorization.regionMatches(true, 0, BASIC_PREFIX, 0, BASIC_PREFIX.length())) {
+            return basic(authorization.substring(BASIC_PREFIX.length()));
+        }
+        return new ClientAuthentication(clientId, clientSecret);
+    }
+
+    private static ClientAuthentication basic(String encoded) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getDecoder().decode(encoded.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ClientCredentialsException(
+                    ClientCredentialsException.INVALID_CLIENT, "Malformed Basic credentials");
+        }
+        int colon = decoded.indexOf(':');
+        if (colon < 0) {
+            throw new ClientCredentialsException(
+                    ClientCredentialsException.INVALID_CLIENT, "Malformed Basic credentials");
+        }
+        // both parts are form-urlencoded before being joined
+        return new ClientAuthentication(
+                URLDecoder.decode(decoded.substring(0, colon), StandardCharsets.UTF_8),
+                URLDecoder.decode(decoded.substring(colon + 1), StandardCharsets.UTF_8));
+    }
+}
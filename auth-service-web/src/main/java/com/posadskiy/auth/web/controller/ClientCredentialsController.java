@@ -0,0 +1,71 @@
+package com.posadskiy.auth.web.controller;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.posadskiy.auth.core.exception.ClientCredentialsException;
+import com.posadskiy.auth.core.ratelimit.ClientRateLimiter;
+import com.posadskiy.auth.core.service.ClientCredentialsService;
+import com.posadskiy.auth.core.service.ClientCredentialsService.GrantedToken;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Body;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Header;
+import io.micronaut.http.annotation.Post;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.annotation.ExecuteOn;
+import io.micronaut.security.annotation.Secured;
+import io.micronaut.security.rules.SecurityRule;
+import io.micronaut.serde.annotation.Serdeable;
+
+/**
+ * OAuth 2.0 token endpoint for the client credentials grant (RFC 6749 section 4.4). Clients
+ * authenticate with HTTP Basic or with {@code client_id}/{@code client_secret} form fields.
+ */
+@Secured(SecurityRule.IS_ANONYMOUS)
+@Controller("/oauth2")
+public class ClientCredentialsController {
+
+    private static final String CLIENT_CREDENTIALS = "client_credentials";
+
+    private final ClientCredentialsService clientCredentialsService;
+    private final ClientRateLimiter clientRateLimiter;
+
+    public ClientCredentialsController(
+            ClientCredentialsService clientCredentialsService, ClientRateLimiter clientRateLimiter) {
+        this.clientCredentialsService = clientCredentialsService;
+        this.clientRateLimiter = clientRateLimiter;
+    }
+
+    // The first grant for a secret verifies it against its hash, which blocks
+    @ExecuteOn(TaskExecutors.BLOCKING)
+    @Post(value = "/token", consumes = MediaType.APPLICATION_FORM_URLENCODED)
+    public HttpResponse<ClientCredentialsTokenResponse> token(
+            HttpRequest<?> httpRequest,
+            @Nullable @Header(HttpHeaders.AUTHORIZATION) String authorization,
+            @Body("grant_type") @Nullable String grantType,
+            @Body("scope") @Nullable String scope,
+            @Body("client_id") @Nullable String clientId,
+            @Body("client_secret") @Nullable String clientSecret) {
+        if (!CLIENT_CREDENTIALS.equals(grantType)) {
+            throw new ClientCredentialsException(
+                    ClientCredentialsException.UNSUPPORTED_GRANT_TYPE, "Only client_credentials is supported");
+        }
+        ClientAuthentication client = ClientAuthentication.of(authorization, clientId, clientSecret);
+        clientRateLimiter.acquire(httpRequest, client.clientId());
+
+        GrantedToken token = clientCredentialsService.grant(client.clientId(), client.clientSecret(), scope);
+        return HttpResponse.ok(new ClientCredentialsTokenResponse(
+                        token.accessToken(), "Bearer", token.expiresInSeconds(), token.scope()))
+                .header(HttpHeaders.CACHE_CONTROL, "no-store");
+    }
+
+    @Serdeable
+    public record ClientCredentialsTokenResponse(
+            @JsonProperty("access_token") String accessToken,
+            @JsonProperty("token_type") String tokenType,
+            @JsonProperty("expires_in") long expiresIn,
+            @JsonProperty("scope") String scope) {}
+}
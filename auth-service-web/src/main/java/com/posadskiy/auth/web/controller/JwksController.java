@@ -0,0 +1,46 @@
+package com.posadskiy.auth.web.controller;
+
+import com.posadskiy.auth.core.jwk.SigningKeyRing;
+import com.posadskiy.auth.core.jwk.SigningKeyRing.Jwks;
+import com.posadskiy.auth.core.property.JwtSigningConfigurationProperties;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.Header;
+import io.micronaut.security.annotation.Secured;
+import io.micronaut.security.rules.SecurityRule;
+
+/**
+ * Public keys that access tokens are signed with, for services verifying them locally. The body is
+ * serialized once per key change; a matching {@code If-None-Match} is answered with 304 and caches may
+ * keep it for {@code auth.jwt.signing.jwks-max-age}, which must stay shorter than the publish-ahead.
+ */
+@Secured(SecurityRule.IS_ANONYMOUS)
+@Controller("/.well-known")
+public class JwksController {
+
+    private final SigningKeyRing signingKeyRing;
+    private final String cacheControl;
+
+    public JwksController(SigningKeyRing signingKeyRing, JwtSigningConfigurationProperties configuration) {
+        this.signingKeyRing = signingKeyRing;
+        this.cacheControl = "public, max-age=" + configuration.getJwksMaxAge().toSeconds();
+    }
+
+    @Get(value = "/jwks.json", produces = MediaType.APPLICATION_JSON)
+    public HttpResponse<byte[]> jwks(@Nullable @Header(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        Jwks jwks = signingKeyRing.jwks();
+        if (jwks.etag().equals(ifNoneMatch)) {
+            return HttpResponse.<byte[]>notModified()
+                    .header(HttpHeaders.ETAG, jwks.etag())
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+        return HttpResponse.ok(jwks.body())
+                .contentType(MediaType.APPLICATION_JSON_TYPE)
+                .header(HttpHeaders.ETAG, jwks.etag())
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl);
+    }
+}
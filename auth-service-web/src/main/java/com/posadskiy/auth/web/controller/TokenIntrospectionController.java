@@ -0,0 +1,97 @@
+package com.posadskiy.auth.web.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.posadskiy.auth.core.ratelimit.ClientRateLimiter;
+import com.posadskiy.auth.core.service.ClientCredentialsService;
+import com.posadskiy.auth.core.service.TokenIntrospectionService;
+import com.posadskiy.auth.core.service.TokenIntrospectionService.Introspection;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Body;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Header;
+import io.micronaut.http.annotation.Post;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.annotation.ExecuteOn;
+import io.micronaut.security.annotation.Secured;
+import io.micronaut.security.rules.SecurityRule;
+import io.micronaut.serde.annotation.Serdeable;
+import java.time.Instant;
+
+/**
+ * OAuth 2.0 token introspection (RFC 7662) for registered service clients, which authenticate the
+ * same way as at the token endpoint.
+ */
+@Secured(SecurityRule.IS_ANONYMOUS)
+@Controller("/oauth2")
+public class TokenIntrospectionController {
+
+    private static final IntrospectionResponse INACTIVE =
+            new IntrospectionResponse(false, null, null, null, null, null, null, null, null);
+
+    private final ClientCredentialsService clientCredentialsService;
+    private final TokenIntrospectionService tokenIntrospectionService;
+    private final ClientRateLimiter clientRateLimiter;
+
+    public TokenIntrospectionController(
+            ClientCredentialsService clientCredentialsService,
+            TokenIntrospectionService tokenIntrospectionService,
+            ClientRateLimiter clientRateLimiter) {
+        this.clientCredentialsService = clientCredentialsService;
+        this.tokenIntrospectionService = tokenIntrospectionService;
+        this.clientRateLimiter = clientRateLimiter;
+    }
+
+    // A client's first call verifies its secret against the hash, and refresh tokens may be looked up
+    @ExecuteOn(TaskExecutors.BLOCKING)
+    @Post(value = "/introspect", consumes = MediaType.APPLICATION_FORM_URLENCODED)
+    public HttpResponse<IntrospectionResponse> introspect(
+            HttpRequest<?> httpRequest,
+            @Nullable @Header(HttpHeaders.AUTHORIZATION) String authorization,
+            @Body("token") @Nullable String token,
+            @Body("client_id") @Nullable String clientId,
+            @Body("client_secret") @Nullable String clientSecret) {
+        ClientAuthentication client = ClientAuthentication.of(authorization, clientId, clientSecret);
+        clientRateLimiter.acquire(httpRequest, client.clientId());
+        clientCredentialsService.authenticate(client.clientId(), client.clientSecret());
+
+        Introspection introspection = tokenIntrospectionService.introspect(token);
+        return HttpResponse.ok(introspection.active() ? IntrospectionResponse.of(introspection) : INACTIVE)
+                .header(HttpHeaders.CACHE_CONTROL, "no-store");
+    }
+
+    @Serdeable
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record IntrospectionResponse(
+            @JsonProperty("active") boolean active,
+            @JsonProperty("token_type") String tokenType,
+            @JsonProperty("sub") String subject,
+            @JsonProperty("client_id") String clientId,
+            @JsonProperty("scope") String scope,
+            @JsonProperty("iss") String issuer,
+            @JsonProperty("jti") String tokenId,
+            @JsonProperty("iat") Long issuedAt,
+            @JsonProperty("exp") Long expiresAt) {
+
+        static IntrospectionResponse of(Introspection introspection) {
+            return new IntrospectionResponse(
+                    true,
+                    introspection.tokenType(),
+                    introspection.subject(),
+                    introspection.clientId(),
+                    introspection.scope(),
+                    introspection.issuer(),
+                    introspection.tokenId(),
+                    epochSecond(introspection.issuedAt()),
+                    epochSecond(introspection.expiresAt()));
+        }
+
+        private static Long epochSecond(@Nullable Instant instant) {
+            return instant == null ? null : instant.getEpochSecond();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.posadskiy.auth.web.handler;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.posadskiy.auth.core.exception.ClientCredentialsException;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.annotation.Produces;
+import io.micronaut.http.server.exceptions.ExceptionHandler;
+import io.micronaut.serde.annotation.Serdeable;
+import jakarta.inject.Singleton;
+
+/**
+ * Renders rejected client credentials grants as RFC 6749 section 5.2 error responses.
+ */
+@Produces
+@Singleton
+@Requires(classes = {ClientCredentialsException.class, ExceptionHandler.class})
+public class ClientCredentialsExceptionHandler
+        implements ExceptionHandler<
+                ClientCredentialsException, HttpResponse<ClientCredentialsExceptionHandler.TokenError>> {
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public HttpResponse<TokenError> handle(HttpRequest request, ClientCredentialsException exception) {
+        var error = new TokenError(exception.getError(), exception.getMessage());
+        if (ClientCredentialsException.INVALID_CLIENT.equals(exception.getError())) {
+            return HttpResponse.<TokenError>status(HttpStatus.UNAUTHORIZED)
+                    .header(HttpHeaders.WWW_AUTHENTICATE, "Basic realm=\"auth-service\"")
+                    .body(error);
+        }
+        return HttpResponse.<TokenError>status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @Serdeable
+    public record TokenError(
+            @JsonProperty("error") String error, @JsonProperty("error_description") String errorDescription) {}
+}
@@ -0,0 +1,29 @@
+package com.posadskiy.auth.web.handler;
+
+import com.posadskiy.auth.core.exception.ErrorMessage;
+import com.posadskiy.auth.core.exception.RateLimitedException;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.annotation.Produces;
+import io.micronaut.http.server.exceptions.ExceptionHandler;
+import jakarta.inject.Singleton;
+
+@Produces
+@Singleton
+@Requires(classes = {RateLimitedException.class, ExceptionHandler.class})
+public class RateLimitedExceptionHandler implements ExceptionHandler<RateLimitedException, HttpResponse<ErrorMessage>> {
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public HttpResponse<ErrorMessage> handle(HttpRequest request, RateLimitedException exception) {
+        var message = new ErrorMessage(false, exception.getMessage());
+        long retryAfterSeconds = Math.max(1, (exception.getRetryAfter().toMillis() + 999) / 1000);
+
+        return HttpResponse.<ErrorMessage>status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(message);
+    }
+}
@@ -0,0 +1,30 @@
+package com.posadskiy.auth.web.handler;
+
+import com.posadskiy.auth.core.exception.ErrorMessage;
+import com.posadskiy.auth.core.exception.ServiceOverloadedException;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.annotation.Produces;
+import io.micronaut.http.server.exceptions.ExceptionHandler;
+import jakarta.inject.Singleton;
+
+@Produces
+@Singleton
+@Requires(classes = {ServiceOverloadedException.class, ExceptionHandler.class})
+public class ServiceOverloadedExceptionHandler
+        implements ExceptionHandler<ServiceOverloadedException, HttpResponse<ErrorMessage>> {
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public HttpResponse<ErrorMessage> handle(HttpRequest request, ServiceOverloadedException exception) {
+        var message = new ErrorMessage(false, exception.getMessage());
+        long retryAfterSeconds = Math.max(1, (exception.getRetryAfter().toMillis() + 999) / 1000);
+
+        return HttpResponse.<ErrorMessage>status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(message);
+    }
+}
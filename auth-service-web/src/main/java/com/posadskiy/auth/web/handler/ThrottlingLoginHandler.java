@@ -0,0 +1,35 @@
+package com.posadskiy.auth.web.handler;
+
+import com.posadskiy.auth.core.AuthenticationThrottled;
+import com.posadskiy.auth.core.exception.ErrorMessage;
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.security.authentication.AuthenticationResponse;
+import io.micronaut.security.token.bearer.AccessRefreshTokenLoginHandler;
+import io.micronaut.security.token.generator.AccessRefreshTokenGenerator;
+import jakarta.inject.Singleton;
+
+@Singleton
+@Replaces(AccessRefreshTokenLoginHandler.class)
+@Requires(property = "micronaut.security.authentication", value = "bearer")
+public class ThrottlingLoginHandler extends AccessRefreshTokenLoginHandler {
+
+    public ThrottlingLoginHandler(AccessRefreshTokenGenerator accessRefreshTokenGenerator) {
+        super(accessRefreshTokenGenerator);
+    }
+
+    @Override
+    public MutableHttpResponse<?> loginFailed(AuthenticationResponse authenticationFailed, HttpRequest<?> request) {
+        if (authenticationFailed instanceof AuthenticationThrottled throttled) {
+            var message = new ErrorMessage(false, throttled.getMessage().orElse(null));
+            return HttpResponse.status(throttled.getStatus())
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(throttled.getRetryAfterSeconds()))
+                    .body(message);
+        }
+        return super.loginFailed(authenticationFailed, request);
+    }
+}
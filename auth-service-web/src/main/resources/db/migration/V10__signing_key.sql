@@ -0,0 +1,13 @@
+-- Keys access tokens are signed with. Each key owns one rotation slot, starting at activates_at, so
+-- instances rotating at the same time insert the same slot and only the first key is kept. Private
+-- keys are stored AES-GCM encrypted; the public half is what /.well-known/jwks.json publishes.
+CREATE TABLE IF NOT EXISTS signing_key
+(
+    kid          VARCHAR(64)              NOT NULL PRIMARY KEY,
+    algorithm    VARCHAR(16)              NOT NULL,
+    activates_at TIMESTAMP WITH TIME ZONE NOT NULL
+        CONSTRAINT signing_key_activates_at_key UNIQUE,
+    public_key   BYTEA                    NOT NULL,
+    private_key  BYTEA                    NOT NULL,
+    date_created TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,62 @@
+-- refresh_token_rotate was one statement, so everything in it read one snapshot. Of two concurrent
+-- redemptions of the same token, the loser waited on the presented row and then saw it revoked, but
+-- its family revocation still ran on the snapshot from before the winner committed and missed the
+-- successor the winner inserted, leaving it live after reuse was detected.
+--
+-- Every redemption now first takes a transaction-level advisory lock on its family, and only then
+-- reads the presented row and revokes or rotates in separate statements, each with a fresh snapshot
+-- that includes whatever the previous holder of the lock committed. The result is unchanged.
+CREATE OR REPLACE FUNCTION refresh_token_rotate(presented_digest BYTEA, presented_issued_at TIMESTAMPTZ,
+                                                successor_digest BYTEA)
+    RETURNS TABLE (user_id BIGINT, rotated BOOLEAN, email VARCHAR, email_verified BOOLEAN, picture_url TEXT,
+                   provider VARCHAR, provider_user_id VARCHAR)
+AS
+$$
+#variable_conflict use_column
+DECLARE
+    family    BIGINT;
+    presented RECORD;
+BEGIN
+    SELECT coalesce(t.family_id, t.id)
+    INTO family
+    FROM refresh_token t
+    WHERE t.token_digest = presented_digest
+      AND t.date_created >= presented_issued_at - INTERVAL '1 hour'
+      AND t.date_created < presented_issued_at + INTERVAL '1 hour';
+    IF NOT FOUND THEN
+        RETURN;
+    END IF;
+
+    PERFORM pg_advisory_xact_lock(family);
+
+    SELECT t.id, t.date_created, t.user_id, t.revoked, t.provider, t.external_identity_id
+    INTO presented
+    FROM refresh_token t
+    WHERE t.token_digest = presented_digest
+      AND t.date_created >= presented_issued_at - INTERVAL '1 hour'
+      AND t.date_created < presented_issued_at + INTERVAL '1 hour'
+    FOR UPDATE;
+
+    IF presented.revoked THEN
+        UPDATE refresh_token t
+        SET revoked = TRUE
+        WHERE (t.family_id = family OR t.id = family)
+          AND NOT t.revoked;
+    ELSE
+        UPDATE refresh_token t
+        SET revoked = TRUE
+        WHERE t.id = presented.id
+          AND t.date_created = presented.date_created;
+        INSERT INTO refresh_token (user_id, token_digest, family_id, provider, external_identity_id, revoked)
+        VALUES (presented.user_id, successor_digest, family, presented.provider, presented.external_identity_id,
+                FALSE);
+    END IF;
+
+    RETURN QUERY
+        SELECT presented.user_id, NOT presented.revoked, u.email, u.email_verified, u.picture_url, i.provider,
+               i.provider_user_id
+        FROM users u
+                 LEFT JOIN user_social_identity i ON i.id = presented.external_identity_id
+        WHERE u.id = presented.user_id;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,5 @@
+-- Covering partial index for the password login query: active users by email, with the
+-- columns the login needs, so the lookup is an index-only scan.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_active_email_credentials
+    ON users (email) INCLUDE (id, password_hash)
+    WHERE active = TRUE;
@@ -0,0 +1,17 @@
+-- Case-insensitive identity lookups go through email_normalized. The trigger keeps it in step with
+-- email for every writer, including services that do not know about the column.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS email_normalized VARCHAR(255);
+
+CREATE OR REPLACE FUNCTION users_normalize_email() RETURNS TRIGGER AS
+$$
+BEGIN
+    NEW.email_normalized := lower(btrim(NEW.email));
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS users_normalize_email ON users;
+CREATE TRIGGER users_normalize_email
+    BEFORE INSERT OR UPDATE ON users
+    FOR EACH ROW
+EXECUTE FUNCTION users_normalize_email();
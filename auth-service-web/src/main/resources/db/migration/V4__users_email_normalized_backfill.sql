@@ -0,0 +1,55 @@
+-- Backfills email_normalized in id batches, committing after each one so no long transaction holds
+-- row locks. Rows written after V3 already have the column set by the trigger.
+DO
+$$
+DECLARE
+    batch_size CONSTANT BIGINT := 5000;
+    last_id             BIGINT := 0;
+    max_id              BIGINT;
+BEGIN
+    SELECT coalesce(max(id), 0) INTO max_id FROM users;
+    WHILE last_id < max_id
+        LOOP
+            UPDATE users
+            SET email_normalized = lower(btrim(email))
+            WHERE id > last_id
+              AND id <= last_id + batch_size
+              AND email_normalized IS NULL;
+            last_id := last_id + batch_size;
+            COMMIT;
+        END LOOP;
+END;
+$$;
+
+-- Accounts whose emails differ only by case have to be merged by hand; the unique index below
+-- would fail on them anyway, this just says why.
+DO
+$$
+DECLARE
+    duplicates BIGINT;
+BEGIN
+    SELECT count(*)
+    INTO duplicates
+    FROM (SELECT 1 FROM users GROUP BY email_normalized HAVING count(*) > 1) d;
+    IF duplicates > 0 THEN
+        RAISE EXCEPTION '% emails in users differ only by case or surrounding spaces, merge those accounts before migrating',
+            duplicates;
+    END IF;
+END;
+$$;
+
+-- A validated CHECK lets SET NOT NULL skip its own full-table scan under an exclusive lock.
+ALTER TABLE users
+    ADD CONSTRAINT users_email_normalized_not_null CHECK (email_normalized IS NOT NULL) NOT VALID;
+ALTER TABLE users VALIDATE CONSTRAINT users_email_normalized_not_null;
+ALTER TABLE users ALTER COLUMN email_normalized SET NOT NULL;
+ALTER TABLE users DROP CONSTRAINT users_email_normalized_not_null;
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS users_email_normalized_key
+    ON users (email_normalized);
+
+-- The password login now probes email_normalized, so the covering index moves with it.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_active_email_normalized_credentials
+    ON users (email_normalized) INCLUDE (id, password_hash)
+    WHERE active = TRUE;
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_active_email_credentials;
@@ -0,0 +1,46 @@
+-- Refresh tokens are looked up by the SHA-256 of the token instead of the token itself: a fixed
+-- 32-byte key that can carry a unique index, and no usable secret left in the table.
+ALTER TABLE refresh_token
+    ADD COLUMN IF NOT EXISTS token_digest BYTEA;
+ALTER TABLE refresh_token
+    ALTER COLUMN refresh_token DROP NOT NULL;
+
+-- Backfills token_digest in id batches, committing after each one so no long transaction holds
+-- row locks. Rows written by the new code already carry only the digest.
+DO
+$$
+DECLARE
+    batch_size CONSTANT BIGINT := 5000;
+    last_id             BIGINT := 0;
+    max_id              BIGINT;
+BEGIN
+    SELECT coalesce(max(id), 0) INTO max_id FROM refresh_token;
+    WHILE last_id < max_id
+        LOOP
+            UPDATE refresh_token
+            SET token_digest = sha256(convert_to(refresh_token, 'UTF8'))
+            WHERE id > last_id
+              AND id <= last_id + batch_size
+              AND token_digest IS NULL;
+            last_id := last_id + batch_size;
+            COMMIT;
+        END LOOP;
+END;
+$$;
+
+-- Both checks are validated without blocking writers; the NOT NULL one only exists so SET NOT NULL
+-- can trust it instead of scanning the table again, the length one stays.
+ALTER TABLE refresh_token
+    ADD CONSTRAINT refresh_token_token_digest_length CHECK (octet_length(token_digest) = 32) NOT VALID;
+ALTER TABLE refresh_token VALIDATE CONSTRAINT refresh_token_token_digest_length;
+ALTER TABLE refresh_token
+    ADD CONSTRAINT refresh_token_token_digest_not_null CHECK (token_digest IS NOT NULL) NOT VALID;
+ALTER TABLE refresh_token VALIDATE CONSTRAINT refresh_token_token_digest_not_null;
+ALTER TABLE refresh_token ALTER COLUMN token_digest SET NOT NULL;
+ALTER TABLE refresh_token DROP CONSTRAINT refresh_token_token_digest_not_null;
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS refresh_token_token_digest_key
+    ON refresh_token (token_digest);
+
+-- The plaintext tokens go once every row has its digest.
+ALTER TABLE refresh_token DROP COLUMN refresh_token;
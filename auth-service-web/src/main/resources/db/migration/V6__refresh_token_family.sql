@@ -0,0 +1,47 @@
+-- Rotation chains refresh tokens into families: family_id points at the first token of the chain
+-- and is NULL on that first token, so existing rows are already families of one and need no backfill.
+ALTER TABLE refresh_token ADD COLUMN IF NOT EXISTS family_id BIGINT;
+
+-- Revoking a family on reuse probes this index plus the primary key of the first token.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS refresh_token_family_idx
+    ON refresh_token (family_id)
+    WHERE family_id IS NOT NULL;
+
+-- Redeems a refresh token in one statement. A live token is revoked and its successor inserted into
+-- the same family; a token that was already revoked revokes every token of its family instead. The
+-- presented row is locked first, so of two concurrent refreshes with the same token exactly one
+-- rotates and the other is treated as reuse. No row when the digest is unknown.
+CREATE OR REPLACE FUNCTION refresh_token_rotate(presented_digest BYTEA, successor_digest BYTEA)
+    RETURNS TABLE (username VARCHAR, rotated BOOLEAN)
+AS
+$$
+WITH presented AS (
+    SELECT id, username, revoked, provider, external_identity_id, coalesce(family_id, id) AS family_id
+    FROM refresh_token
+    WHERE token_digest = presented_digest
+    FOR UPDATE
+),
+rotated AS (
+    UPDATE refresh_token t
+    SET revoked = TRUE
+    FROM presented p
+    WHERE t.id = p.id
+      AND NOT p.revoked
+    RETURNING p.username, p.family_id, p.provider, p.external_identity_id
+),
+family_revoked AS (
+    UPDATE refresh_token t
+    SET revoked = TRUE
+    FROM presented p
+    WHERE p.revoked
+      AND (t.family_id = p.family_id OR t.id = p.family_id)
+      AND NOT t.revoked
+),
+successor AS (
+    INSERT INTO refresh_token (username, token_digest, family_id, provider, external_identity_id, revoked)
+    SELECT username, successor_digest, family_id, provider, external_identity_id, FALSE
+    FROM rotated
+)
+SELECT username, NOT revoked
+FROM presented;
+$$ LANGUAGE sql;
@@ -0,0 +1,93 @@
+-- Refresh tokens were keyed by the user id rendered into the username VARCHAR, which nothing
+-- indexes, so every per-user query scanned the table. They now carry the numeric user_id instead.
+ALTER TABLE refresh_token
+    ADD COLUMN IF NOT EXISTS user_id BIGINT;
+ALTER TABLE refresh_token
+    ALTER COLUMN username DROP NOT NULL;
+-- NOT VALID only checks rows written from now on; the existing ones are validated after the backfill.
+ALTER TABLE refresh_token
+    ADD CONSTRAINT refresh_token_user_fk FOREIGN KEY (user_id) REFERENCES users (id) NOT VALID;
+
+-- Backfills user_id in id batches, committing after each one so no long transaction holds row
+-- locks. Tokens whose username is not the id of an existing user can never be redeemed into a
+-- valid session and are dropped.
+DO
+$$
+DECLARE
+    batch_size CONSTANT BIGINT := 5000;
+    last_id             BIGINT := 0;
+    max_id              BIGINT;
+BEGIN
+    SELECT coalesce(max(id), 0) INTO max_id FROM refresh_token;
+    WHILE last_id < max_id
+        LOOP
+            UPDATE refresh_token t
+            SET user_id = u.id
+            FROM users u
+            WHERE t.id > last_id
+              AND t.id <= last_id + batch_size
+              AND t.user_id IS NULL
+              AND t.username ~ '^[0-9]{1,18}$'
+              AND u.id = t.username::BIGINT;
+            DELETE
+            FROM refresh_token
+            WHERE id > last_id
+              AND id <= last_id + batch_size
+              AND user_id IS NULL;
+            last_id := last_id + batch_size;
+            COMMIT;
+        END LOOP;
+END;
+$$;
+
+ALTER TABLE refresh_token VALIDATE CONSTRAINT refresh_token_user_fk;
+ALTER TABLE refresh_token
+    ADD CONSTRAINT refresh_token_user_id_not_null CHECK (user_id IS NOT NULL) NOT VALID;
+ALTER TABLE refresh_token VALIDATE CONSTRAINT refresh_token_user_id_not_null;
+ALTER TABLE refresh_token ALTER COLUMN user_id SET NOT NULL;
+ALTER TABLE refresh_token DROP CONSTRAINT refresh_token_user_id_not_null;
+
+-- Serves both the FK (deleting a user) and the per-user session queries, which filter on revoked
+-- as well; a separate user_id index would only duplicate its leading column.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS refresh_token_user_revoked_idx
+    ON refresh_token (user_id, revoked);
+
+-- Same statement as in V6, now reporting the user id. The return type changes, so it has to be
+-- dropped rather than replaced, and before the column it used to read goes.
+DROP FUNCTION IF EXISTS refresh_token_rotate(BYTEA, BYTEA);
+CREATE FUNCTION refresh_token_rotate(presented_digest BYTEA, successor_digest BYTEA)
+    RETURNS TABLE (user_id BIGINT, rotated BOOLEAN)
+AS
+$$
+WITH presented AS (
+    SELECT id, user_id, revoked, provider, external_identity_id, coalesce(family_id, id) AS family_id
+    FROM refresh_token
+    WHERE token_digest = presented_digest
+    FOR UPDATE
+),
+rotated AS (
+    UPDATE refresh_token t
+    SET revoked = TRUE
+    FROM presented p
+    WHERE t.id = p.id
+      AND NOT p.revoked
+    RETURNING p.user_id, p.family_id, p.provider, p.external_identity_id
+),
+family_revoked AS (
+    UPDATE refresh_token t
+    SET revoked = TRUE
+    FROM presented p
+    WHERE p.revoked
+      AND (t.family_id = p.family_id OR t.id = p.family_id)
+      AND NOT t.revoked
+),
+successor AS (
+    INSERT INTO refresh_token (user_id, token_digest, family_id, provider, external_identity_id, revoked)
+    SELECT user_id, successor_digest, family_id, provider, external_identity_id, FALSE
+    FROM rotated
+)
+SELECT user_id, NOT revoked
+FROM presented;
+$$ LANGUAGE sql;
+
+ALTER TABLE refresh_token DROP COLUMN username;
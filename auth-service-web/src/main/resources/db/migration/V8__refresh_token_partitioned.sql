@@ -0,0 +1,189 @@
+-- refresh_token becomes a table range-partitioned by day on date_created, so expired tokens leave
+-- by dropping whole partitions instead of row DELETEs and the vacuum and index bloat they bring.
+-- The existing table is not copied: it is attached as the partition for everything before a
+-- cutoff two days out, and goes once its last token has expired.
+
+-- The partition key must not be NULL.
+DO
+$$
+DECLARE
+    batch_size CONSTANT BIGINT := 5000;
+    last_id             BIGINT := 0;
+    max_id              BIGINT;
+BEGIN
+    SELECT coalesce(max(id), 0) INTO max_id FROM refresh_token;
+    WHILE last_id < max_id
+        LOOP
+            UPDATE refresh_token
+            SET date_created = 'epoch'
+            WHERE id > last_id
+              AND id <= last_id + batch_size
+              AND date_created IS NULL;
+            last_id := last_id + batch_size;
+            COMMIT;
+        END LOOP;
+END;
+$$;
+
+-- Proves the partition bound up front, so attaching the table does not scan it under lock. Rows
+-- keep landing in it until the swap below, which is why the cutoff is not today's midnight.
+DO
+$$
+BEGIN
+    IF NOT EXISTS (SELECT FROM pg_constraint WHERE conname = 'refresh_token_legacy_bound') THEN
+        EXECUTE format(
+                'ALTER TABLE refresh_token ADD CONSTRAINT refresh_token_legacy_bound '
+                    || 'CHECK (date_created IS NOT NULL AND date_created < %L) NOT VALID',
+                date_trunc('day', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' + INTERVAL '2 days');
+    END IF;
+END;
+$$;
+ALTER TABLE refresh_token VALIDATE CONSTRAINT refresh_token_legacy_bound;
+ALTER TABLE refresh_token
+    ADD CONSTRAINT refresh_token_date_created_not_null CHECK (date_created IS NOT NULL) NOT VALID;
+ALTER TABLE refresh_token VALIDATE CONSTRAINT refresh_token_date_created_not_null;
+ALTER TABLE refresh_token ALTER COLUMN date_created SET NOT NULL;
+ALTER TABLE refresh_token DROP CONSTRAINT refresh_token_date_created_not_null;
+
+-- Unique indexes on a partitioned table have to include the partition key. Built here, they are
+-- adopted by the new parent's indexes when the table is attached.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS refresh_token_legacy_id_date_created_key
+    ON refresh_token (id, date_created);
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS refresh_token_legacy_token_digest_date_created_key
+    ON refresh_token (token_digest, date_created);
+
+-- Creates the daily partitions from the newest one up to days_ahead days past today (UTC). Creating
+-- a partition briefly locks the whole table, so it gives up after lock_timeout and leaves the rest
+-- to the next run. Returns the number of partitions created.
+CREATE OR REPLACE FUNCTION refresh_token_create_partitions(days_ahead INT) RETURNS INT
+AS
+$$
+DECLARE
+    next_day TIMESTAMPTZ;
+    last_day TIMESTAMPTZ := date_trunc('day', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC'
+        + make_interval(days => days_ahead);
+    created  INT         := 0;
+BEGIN
+    SET LOCAL lock_timeout = '5s';
+    SELECT coalesce(max(upper_bound), date_trunc('day', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC')
+    INTO next_day
+    FROM refresh_token_partitions();
+    WHILE next_day <= last_day
+        LOOP
+            EXECUTE format(
+                    'CREATE TABLE IF NOT EXISTS %I PARTITION OF refresh_token FOR VALUES FROM (%L) TO (%L)',
+                    'refresh_token_p' || to_char(next_day AT TIME ZONE 'UTC', 'YYYYMMDD'),
+                    next_day,
+                    next_day + INTERVAL '1 day');
+            next_day := next_day + INTERVAL '1 day';
+            created := created + 1;
+        END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Every partition of refresh_token with its exclusive upper bound, and whether a concurrent detach
+-- of it was interrupted and still has to be finalized.
+CREATE OR REPLACE FUNCTION refresh_token_partitions()
+    RETURNS TABLE (partition_name TEXT, upper_bound TIMESTAMPTZ, detach_pending BOOLEAN)
+AS
+$$
+SELECT c.relname::TEXT,
+       substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \(''([^'']+)''\)')::TIMESTAMPTZ,
+       i.inhdetachpending
+FROM pg_inherits i
+         JOIN pg_class c ON c.oid = i.inhrelid
+WHERE i.inhparent = 'refresh_token'::REGCLASS;
+$$ LANGUAGE sql;
+
+-- The swap runs as one statement, so no session ever sees refresh_token missing.
+DO
+$$
+DECLARE
+    cutoff TIMESTAMPTZ;
+BEGIN
+    SELECT substring(pg_get_constraintdef(oid) FROM '''([^'']+)''')::TIMESTAMPTZ
+    INTO cutoff
+    FROM pg_constraint
+    WHERE conname = 'refresh_token_legacy_bound';
+
+    -- The primary key has to include the partition key too. Only an index that backs a constraint
+    -- is adopted for the parent's key, so the prebuilt one is promoted instead of built again.
+    ALTER TABLE refresh_token DROP CONSTRAINT refresh_token_pkey;
+    ALTER TABLE refresh_token
+        ADD CONSTRAINT refresh_token_legacy_pkey PRIMARY KEY USING INDEX refresh_token_legacy_id_date_created_key;
+    ALTER TABLE refresh_token RENAME TO refresh_token_legacy;
+    ALTER INDEX refresh_token_token_digest_key RENAME TO refresh_token_legacy_token_digest_key;
+    ALTER INDEX refresh_token_external_identity_idx RENAME TO refresh_token_legacy_external_identity_idx;
+    ALTER INDEX refresh_token_family_idx RENAME TO refresh_token_legacy_family_idx;
+    ALTER INDEX refresh_token_user_revoked_idx RENAME TO refresh_token_legacy_user_revoked_idx;
+
+    CREATE TABLE refresh_token
+    (
+        id                   BIGINT                   NOT NULL DEFAULT nextval('refresh_token_id_seq'),
+        user_id              BIGINT                   NOT NULL
+            CONSTRAINT refresh_token_user_fk REFERENCES users (id),
+        token_digest         BYTEA                    NOT NULL
+            CONSTRAINT refresh_token_token_digest_length CHECK (octet_length(token_digest) = 32),
+        revoked              BOOLEAN                  NOT NULL,
+        external_identity_id BIGINT
+            CONSTRAINT refresh_token_external_identity_id_fkey REFERENCES user_social_identity (id),
+        provider             VARCHAR(64),
+        family_id            BIGINT,
+        date_created         TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+        CONSTRAINT refresh_token_pkey PRIMARY KEY (id, date_created)
+    ) PARTITION BY RANGE (date_created);
+    ALTER SEQUENCE refresh_token_id_seq OWNED BY refresh_token.id;
+
+    CREATE UNIQUE INDEX refresh_token_token_digest_key ON refresh_token (token_digest, date_created);
+    CREATE INDEX refresh_token_external_identity_idx ON refresh_token (external_identity_id);
+    CREATE INDEX refresh_token_family_idx ON refresh_token (family_id) WHERE family_id IS NOT NULL;
+    CREATE INDEX refresh_token_user_revoked_idx ON refresh_token (user_id, revoked);
+
+    EXECUTE format(
+            'ALTER TABLE refresh_token ATTACH PARTITION refresh_token_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+            cutoff);
+    PERFORM refresh_token_create_partitions(7);
+END;
+$$;
+
+-- The digest lookup now also bounds date_created by the issue time the token carries, so it only
+-- probes the partitions around it.
+DROP FUNCTION IF EXISTS refresh_token_rotate(BYTEA, BYTEA);
+CREATE FUNCTION refresh_token_rotate(presented_digest BYTEA, presented_issued_at TIMESTAMPTZ, successor_digest BYTEA)
+    RETURNS TABLE (user_id BIGINT, rotated BOOLEAN)
+AS
+$$
+WITH presented AS (
+    SELECT id, date_created, user_id, revoked, provider, external_identity_id, coalesce(family_id, id) AS family_id
+    FROM refresh_token
+    WHERE token_digest = presented_digest
+      AND date_created >= presented_issued_at - INTERVAL '1 hour'
+      AND date_created < presented_issued_at + INTERVAL '1 hour'
+    FOR UPDATE
+),
+rotated AS (
+    UPDATE refresh_token t
+    SET revoked = TRUE
+    FROM presented p
+    WHERE t.id = p.id
+      AND t.date_created = p.date_created
+      AND NOT p.revoked
+    RETURNING p.user_id, p.family_id, p.provider, p.external_identity_id
+),
+family_revoked AS (
+    UPDATE refresh_token t
+    SET revoked = TRUE
+    FROM presented p
+    WHERE p.revoked
+      AND (t.family_id = p.family_id OR t.id = p.family_id)
+      AND NOT t.revoked
+),
+successor AS (
+    INSERT INTO refresh_token (user_id, token_digest, family_id, provider, external_identity_id, revoked)
+    SELECT user_id, successor_digest, family_id, provider, external_identity_id, FALSE
+    FROM rotated
+)
+SELECT user_id, NOT revoked
+FROM presented;
+$$ LANGUAGE sql;
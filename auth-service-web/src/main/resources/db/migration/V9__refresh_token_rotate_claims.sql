@@ -0,0 +1,44 @@
+-- refresh_token_rotate also returns the profile and social identity the session was opened with,
+-- so a refreshed access token carries the same claims as the first one without further lookups.
+-- Only the final SELECT changes; the function is dropped because its result type grows.
+DROP FUNCTION IF EXISTS refresh_token_rotate(BYTEA, TIMESTAMPTZ, BYTEA);
+CREATE FUNCTION refresh_token_rotate(presented_digest BYTEA, presented_issued_at TIMESTAMPTZ, successor_digest BYTEA)
+    RETURNS TABLE (user_id BIGINT, rotated BOOLEAN, email VARCHAR, email_verified BOOLEAN, picture_url TEXT,
+                   provider VARCHAR, provider_user_id VARCHAR)
+AS
+$$
+WITH presented AS (
+    SELECT id, date_created, user_id, revoked, provider, external_identity_id, coalesce(family_id, id) AS family_id
+    FROM refresh_token
+    WHERE token_digest = presented_digest
+      AND date_created >= presented_issued_at - INTERVAL '1 hour'
+      AND date_created < presented_issued_at + INTERVAL '1 hour'
+    FOR UPDATE
+),
+rotated AS (
+    UPDATE refresh_token t
+    SET revoked = TRUE
+    FROM presented p
+    WHERE t.id = p.id
+      AND t.date_created = p.date_created
+      AND NOT p.revoked
+    RETURNING p.user_id, p.family_id, p.provider, p.external_identity_id
+),
+family_revoked AS (
+    UPDATE refresh_token t
+    SET revoked = TRUE
+    FROM presented p
+    WHERE p.revoked
+      AND (t.family_id = p.family_id OR t.id = p.family_id)
+      AND NOT t.revoked
+),
+successor AS (
+    INSERT INTO refresh_token (user_id, token_digest, family_id, provider, external_identity_id, revoked)
+    SELECT user_id, successor_digest, family_id, provider, external_identity_id, FALSE
+    FROM rotated
+)
+SELECT p.user_id, NOT p.revoked, u.email, u.email_verified, u.picture_url, i.provider, i.provider_user_id
+FROM presented p
+         JOIN users u ON u.id = p.user_id
+         LEFT JOIN user_social_identity i ON i.id = p.external_identity_id;
+$$ LANGUAGE sql;
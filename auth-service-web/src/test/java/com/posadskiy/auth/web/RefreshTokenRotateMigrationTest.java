@@ -0,0 +1,162 @@
+package com.posadskiy.auth.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * refresh_token_rotate against a real PostgreSQL with the service's migrations, two connections
+ * redeeming the same token at once.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RefreshTokenRotateMigrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15");
+
+    private static final String ROTATE = "SELECT rotated FROM refresh_token_rotate(?, ?, ?)";
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    @Test
+    void shouldRevokeTheWinnersSuccessorWhenTheSameTokenIsRedeemedConcurrently() throws Exception {
+        // Given
+        Instant issuedAt = Instant.now();
+        byte[] presented = digest("presented");
+        byte[] winnersSuccessor = digest("winners-successor");
+        byte[] losersSuccessor = digest("losers-successor");
+        try (Connection connection = connect(true)) {
+            insertToken(connection, insertUser(connection), presented);
+        }
+
+        try (Connection winner = connect(false);
+                Connection loser = connect(false)) {
+            // When
+            assertTrue(rotate(winner, presented, issuedAt, winnersSuccessor));
+            long loserPid = backendPid(loser);
+            CompletableFuture<Boolean> loserRotated =
+                    CompletableFuture.supplyAsync(() -> rotateAndCommit(loser, presented, issuedAt, losersSuccessor));
+            awaitLockWait(loserPid);
+            winner.commit();
+
+            // Then
+            assertFalse(loserRotated.get(10, TimeUnit.SECONDS));
+        }
+        try (Connection connection = connect(true)) {
+            assertEquals(Boolean.TRUE, revoked(connection, winnersSuccessor));
+            assertNull(revoked(connection, losersSuccessor));
+        }
+    }
+
+    private static Connection connect(boolean autoCommit) throws Exception {
+        Connection connection =
+                DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        connection.setAutoCommit(autoCommit);
+        return connection;
+    }
+
+    private static boolean rotate(Connection connection, byte[] presented, Instant issuedAt, byte[] successor)
+            throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(ROTATE)) {
+            statement.setBytes(1, presented);
+            statement.setTimestamp(2, Timestamp.from(issuedAt));
+            statement.setBytes(3, successor);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                assertTrue(resultSet.next());
+                return resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private static boolean rotateAndCommit(
+            Connection connection, byte[] presented, Instant issuedAt, byte[] successor) {
+        try {
+            boolean rotated = rotate(connection, presented, issuedAt, successor);
+            connection.commit();
+            return rotated;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long backendPid(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT pg_backend_pid()")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static void awaitLockWait(long pid) throws Exception {
+        try (Connection connection = connect(true);
+                PreparedStatement statement = connection.prepareStatement(
+                        "SELECT 1 FROM pg_stat_activity WHERE pid = ? AND wait_event_type = 'Lock'")) {
+            statement.setLong(1, pid);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (System.nanoTime() < deadline) {
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) {
+                        return;
+                    }
+                }
+                Thread.sleep(20);
+            }
+        }
+        fail("second redemption never waited for the first");
+    }
+
+    private static long insertUser(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(
+                        "INSERT INTO users (username, email) VALUES ('jane', 'jane@example.com') RETURNING id")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static void insertToken(Connection connection, long userId, byte[] digest) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO refresh_token (user_id, token_digest, revoked) VALUES (?, ?, FALSE)")) {
+            statement.setLong(1, userId);
+            statement.setBytes(2, digest);
+            statement.executeUpdate();
+        }
+    }
+
+    private static Boolean revoked(Connection connection, byte[] digest) throws Exception {
+        try (PreparedStatement statement =
+                connection.prepareStatement("SELECT revoked FROM refresh_token WHERE token_digest = ?")) {
+            statement.setBytes(1, digest);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getBoolean(1) : null;
+            }
+        }
+    }
+
+    private static byte[] digest(String token) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,70 @@
+package com.posadskiy.auth.web.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.posadskiy.auth.web.controller.BatchTokenValidationController.BatchValidationRequest;
+import com.posadskiy.auth.web.controller.BatchTokenValidationController.BatchValidationResponse;
+import com.posadskiy.auth.web.controller.BatchTokenValidationController.TokenValidation;
+import com.posadskiy.auth.web.controller.ClientCredentialsController.ClientCredentialsTokenResponse;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest
+class BatchTokenValidationControllerTest {
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Test
+    void shouldValidateEveryTokenOfTheBatch() {
+        // Given
+        ClientCredentialsTokenResponse token = client.toBlocking()
+                .retrieve(
+                        HttpRequest.POST("/oauth2/token", Map.of("grant_type", "client_credentials"))
+                                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                                .basicAuth("test-service", "test-client-secret"),
+                        ClientCredentialsTokenResponse.class);
+
+        // When
+        BatchValidationResponse response = client.toBlocking()
+                .retrieve(
+                        HttpRequest.POST(
+                                        "/oauth2/validate/batch",
+                                        new BatchValidationRequest(List.of(token.accessToken(), "x.y.z")))
+                                .basicAuth("test-service", "test-client-secret"),
+                        BatchValidationResponse.class);
+
+        // Then
+        TokenValidation valid = response.results().get(0);
+        TokenValidation invalid = response.results().get(1);
+        assertTrue(valid.valid());
+        assertEquals("test-service", valid.subject());
+        assertNotNull(valid.expiry());
+        assertFalse(invalid.valid());
+        assertNotNull(invalid.reason());
+    }
+
+    @Test
+    void shouldRejectUnauthenticatedCaller() {
+        // Given
+        HttpRequest<BatchValidationRequest> request =
+                HttpRequest.POST("/oauth2/validate/batch", new BatchValidationRequest(List.of("x.y.z")));
+
+        // When
+        HttpClientResponseException e = assertThrows(
+                HttpClientResponseException.class, () -> client.toBlocking().exchange(request, Map.class));
+
+        // Then
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatus());
+    }
+}
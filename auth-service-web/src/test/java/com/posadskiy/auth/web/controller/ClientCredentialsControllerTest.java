@@ -0,0 +1,83 @@
+package com.posadskiy.auth.web.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.posadskiy.auth.web.controller.ClientCredentialsController.ClientCredentialsTokenResponse;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest
+class ClientCredentialsControllerTest {
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Test
+    void shouldReuseIssuedTokenForRepeatedGrants() {
+        // Given
+        Map<String, String> form = Map.of(
+                "grant_type", "client_credentials",
+                "client_id", "test-service",
+                "client_secret", "test-client-secret",
+                "scope", "users:read");
+
+        // When
+        ClientCredentialsTokenResponse first =
+                client.toBlocking().retrieve(tokenRequest(form), ClientCredentialsTokenResponse.class);
+        ClientCredentialsTokenResponse second =
+                client.toBlocking().retrieve(tokenRequest(form), ClientCredentialsTokenResponse.class);
+
+        // Then
+        assertEquals("Bearer", first.tokenType());
+        assertEquals("users:read", first.scope());
+        assertTrue(first.expiresIn() > 0);
+        assertEquals(first.accessToken(), second.accessToken());
+    }
+
+    @Test
+    void shouldAcceptBasicClientAuthentication() {
+        // Given
+        HttpRequest<Map<String, String>> request = tokenRequest(Map.of("grant_type", "client_credentials"))
+                .basicAuth("test-service", "test-client-secret");
+
+        // When
+        ClientCredentialsTokenResponse response =
+                client.toBlocking().retrieve(request, ClientCredentialsTokenResponse.class);
+
+        // Then
+        assertEquals("users:read users:write", response.scope());
+    }
+
+    @Test
+    void shouldRejectWrongSecretAsInvalidClient() {
+        // Given
+        Map<String, String> form = Map.of(
+                "grant_type", "client_credentials",
+                "client_id", "test-service",
+                "client_secret", "wrong-secret");
+
+        // When
+        HttpClientResponseException e = assertThrows(
+                HttpClientResponseException.class, () -> client.toBlocking().exchange(tokenRequest(form), Map.class));
+
+        // Then
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatus());
+        assertEquals(
+                "invalid_client",
+                e.getResponse().getBody(Map.class).orElseThrow().get("error"));
+    }
+
+    private static MutableHttpRequest<Map<String, String>> tokenRequest(Map<String, String> form) {
+        return HttpRequest.POST("/oauth2/token", form).contentType(MediaType.APPLICATION_FORM_URLENCODED);
+    }
+}
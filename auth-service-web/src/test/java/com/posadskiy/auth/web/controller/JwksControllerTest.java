@@ -0,0 +1,71 @@
+package com.posadskiy.auth.web.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.posadskiy.auth.web.controller.ClientCredentialsController.ClientCredentialsTokenResponse;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest
+class JwksControllerTest {
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Test
+    void shouldPublishKeyThatVerifiesIssuedTokens() throws Exception {
+        // Given
+        ClientCredentialsTokenResponse token = client.toBlocking()
+                .retrieve(
+                        HttpRequest.POST(
+                                        "/oauth2/token",
+                                        Map.of(
+                                                "grant_type", "client_credentials",
+                                                "client_id", "test-service",
+                                                "client_secret", "test-client-secret"))
+                                .contentType(MediaType.APPLICATION_FORM_URLENCODED),
+                        ClientCredentialsTokenResponse.class);
+
+        // When
+        HttpResponse<byte[]> response = client.toBlocking().exchange("/.well-known/jwks.json", byte[].class);
+
+        // Then
+        JWKSet jwks = JWKSet.parse(new String(response.body(), StandardCharsets.UTF_8));
+        SignedJWT jwt = SignedJWT.parse(token.accessToken());
+        ECKey key = (ECKey) jwks.getKeyByKeyId(jwt.getHeader().getKeyID());
+        assertTrue(jwt.verify(new ECDSAVerifier(key)));
+        assertFalse(key.isPrivate());
+        assertTrue(response.header(HttpHeaders.CACHE_CONTROL).startsWith("public, max-age="));
+    }
+
+    @Test
+    void shouldAnswerMatchingEtagWithNotModified() {
+        // Given
+        String etag = client.toBlocking()
+                .exchange("/.well-known/jwks.json", byte[].class)
+                .header(HttpHeaders.ETAG);
+
+        // When
+        HttpResponse<byte[]> response = client.toBlocking()
+                .exchange(HttpRequest.GET("/.well-known/jwks.json").header(HttpHeaders.IF_NONE_MATCH, etag), byte[].class);
+
+        // Then
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatus());
+        assertEquals(etag, response.header(HttpHeaders.ETAG));
+    }
+}
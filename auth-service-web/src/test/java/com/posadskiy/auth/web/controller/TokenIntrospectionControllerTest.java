@@ -0,0 +1,74 @@
+package com.posadskiy.auth.web.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.posadskiy.auth.web.controller.ClientCredentialsController.ClientCredentialsTokenResponse;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest
+class TokenIntrospectionControllerTest {
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Test
+    void shouldDescribeActiveAccessToken() {
+        // Given
+        ClientCredentialsTokenResponse token = client.toBlocking()
+                .retrieve(
+                        form("/oauth2/token", Map.of("grant_type", "client_credentials", "scope", "users:read")),
+                        ClientCredentialsTokenResponse.class);
+
+        // When
+        Map<?, ?> response = client.toBlocking()
+                .retrieve(form("/oauth2/introspect", Map.of("token", token.accessToken())), Map.class);
+
+        // Then
+        assertEquals(true, response.get("active"));
+        assertEquals("test-service", response.get("sub"));
+        assertEquals("users:read", response.get("scope"));
+        assertEquals("access_token", response.get("token_type"));
+        assertNotNull(response.get("exp"));
+    }
+
+    @Test
+    void shouldAnswerOnlyActiveFalseForUnknownToken() {
+        // When
+        Map<?, ?> response = client.toBlocking()
+                .retrieve(form("/oauth2/introspect", Map.of("token", "a.b.c")), Map.class);
+
+        // Then
+        assertEquals(Map.of("active", false), response);
+    }
+
+    @Test
+    void shouldRejectUnauthenticatedCaller() {
+        // Given
+        MutableHttpRequest<Map<String, String>> request = HttpRequest.POST("/oauth2/introspect", Map.of("token", "a.b.c"))
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED);
+
+        // When
+        HttpClientResponseException e = assertThrows(
+                HttpClientResponseException.class, () -> client.toBlocking().exchange(request, Map.class));
+
+        // Then
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatus());
+    }
+
+    private static MutableHttpRequest<Map<String, String>> form(String uri, Map<String, String> fields) {
+        return HttpRequest.POST(uri, fields)
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .basicAuth("test-service", "test-client-secret");
+    }
+}
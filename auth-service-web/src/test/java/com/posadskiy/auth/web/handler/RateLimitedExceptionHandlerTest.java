@@ -0,0 +1,30 @@
+package com.posadskiy.auth.web.handler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.posadskiy.auth.core.exception.ErrorMessage;
+import com.posadskiy.auth.core.exception.RateLimitedException;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class RateLimitedExceptionHandlerTest {
+
+    @Test
+    void shouldAnswerTooManyRequestsWithRetryAfterRoundedUp() {
+        // Given
+        RateLimitedExceptionHandler handler = new RateLimitedExceptionHandler();
+        RateLimitedException exception = new RateLimitedException("Too many requests", Duration.ofMillis(1500));
+
+        // When
+        HttpResponse<ErrorMessage> response = handler.handle(HttpRequest.POST("/oauth2/token", ""), exception);
+
+        // Then
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatus());
+        assertEquals("2", response.getHeaders().get(HttpHeaders.RETRY_AFTER));
+        assertEquals("Too many requests", response.getBody().orElseThrow().message());
+    }
+}
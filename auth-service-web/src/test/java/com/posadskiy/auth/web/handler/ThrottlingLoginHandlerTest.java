@@ -0,0 +1,58 @@
+package com.posadskiy.auth.web.handler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.posadskiy.auth.core.AuthenticationThrottled;
+import com.posadskiy.auth.core.exception.ErrorMessage;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.security.authentication.AuthenticationException;
+import io.micronaut.security.authentication.AuthenticationFailureReason;
+import io.micronaut.security.authentication.AuthenticationResponse;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class ThrottlingLoginHandlerTest {
+
+    private final ThrottlingLoginHandler handler = new ThrottlingLoginHandler(null);
+
+    @Test
+    void shouldReturnServiceUnavailableWithRetryAfterWhenOverloaded() {
+        // Given
+        AuthenticationThrottled throttled = AuthenticationThrottled.overloaded(Duration.ofMillis(1500));
+
+        // When
+        MutableHttpResponse<?> response = handler.loginFailed(throttled, HttpRequest.POST("/login", ""));
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatus());
+        assertEquals("2", response.getHeaders().get(HttpHeaders.RETRY_AFTER));
+        ErrorMessage body = (ErrorMessage) response.getBody().orElseThrow();
+        assertEquals(false, body.status());
+    }
+
+    @Test
+    void shouldReturnTooManyRequestsWhenRateLimited() {
+        // Given
+        AuthenticationThrottled throttled = AuthenticationThrottled.rateLimited(Duration.ofSeconds(30));
+
+        // When
+        MutableHttpResponse<?> response = handler.loginFailed(throttled, HttpRequest.POST("/login", ""));
+
+        // Then
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatus());
+        assertEquals("30", response.getHeaders().get(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void shouldKeepDefaultBehaviourForOtherFailures() {
+        // Given
+        AuthenticationResponse failure =
+                AuthenticationResponse.failure(AuthenticationFailureReason.CREDENTIALS_DO_NOT_MATCH);
+
+        // When & Then
+        assertThrows(AuthenticationException.class, () -> handler.loginFailed(failure, HttpRequest.POST("/login", "")));
+    }
+}
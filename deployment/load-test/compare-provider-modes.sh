@@ -0,0 +1,32 @@
+#!/usr/bin/env bash
+# Runs login.js against a service started in each auth.login.provider-mode and prints p99 latency
+# next to live/peak JVM threads. Start the service yourself between runs, e.g.
+#
+#   AUTH_LOGIN_PROVIDER_MODE=executor AUTH_LOGIN_RATE_LIMIT_ENABLED=false java -jar auth-service-web.jar
+#
+# and press enter when it is ready.
+set -euo pipefail
+
+BASE_URL="${BASE_URL:-http://localhost:8100}"
+RESULTS_DIR="deployment/load-test/results"
+mkdir -p "$RESULTS_DIR"
+
+metric() {
+  curl -sf "$BASE_URL/prometheus" | awk -v name="$1" '$1 ~ "^"name {print $NF; exit}'
+}
+
+for mode in executor reactive; do
+  read -r -p "Start the service with AUTH_LOGIN_PROVIDER_MODE=$mode and press enter... "
+  k6 run --quiet -e BASE_URL="$BASE_URL" -e MODE="$mode" deployment/load-test/login.js > /dev/null
+  live="$(metric jvm_threads_live_threads)"
+  peak="$(metric jvm_threads_peak_threads)"
+  result="$RESULTS_DIR/login-$mode.json"
+  jq --argjson live "${live:-null}" --argjson peak "${peak:-null}" \
+    '. + {liveThreads: $live, peakThreads: $peak}' "$result" > "$result.tmp" && mv "$result.tmp" "$result"
+done
+
+printf '%-10s %10s %10s %12s %12s\n' mode p99_ms p95_ms live_threads peak_threads
+for mode in executor reactive; do
+  jq -r '[.mode, (.p99Ms|floor), (.p95Ms|floor), .liveThreads, .peakThreads] | @tsv' \
+    "$RESULTS_DIR/login-$mode.json" | awk '{printf "%-10s %10s %10s %12s %12s\n", $1, $2, $3, $4, $5}'
+done
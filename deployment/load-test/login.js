@@ -0,0 +1,59 @@
+// k6 load test for POST /login.
+//
+//   k6 run -e BASE_URL=http://localhost:8100 -e MODE=executor deployment/load-test/login.js
+//
+// Logins are spread over USER_COUNT accounts named loadtest+<n>@example.com that share PASSWORD.
+// Run the service with AUTH_LOGIN_RATE_LIMIT_ENABLED=false, otherwise the limiter (not the provider)
+// decides the outcome. compare-provider-modes.sh adds JVM thread counts to the result.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8100';
+const MODE = __ENV.MODE || 'unknown';
+const VUS = parseInt(__ENV.VUS || '1000');
+const DURATION = __ENV.DURATION || '2m';
+const USER_COUNT = parseInt(__ENV.USER_COUNT || '1000');
+const PASSWORD = __ENV.PASSWORD || 'loadtest-password';
+
+const loginDuration = new Trend('login_duration', true);
+
+export const options = {
+    scenarios: {
+        logins: {
+            executor: 'constant-vus',
+            vus: VUS,
+            duration: DURATION,
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const user = `loadtest+${Math.floor(Math.random() * USER_COUNT)}@example.com`;
+    const response = http.post(
+        `${BASE_URL}/login`,
+        JSON.stringify({ username: user, password: PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' } },
+    );
+    loginDuration.add(response.timings.duration);
+    check(response, { 'logged in': (r) => r.status === 200 });
+}
+
+export function handleSummary(data) {
+    const duration = data.metrics.login_duration.values;
+    const result = {
+        mode: MODE,
+        vus: VUS,
+        requests: data.metrics.http_reqs.values.count,
+        failedRate: data.metrics.checks ? 1 - data.metrics.checks.values.rate : null,
+        p50Ms: duration['p(50)'],
+        p95Ms: duration['p(95)'],
+        p99Ms: duration['p(99)'],
+        maxMs: duration.max,
+    };
+    return {
+        stdout: JSON.stringify(result, null, 2) + '\n',
+        [`deployment/load-test/results/login-${MODE}.json`]: JSON.stringify(result, null, 2),
+    };
+}